@@ -231,6 +231,7 @@ public class GameController implements ActionListener {
   final void setGameTimer(GameTimer timer) {
     gameTimer = timer;
     timer.addActionListener(this);
+    getEngine().setGameTimer(timer);
   }
 
   /**
@@ -49,12 +49,14 @@ import com.github.warpwe.javachess.engine.ChessEngineImpl;
 import com.github.warpwe.javachess.engine.IChessEngine;
 import com.github.warpwe.javachess.game.GameImpl;
 import com.github.warpwe.javachess.game.IGame;
-import com.github.warpwe.javachess.listener.IEngineStatusListener;
+import com.github.warpwe.javachess.jmx.EngineMonitor;
 import com.github.warpwe.javachess.menu.EditMenu;
+import com.github.warpwe.javachess.menu.EngineMenu;
 import com.github.warpwe.javachess.notation.GameNotationImpl;
 import com.github.warpwe.javachess.notation.IGameNotation;
 import com.github.warpwe.javachess.renderer.ChessBoardRenderer;
 import com.github.warpwe.javachess.renderer2d.ChessBoardRenderer2D;
+import com.github.warpwe.javachess.renderer2d.EngineOutputListener;
 import com.github.warpwe.javachess.renderer2d.EnginePanel;
 import com.github.warpwe.javachess.renderer2d.GameTimerPanel;
 import com.github.warpwe.javachess.renderer2d.NavigationPanel;
@@ -65,7 +67,7 @@ import com.github.warpwe.javachess.util.ResourceLoader;
 /**
  * The main class for the chess game, representing the GUI
  */
-public class JavaChess extends JFrame implements IEngineStatusListener {
+public class JavaChess extends JFrame {
   /**
    * 
    */
@@ -105,6 +107,11 @@ public class JavaChess extends JFrame implements IEngineStatusListener {
    */
   private EnginePanel jpEngine;
 
+  /**
+   * The listener, that shows the engine output in the panels.
+   */
+  private EngineOutputListener engineOutput;
+
   /**
    * Own Panel for navigation buttons
    */
@@ -222,7 +229,7 @@ public class JavaChess extends JFrame implements IEngineStatusListener {
     _gameNotation = new GameNotationImpl();
     _board = new BitBoardImpl();
     _engine = new ChessEngineImpl(_game, _gameNotation, _board, false);
-    ((ChessEngineImpl) _engine).addEngineStatusListener(this);
+    EngineMonitor.register((ChessEngineImpl) _engine);
 
     // Create a timer with 40 min for each player.
     _gameTimer = new GameTimerPanel(40 * 60);
@@ -237,8 +244,8 @@ public class JavaChess extends JFrame implements IEngineStatusListener {
     editMenu.setNotationPanel(jpNotation);
 
     this.jpEngine = new EnginePanel();
-    ((ChessEngineImpl) _engine).setEnginePanel(jpEngine);
-    ((ChessEngineImpl) _engine).setStatusPanel(jpStatus);
+    engineOutput = new EngineOutputListener(jpEngine, jpStatus);
+    ((ChessEngineImpl) _engine).addEngineStatusListener(engineOutput);
 
     this.jpNavigation = new NavigationPanel();
 
@@ -305,9 +312,9 @@ public class JavaChess extends JFrame implements IEngineStatusListener {
     menuBar.add(editMenu.getMenu());
 
     // Get the menu from the chess engine and add it to the menu bar.
-    menuBar.add(_engine.getMenu());
+    menuBar.add(new EngineMenu((ChessEngineImpl) _engine).getMenu());
 
-    this.engineStatusChanged((ChessEngineImpl) _engine);
+    engineOutput.engineStatusChanged((ChessEngineImpl) _engine);
 
     // Create and add a help menu
     JMenu helpMenu = new JMenu("Help");
@@ -456,10 +463,4 @@ public class JavaChess extends JFrame implements IEngineStatusListener {
   void this_windowClosing(WindowEvent e) {
     System.exit(0);
   }
-
-  public void engineStatusChanged(ChessEngineImpl engine) {
-    if (this.jpStatus != null) {
-      this.jpStatus.setActionText(engine.getStatusDisplayString());
-    }
-  }
 }
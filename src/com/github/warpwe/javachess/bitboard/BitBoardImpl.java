@@ -13,13 +13,11 @@
 package com.github.warpwe.javachess.bitboard;
 
 import com.github.warpwe.javachess.board.Board;
+import com.github.warpwe.javachess.engine.hashtable.ZobristKeyImpl;
 import com.github.warpwe.javachess.piece.IPiece;
 import com.github.warpwe.javachess.piece.PieceImpl;
-import com.github.warpwe.javachess.ply.ICastlingPly;
-import com.github.warpwe.javachess.ply.IEnPassantPly;
+import com.github.warpwe.javachess.ply.CompactPly;
 import com.github.warpwe.javachess.ply.IPly;
-import com.github.warpwe.javachess.ply.ITransformationPly;
-import com.github.warpwe.javachess.ply.PlyImpl;
 import com.github.warpwe.javachess.position.Position;
 import com.github.warpwe.javachess.position.PositionImpl;
 
@@ -28,6 +26,30 @@ import com.github.warpwe.javachess.position.PositionImpl;
  */
 public class BitBoardImpl implements IBitBoard {
 
+  // Static variables
+
+  /**
+   * The castling rights, that remain after a ply from or to a square.
+   */
+  private static final int[] _castlingRightsMask = new int[64];
+
+  static {
+    for (int i = 0; i < 64; i++) {
+      _castlingRightsMask[i] = ALL_CASTLING_RIGHTS;
+    }
+    _castlingRightsMask[0] &= ~WHITE_LEFT_CASTLING;
+    _castlingRightsMask[4] &= ~(WHITE_LEFT_CASTLING | WHITE_RIGHT_CASTLING);
+    _castlingRightsMask[7] &= ~WHITE_RIGHT_CASTLING;
+    _castlingRightsMask[56] &= ~BLACK_LEFT_CASTLING;
+    _castlingRightsMask[60] &= ~(BLACK_LEFT_CASTLING | BLACK_RIGHT_CASTLING);
+    _castlingRightsMask[63] &= ~BLACK_RIGHT_CASTLING;
+  }
+
+  /**
+   * The random numbers for the Zobrist key.
+   */
+  private static final ZobristKeyImpl _zobristKey = ZobristKeyImpl.getInstance();
+
   // Instance variables
   /**
    * Store the board in 4 64 bit layers. Layer 0 holds the color, layer 1-3 hold the piece code or
@@ -35,6 +57,22 @@ public class BitBoardImpl implements IBitBoard {
    */
   long[] _boardLayer = new long[4];
 
+  /**
+   * The castling rights, that were not lost by a ply on this board.
+   */
+  private int _castlingRights;
+
+  /**
+   * The square, that a pawn skipped with the last ply, or 0.
+   */
+  private int _enPassantSquare;
+
+  /**
+   * The Zobrist key of the pieces, castling rights and en passant square. It is updated with every
+   * change of the board.
+   */
+  private long _hashKey;
+
   // Constructors
 
   /**
@@ -44,6 +82,19 @@ public class BitBoardImpl implements IBitBoard {
     initialPosition();
   }
 
+  /**
+   * Create a new board as a copy of a given board.
+   *
+   * @param board
+   *          The board to copy.
+   */
+  private BitBoardImpl(BitBoardImpl board) {
+    System.arraycopy(board._boardLayer, 0, _boardLayer, 0, 4);
+    _castlingRights = board._castlingRights;
+    _enPassantSquare = board._enPassantSquare;
+    _hashKey = board._hashKey;
+  }
+
   // Methods
 
   /**
@@ -52,11 +103,7 @@ public class BitBoardImpl implements IBitBoard {
    * @return A clone of this board.
    */
   public final Object clone() {
-    BitBoardImpl clone = new BitBoardImpl();
-    for (int i = 0; i < 4; i++) {
-      clone._boardLayer[i] = _boardLayer[i];
-    }
-    return clone;
+    return new BitBoardImpl(this);
   }
 
   /**
@@ -66,6 +113,9 @@ public class BitBoardImpl implements IBitBoard {
     for (int i = 0; i < 4; i++) {
       _boardLayer[i] = 0L;
     }
+    _castlingRights = ALL_CASTLING_RIGHTS;
+    _enPassantSquare = 0;
+    _hashKey = _zobristKey.getCastlingFactor(ALL_CASTLING_RIGHTS);
   }
 
   /**
@@ -74,9 +124,7 @@ public class BitBoardImpl implements IBitBoard {
   public final void initialPosition() {
 
     // Empty the board, before the pieces are added.
-    for (int i = 0; i < 64; i++) {
-      setPiece(null, new PositionImpl(i));
-    }
+    emptyBoard();
 
     for (int i = 0; i < 8; i++) {
       setPiece(new PieceImpl(IPiece.PAWN, IPiece.WHITE), new PositionImpl(8 + i));
@@ -126,8 +174,36 @@ public class BitBoardImpl implements IBitBoard {
    *          The position of the square.
    */
   public final void setPiece(IPiece piece, Position position) {
-    byte pieceCodeColor = ((piece == null) ? 0 : piece.getTypeAndColor());
-    long bitmask = 1L << position.getSquareIndex();
+    setPieceCode((piece == null) ? 0 : piece.getTypeAndColor(), position.getSquareIndex());
+  }
+
+  /**
+   * Get the type and color of the piece on a given square without creating a piece instance.
+   *
+   * @param square
+   *          The index of the square.
+   * @return The type and color of the piece (as in IPiece.getTypeAndColor()) or 0, if the square is
+   *         empty.
+   */
+  public final int getPieceCode(int square) {
+    return ((int) (_boardLayer[0] >>> square) & 1) | (((int) (_boardLayer[1] >>> square) & 1) << 1)
+        | (((int) (_boardLayer[2] >>> square) & 1) << 2)
+        | (((int) (_boardLayer[3] >>> square) & 1) << 3);
+  }
+
+  /**
+   * Set a piece code on a given square.
+   *
+   * @param pieceCodeColor
+   *          The type and color of the piece or 0 to empty the square.
+   * @param square
+   *          The index of the square.
+   */
+  private final void setPieceCode(int pieceCodeColor, int square) {
+    _hashKey ^= _zobristKey.getPieceFactor(getPieceCode(square), square)
+        ^ _zobristKey.getPieceFactor(pieceCodeColor, square);
+
+    long bitmask = 1L << square;
     long bitFilter = ~bitmask;
 
     for (int i = 0; i < 4; i++) {
@@ -141,6 +217,59 @@ public class BitBoardImpl implements IBitBoard {
     }
   }
 
+  /**
+   * Set the castling rights and update the key.
+   *
+   * @param castlingRights
+   *          The new castling rights.
+   */
+  public final void setCastlingRights(int castlingRights) {
+    _hashKey ^= _zobristKey.getCastlingFactor(_castlingRights)
+        ^ _zobristKey.getCastlingFactor(castlingRights);
+    _castlingRights = castlingRights;
+  }
+
+  /**
+   * Set the en passant square and update the key.
+   *
+   * @param square
+   *          The square, that a pawn skipped with the last ply, or 0.
+   */
+  public final void setEnPassantSquare(int square) {
+    _hashKey ^= _zobristKey.getEnPassantFactor(_enPassantSquare)
+        ^ _zobristKey.getEnPassantFactor(square);
+    _enPassantSquare = square;
+  }
+
+  /**
+   * Get the castling rights, that were not lost by a ply on this board.
+   *
+   * @return The castling rights as a bitmask of the *_CASTLING flags.
+   */
+  public final int getCastlingRights() {
+    return _castlingRights;
+  }
+
+  /**
+   * Get the square, that a pawn skipped with the last ply.
+   *
+   * @return The skipped square or 0, if the last ply was no pawn ply over 2 squares.
+   */
+  public final int getEnPassantSquare() {
+    return _enPassantSquare;
+  }
+
+  /**
+   * Get the Zobrist key of this board.
+   *
+   * @param white
+   *          true, if white has the next move.
+   * @return The Zobrist key of the board and the color to move.
+   */
+  public final long getHashKey(boolean white) {
+    return white ? _hashKey : _hashKey ^ _zobristKey.getBlackMovesFactor();
+  }
+
   /**
    * Move a piece from one square to another.
    *
@@ -148,43 +277,171 @@ public class BitBoardImpl implements IBitBoard {
    *          The ply to perform.
    */
   public final void doPly(IPly ply) {
-    IPiece movedPiece = getPiece(ply.getSource());
+    makePly(ply);
+  }
+
+  /**
+   * Perform a ply on this board in place.
+   *
+   * @param ply
+   *          The ply to perform.
+   * @return The information, that is required to take the ply back with unmakePly.
+   */
+  public final int makePly(IPly ply) {
+    return makePly(CompactPly.encode(ply));
+  }
+
+  /**
+   * Take back a ply, that was performed with makePly.
+   *
+   * @param ply
+   *          The ply to take back.
+   * @param undoInfo
+   *          The information, that makePly returned for this ply.
+   */
+  public final void unmakePly(IPly ply, int undoInfo) {
+    unmakePly(CompactPly.encode(ply), undoInfo);
+  }
+
+  /**
+   * Perform a encoded ply on this board in place.
+   *
+   * @param ply
+   *          The ply to perform as encoded by CompactPly.
+   * @return The information, that is required to take the ply back with unmakePly.
+   */
+  public final int makePly(int ply) {
+    int source = CompactPly.getSource(ply);
+    int destination = CompactPly.getDestination(ply);
+    int movedPiece = getPieceCode(source);
+    int capturedPiece = 0;
+    int undoInfo = (_castlingRights << 4) | (_enPassantSquare << 8);
+    int enPassantSquare = 0;
 
     // Check, if it was a castling
-    if (ply instanceof ICastlingPly) {
-      int offset = movedPiece.isWhite() ? 0 : 56;
-      if (((ICastlingPly) ply).isLeftCastling()) {
-        setPiece(movedPiece, new PositionImpl(2 + offset));
+    if (CompactPly.getType(ply) == CompactPly.CASTLING) {
+      setCastlingRights(_castlingRights & _castlingRightsMask[source]);
+      int offset = ((movedPiece & 1) != 0) ? 0 : 56;
+      if (destination < source) {
+        setPieceCode(movedPiece, 2 + offset);
         // Move the rook to the right
-        doPly(new PlyImpl(new PositionImpl(0 + offset), new PositionImpl(3 + offset), false));
+        setPieceCode(getPieceCode(0 + offset), 3 + offset);
+        setPieceCode(0, 0 + offset);
       }
       else {
-        setPiece(movedPiece, new PositionImpl(6 + offset));
+        setPieceCode(movedPiece, 6 + offset);
         // Move the rook to the left
-        doPly(new PlyImpl(new PositionImpl(7 + offset), new PositionImpl(5 + offset), false));
+        setPieceCode(getPieceCode(7 + offset), 5 + offset);
+        setPieceCode(0, 7 + offset);
       }
     }
     else {
+      setCastlingRights(_castlingRights & _castlingRightsMask[source]
+          & _castlingRightsMask[destination]);
+
+      // A pawn, that moves 2 squares, can be attacked en passant.
+      if (((movedPiece >> 1) == IPiece.PAWN) && (Math.abs(destination - source) == 16)) {
+        enPassantSquare = (source + destination) >> 1;
+      }
+
+      // If it's a en passant ply, remove the attacked pawn.
+      if (CompactPly.getType(ply) == CompactPly.EN_PASSANT) {
+        int attackedSquare = (source & ~7) | (destination & 7);
+        capturedPiece = getPieceCode(attackedSquare);
+        setPieceCode(0, attackedSquare);
+      }
+      else {
+        capturedPiece = getPieceCode(destination);
+      }
+
       // If a pawn has just reached the last row
-      if (ply instanceof ITransformationPly) {
+      if (CompactPly.getType(ply) == CompactPly.TRANSFORMATION) {
         // Set a piece of the new type on the destination square.
-        setPiece(
-            new PieceImpl(((ITransformationPly) ply).getTypeAfterTransformation(),
-                movedPiece.getColor()), ply.getDestination());
+        setPieceCode((CompactPly.getTypeAfterTransformation(ply) << 1) | (movedPiece & 1),
+            destination);
       }
       else {
         // Copy the piece from source square to destination square.
-        setPiece(movedPiece, ply.getDestination());
-
-        // If it's a en passant ply, remove the attacked pawn.
-        if (ply instanceof IEnPassantPly) {
-          setPiece(null, ((IEnPassantPly) ply).getAttackedPosition());
-        }
+        setPieceCode(movedPiece, destination);
       }
     }
 
     // Empty the source square.
-    setPiece(null, ply.getSource());
+    setPieceCode(0, source);
+    setEnPassantSquare(enPassantSquare);
+
+    return undoInfo | capturedPiece;
+  }
+
+  /**
+   * Take back a encoded ply, that was performed with makePly.
+   *
+   * @param ply
+   *          The ply to take back as encoded by CompactPly.
+   * @param undoInfo
+   *          The information, that makePly returned for this ply.
+   */
+  public final void unmakePly(int ply, int undoInfo) {
+    int source = CompactPly.getSource(ply);
+    int destination = CompactPly.getDestination(ply);
+
+    if (CompactPly.getType(ply) == CompactPly.CASTLING) {
+      int offset = (source == 4) ? 0 : 56;
+      if (destination < source) {
+        setPieceCode(getPieceCode(2 + offset), source);
+        setPieceCode(0, 2 + offset);
+        setPieceCode(getPieceCode(3 + offset), 0 + offset);
+        setPieceCode(0, 3 + offset);
+      }
+      else {
+        setPieceCode(getPieceCode(6 + offset), source);
+        setPieceCode(0, 6 + offset);
+        setPieceCode(getPieceCode(5 + offset), 7 + offset);
+        setPieceCode(0, 5 + offset);
+      }
+    }
+    else {
+      int movedPiece = getPieceCode(destination);
+
+      // A transformed piece was a pawn before the ply.
+      if (CompactPly.getType(ply) == CompactPly.TRANSFORMATION) {
+        movedPiece = (IPiece.PAWN << 1) | (movedPiece & 1);
+      }
+      setPieceCode(movedPiece, source);
+
+      // Restore the captured piece.
+      if (CompactPly.getType(ply) == CompactPly.EN_PASSANT) {
+        setPieceCode(0, destination);
+        setPieceCode(undoInfo & 0xF, (source & ~7) | (destination & 7));
+      }
+      else {
+        setPieceCode(undoInfo & 0xF, destination);
+      }
+    }
+
+    setCastlingRights((undoInfo >> 4) & 0xF);
+    setEnPassantSquare((undoInfo >> 8) & 63);
+  }
+
+  /**
+   * Pass the right to move to the opponent without moving a piece.
+   *
+   * @return The en passant square before the null ply, so it can be restored.
+   */
+  public final int makeNullPly() {
+    int undoInfo = _enPassantSquare;
+    setEnPassantSquare(0);
+    return undoInfo;
+  }
+
+  /**
+   * Take back a null ply.
+   *
+   * @param undoInfo
+   *          The information, that makeNullPly returned.
+   */
+  public final void unmakeNullPly(int undoInfo) {
+    setEnPassantSquare(undoInfo);
   }
 
   /**
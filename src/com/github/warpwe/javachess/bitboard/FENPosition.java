@@ -0,0 +1,132 @@
+/*
+ * FENPosition - A class to set up a board from the Forsyth-Edwards notation. Copyright (C) 2003
+ * The Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.bitboard;
+
+import com.github.warpwe.javachess.piece.IPiece;
+import com.github.warpwe.javachess.piece.PieceImpl;
+import com.github.warpwe.javachess.position.IllegalPositionException;
+import com.github.warpwe.javachess.position.PositionImpl;
+
+/**
+ * This class sets up a board from a position in the Forsyth-Edwards notation (FEN), like
+ * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1". The piece placement, the color
+ * to move, the castling rights and the en passant square are used. The ply counters are optional
+ * and ignored.
+ */
+public class FENPosition {
+
+  // Static variables
+
+  /**
+   * The FEN letters of the piece types (indexed by IPiece type) for the white pieces.
+   */
+  private static final String _pieceLetters = " PBNRQK";
+
+  /**
+   * The FEN position of the initial position.
+   */
+  public static final String INITIAL_POSITION =
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  // Constructors
+
+  /**
+   * This class only has static methods.
+   */
+  private FENPosition() {
+  }
+
+  // Methods
+
+  /**
+   * Set up a board from a FEN position.
+   *
+   * @param board
+   *          The board to set up.
+   * @param fen
+   *          The position in the Forsyth-Edwards notation.
+   * @return true, if white has the next move.
+   * @throws IllegalPositionException
+   *           If the position can't be parsed.
+   */
+  public static final boolean setPosition(IBitBoard board, String fen) {
+    String[] fields = fen.trim().split("\\s+");
+    if (fields.length < 2) {
+      throw new IllegalPositionException("Missing color to move in FEN: " + fen);
+    }
+
+    board.emptyBoard();
+
+    // The rows are given from the 8th row down to the 1st row.
+    int row = 7;
+    int line = 0;
+    for (int i = 0; i < fields[0].length(); i++) {
+      char c = fields[0].charAt(i);
+      if (c == '/') {
+        if (line != 8) {
+          throw new IllegalPositionException("Incomplete row in FEN: " + fen);
+        }
+        row--;
+        line = 0;
+      }
+      else if ((c >= '1') && (c <= '8')) {
+        line += c - '0';
+      }
+      else {
+        int pieceType = _pieceLetters.indexOf(Character.toUpperCase(c));
+        if ((pieceType <= 0) || (line > 7) || (row < 0)) {
+          throw new IllegalPositionException("Illegal piece placement in FEN: " + fen);
+        }
+        byte color = Character.isUpperCase(c) ? IPiece.WHITE : IPiece.BLACK;
+        board.setPiece(new PieceImpl((byte) pieceType, color), new PositionImpl(row * 8 + line));
+        line++;
+      }
+    }
+    if ((row != 0) || (line != 8)) {
+      throw new IllegalPositionException("Incomplete board in FEN: " + fen);
+    }
+
+    boolean white;
+    if (fields[1].equals("w")) {
+      white = true;
+    }
+    else if (fields[1].equals("b")) {
+      white = false;
+    }
+    else {
+      throw new IllegalPositionException("Illegal color to move in FEN: " + fen);
+    }
+
+    int castlingRights = 0;
+    if (fields.length > 2) {
+      castlingRights |= (fields[2].indexOf('K') >= 0) ? IBitBoard.WHITE_RIGHT_CASTLING : 0;
+      castlingRights |= (fields[2].indexOf('Q') >= 0) ? IBitBoard.WHITE_LEFT_CASTLING : 0;
+      castlingRights |= (fields[2].indexOf('k') >= 0) ? IBitBoard.BLACK_RIGHT_CASTLING : 0;
+      castlingRights |= (fields[2].indexOf('q') >= 0) ? IBitBoard.BLACK_LEFT_CASTLING : 0;
+    }
+    board.setCastlingRights(castlingRights);
+
+    int enPassantSquare = 0;
+    if ((fields.length > 3) && !fields[3].equals("-")) {
+      String square = fields[3];
+      if ((square.length() != 2) || (square.charAt(0) < 'a') || (square.charAt(0) > 'h')
+          || ((square.charAt(1) != '3') && (square.charAt(1) != '6'))) {
+        throw new IllegalPositionException("Illegal en passant square in FEN: " + fen);
+      }
+      enPassantSquare = (square.charAt(1) - '1') * 8 + (square.charAt(0) - 'a');
+    }
+    board.setEnPassantSquare(enPassantSquare);
+
+    return white;
+  }
+}
@@ -13,6 +13,7 @@
 package com.github.warpwe.javachess.bitboard;
 
 import com.github.warpwe.javachess.board.Board;
+import com.github.warpwe.javachess.ply.IPly;
 
 /**
  * This interface defines the methods to be implemented by any bitboard implementation.
@@ -54,6 +55,15 @@ public interface IBitBoard extends Board {
   long _NOT_ROW_7 = ~_ROW_7;
   long _NOT_ROW_8 = ~_ROW_8;
 
+  /**
+   * The castling rights of a board.
+   */
+  int WHITE_RIGHT_CASTLING = 1;
+  int WHITE_LEFT_CASTLING = 2;
+  int BLACK_RIGHT_CASTLING = 4;
+  int BLACK_LEFT_CASTLING = 8;
+  int ALL_CASTLING_RIGHTS = 15;
+
   // Methods
 
   /**
@@ -81,6 +91,16 @@ public interface IBitBoard extends Board {
    */
   long getAllPiecesForColor(boolean white);
 
+  /**
+   * Get the type and color of the piece on a given square without creating a piece instance.
+   *
+   * @param square
+   *          The index of the square.
+   * @return The type and color of the piece (as in IPiece.getTypeAndColor()) or 0, if the square is
+   *         empty.
+   */
+  int getPieceCode(int square);
+
   /**
    * Get the board as a byte stream.
    *
@@ -88,6 +108,104 @@ public interface IBitBoard extends Board {
    */
   byte[] getBytes();
 
+  /**
+   * Perform a ply on this board in place. This is the fast alternative to getBoardAfterPly, that
+   * avoids the creation of a new board for every searched ply.
+   *
+   * @param ply
+   *          The ply to perform.
+   * @return A compact undo record, that has to be passed to unmakePly to take the ply back.
+   */
+  int makePly(IPly ply);
+
+  /**
+   * Take back a ply, that was performed with makePly.
+   *
+   * @param ply
+   *          The ply to take back.
+   * @param undoInfo
+   *          The undo record, that makePly returned for this ply.
+   */
+  void unmakePly(IPly ply, int undoInfo);
+
+  /**
+   * Perform a encoded ply on this board in place. The search uses this method, so it doesn't have
+   * to create ply objects.
+   *
+   * @param ply
+   *          The ply to perform as encoded by CompactPly.
+   * @return A compact undo record, that has to be passed to unmakePly to take the ply back.
+   */
+  int makePly(int ply);
+
+  /**
+   * Take back a encoded ply, that was performed with makePly.
+   *
+   * @param ply
+   *          The ply to take back as encoded by CompactPly.
+   * @param undoInfo
+   *          The undo record, that makePly returned for this ply.
+   */
+  void unmakePly(int ply, int undoInfo);
+
+  /**
+   * Pass the right to move to the opponent without moving a piece (a null ply). Only the en
+   * passant square is cleared, since the color to move is not stored on the board.
+   *
+   * @return A compact undo record, that has to be passed to unmakeNullPly.
+   */
+  int makeNullPly();
+
+  /**
+   * Take back a null ply, that was performed with makeNullPly.
+   *
+   * @param undoInfo
+   *          The undo record, that makeNullPly returned.
+   */
+  void unmakeNullPly(int undoInfo);
+
+  /**
+   * Get the castling rights, that were not lost by a ply on this board. The ply generator checks
+   * the castlings with them.
+   *
+   * @return The castling rights as a bitmask of the *_CASTLING flags.
+   */
+  int getCastlingRights();
+
+  /**
+   * Set the castling rights, for example to set up a position, that was not reached by plies on
+   * this board.
+   *
+   * @param castlingRights
+   *          The castling rights as a bitmask of the *_CASTLING flags.
+   */
+  void setCastlingRights(int castlingRights);
+
+  /**
+   * Get the square, that a pawn skipped with the last ply.
+   *
+   * @return The skipped square or 0, if the last ply was no pawn ply over 2 squares.
+   */
+  int getEnPassantSquare();
+
+  /**
+   * Set the square, that a pawn skipped with the last ply.
+   *
+   * @param square
+   *          The skipped square or 0, if the last ply was no pawn ply over 2 squares.
+   */
+  void setEnPassantSquare(int square);
+
+  /**
+   * Get the Zobrist key of this board. The key is maintained with every change of the board, so
+   * this method doesn't compute anything.
+   *
+   * @param white
+   *          true, if white has the next move.
+   * @return The Zobrist key of the board and the color to move.
+   */
+  long getHashKey(boolean white);
+
   long getLayer0();
 
   long getLayer1();
@@ -494,10 +494,13 @@ public class BitBoardAnalyzerImpl implements IBitBoardAnalyzer {
     int kingSquare = BitUtils.getHighestBit(kingPosition);
     // System.out.println(" K�nig steht auf: " + kingSquare);
 
-    // Get and cache the empty squares of the current board.
-    long emptySquares = getBoard().getEmptySquares();
-    // System.out.println(" Leere Felder: " +
-    // Long.toHexString(emptySquares));
+    // Without a king, there is no check.
+    if (kingPosition == 0L) {
+      return false;
+    }
+
+    // The squares with a piece on them.
+    long occupiedSquares = ~getBoard().getEmptySquares();
 
     // Now compute the moves backwards from the king's position.
 
@@ -507,49 +510,9 @@ public class BitBoardAnalyzerImpl implements IBitBoardAnalyzer {
     long queenPositions = getBoard().getPositionOfPieces(
         white ? IPiece.QUEEN << 1 : (IPiece.QUEEN << 1) | 1);
 
-    // The pieces, that attack diagonal
-    long diagonalPositions = bishopPositions | queenPositions;
-    // System.out.println(" diagonalPositions: " +
-    // Long.toHexString(diagonalPositions));
-
-    // Move the king to the upper right.
-    long kingMask = kingPosition;
-    while (((kingMask = ((kingMask & IBitBoard._NOT_LINE_H & IBitBoard._NOT_ROW_8) << 9)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & diagonalPositions) != 0L) {
-      // System.out.println("Schach erkannt: " +
-      // Long.toHexString(kingMask));
-      return true; // King is in check!
-    }
-
-    // Move the king to the lower right. incl. Bugfix 19.07.2014 W.E.
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_LINE_H & IBitBoard._NOT_ROW_1) >>> 7)) & emptySquares) != 0L)
-      ;
-    {
-      if ((kingMask & diagonalPositions) != 0L) {
-        // System.out.println(" Schach erkannt: " +
-        // Long.toHexString(kingMask));
-        return true; // King is in check!
-      }
-    }
-    // Move the king to the upper left.
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_LINE_A & IBitBoard._NOT_ROW_8) << 7)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & diagonalPositions) != 0L) {
-      // System.out.println(" Schach erkannt: " +
-      // Long.toHexString(kingMask));
-      return true; // King is in check!
-    }
-
-    // Move the king to the lower left
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_LINE_A & IBitBoard._NOT_ROW_1) >>> 9)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & diagonalPositions) != 0L) {
-      // System.out.println(" Schach erkannt: " +
-      // Long.toHexString(kingMask));
+    // Check the pieces, that attack diagonal, with the bishop attacks from the king's position.
+    if ((SlidingAttacks.getBishopAttacks(kingSquare, occupiedSquares)
+        & (bishopPositions | queenPositions)) != 0L) {
       return true; // King is in check!
     }
 
@@ -558,47 +521,8 @@ public class BitBoardAnalyzerImpl implements IBitBoardAnalyzer {
         white ? IPiece.ROOK << 1 : (IPiece.ROOK << 1) | 1);
 
     // The pieces, that attack horizontally or vertically.
-    long horVertPositions = rookPositions | queenPositions;
-    // System.out.println(" horVertPositions: " +
-    // Long.toHexString(horVertPositions));
-
-    // Move the king downwards
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_ROW_1) >>> 8)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & horVertPositions) != 0L) {
-      // System.out.println(" Schach erkannt: " +
-      // Long.toHexString(kingMask));
-      return true; // King is in check!
-    }
-
-    // Move the king upwards
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_ROW_8) << 8)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & horVertPositions) != 0L) {
-      // System.out.println(" Schach erkannt: " +
-      // Long.toHexString(kingMask));
-      return true; // King is in check!
-    }
-
-    // Move the king to the left
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_LINE_A) >>> 1)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & horVertPositions) != 0L) {
-      // System.out.println(" Schach erkannt: " +
-      // Long.toHexString(kingMask));
-      return true; // King is in check!
-    }
-
-    // Move the king to the right
-    kingMask = kingPosition; // Reset bitmask.
-    while (((kingMask = ((kingMask & IBitBoard._NOT_LINE_H) << 1)) & emptySquares) != 0L)
-      ;
-    if ((kingMask & horVertPositions) != 0L) {
-      // System.out.println(" Schach erkannt: " +
-      // Long.toHexString(kingMask));
+    if ((SlidingAttacks.getRookAttacks(kingSquare, occupiedSquares)
+        & (rookPositions | queenPositions)) != 0L) {
       return true; // King is in check!
     }
 
@@ -611,7 +535,7 @@ public class BitBoardAnalyzerImpl implements IBitBoardAnalyzer {
     }
 
     // Check if the king is in check by a pawn
-    kingMask = kingPosition; // Reset bitmask.
+    long kingMask = kingPosition;
     if (white) {
       // Get the positions of all black pawns and compare them with a
       // moved king.
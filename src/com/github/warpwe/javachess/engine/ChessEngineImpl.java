@@ -12,44 +12,158 @@
 
 package com.github.warpwe.javachess.engine;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-
-import javax.swing.ButtonGroup;
-import javax.swing.JCheckBoxMenuItem;
-import javax.swing.JMenu;
-import javax.swing.JMenuItem;
-import javax.swing.JRadioButtonMenuItem;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import com.github.warpwe.javachess.GameState;
 import com.github.warpwe.javachess.bitboard.IBitBoard;
 import com.github.warpwe.javachess.board.Board;
+import com.github.warpwe.javachess.engine.hashtable.CompactEntry;
 import com.github.warpwe.javachess.engine.hashtable.PlyHashtable;
-import com.github.warpwe.javachess.engine.hashtable.PlyHashtableEntryImpl;
 import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
 import com.github.warpwe.javachess.engine.opening_book.OpeningBook;
 import com.github.warpwe.javachess.engine.opening_book.OpeningBookImpl;
-import com.github.warpwe.javachess.engine.opening_book.action.LoadOpeningsAction;
 import com.github.warpwe.javachess.engine.permanent_brain.PermanentBrain;
 import com.github.warpwe.javachess.engine.permanent_brain.PreComputedPly;
 import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.jfr.ComputeBestPlyEvent;
+import com.github.warpwe.javachess.jfr.SearchIterationEvent;
 import com.github.warpwe.javachess.listener.IEngineStatusListener;
+import com.github.warpwe.javachess.listener.ISearchListener;
+import com.github.warpwe.javachess.listener.SearchEvent;
 import com.github.warpwe.javachess.notation.IGameNotation;
+import com.github.warpwe.javachess.piece.IPiece;
 import com.github.warpwe.javachess.ply.AnalyzedPlyImpl;
+import com.github.warpwe.javachess.ply.CompactPly;
 import com.github.warpwe.javachess.ply.IAnalyzedPly;
 import com.github.warpwe.javachess.ply.IPly;
-import com.github.warpwe.javachess.ply.ITransformationPly;
-import com.github.warpwe.javachess.renderer2d.EnginePanel;
-import com.github.warpwe.javachess.renderer2d.StatusPanel;
+import com.github.warpwe.javachess.timer.GameTimer;
 
 /**
  * This class implements the functionality to play the actual game of chess
  */
-public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
+public class ChessEngineImpl implements IChessEngine, Runnable {
+
+  // Static variables
+
+  /**
+   * The score of a checkmate from the view of the winning player. A checkmate after n plies from
+   * the root scores MATE_SCORE - n, so the search prefers the fastest mate.
+   */
+  private static final int MATE_SCORE = IBitBoardAnalyzer.WHITE_HAS_WON;
+
+  /**
+   * The lowest score of a checkmate.
+   */
+  private static final int MIN_MATE_SCORE = MATE_SCORE - IBitBoardAnalyzer.MAX_PLY;
+
+  /**
+   * A score, that is outside the range of all real scores.
+   */
+  private static final int INFINITE_SCORE = MATE_SCORE + 1;
+
+  /**
+   * The maximum number of search levels of the quiescence search beyond the search depth. At this
+   * level, the score of the board is returned, even if there are more captures.
+   */
+  private static final int MAX_QUIESCENCE_LEVELS = 16;
+
+  /**
+   * The material values of the piece types in the scale of the analyzer (indexed by IPiece type).
+   * The quiescence search uses them to skip the captures, that can't raise alpha.
+   */
+  private static final int[] pieceValues = {
+      0, 90, 270, 270, 405, 720, 0
+  };
+
+  /**
+   * The margin of the delta pruning in the quiescence search. A capture is skipped, if the score
+   * of the board plus the value of the captured piece plus this margin doesn't reach alpha. It
+   * covers the positional changes of a capture.
+   */
+  private static final int DELTA_MARGIN = 180;
+
+  /**
+   * The minimum remaining depth, where a null ply cutoff is verified by a reduced search.
+   */
+  private static final int NULL_PLY_VERIFICATION_DEPTH = 6;
+
+  /**
+   * The depth reductions of the late quiet plies, indexed by the remaining depth and the number of
+   * the ply in the search order. They grow with both, since a late ply at a high depth rarely is
+   * the best one, if the plies are well ordered.
+   */
+  private static final int[][] reductionTable = new int[64][64];
+
+  static {
+    for (int depth = 1; depth < 64; depth++) {
+      for (int plyNumber = 1; plyNumber < 64; plyNumber++) {
+        reductionTable[depth][plyNumber] = (int) (0.5 + Math.log(depth)
+            * Math.log(plyNumber) / 2.5);
+      }
+    }
+  }
+
+  /**
+   * The maximum remaining depth of the frontier nodes, where razoring, futility pruning and late
+   * move pruning are used.
+   */
+  private static final int FRONTIER_DEPTH = 3;
+
+  /**
+   * The margins of the razoring, indexed by the remaining depth.
+   */
+  private static final int[] razorMargins = {
+      0, 270, 450
+  };
+
+  /**
+   * The margins of the futility pruning, indexed by the remaining depth. They cover the positional
+   * gain of a quiet ply.
+   */
+  private static final int[] futilityMargins = {
+      0, 180, 360
+  };
+
+  /**
+   * The material per remaining depth, that a losing capture may lose before it's pruned.
+   */
+  private static final int LOSING_CAPTURE_MARGIN = 90;
+
+  /**
+   * The number of plies, after which the quiet plies are pruned, indexed by the remaining depth.
+   */
+  private static final int[] lateMoveLimits = {
+      0, 6, 10, 16
+  };
+
+  /**
+   * The types of the search events.
+   */
+  private static final int ITERATION_COMPLETED = 0;
+  private static final int PRINCIPAL_VARIATION_CHANGED = 1;
+  private static final int BEST_PLY_FOUND = 2;
+  private static final int ENGINE_RESET = 3;
+
+  /**
+   * The maximum search depth of a iterative search.
+   */
+  private static final int MAX_SEARCH_DEPTH = 64;
+
+  /**
+   * The search checks the deadline and the node limit every POLL_INTERVAL_MASK + 1 nodes.
+   */
+  private static final int POLL_INTERVAL_MASK = 1023;
+
+  /**
+   * The half width of the aspiration window around the score of the last iteration. After a fail
+   * low or fail high, the window is widened on that side, until the score is inside of it.
+   */
+  private static final int ASPIRATION_WINDOW = 60;
 
   // Instance variables
 
@@ -94,9 +208,75 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
   private PermanentBrain permanentBrain;
 
   /**
-   * The menu item to toggle the permanent brain.
+   * The plies of the root position and their scores in the last iteration. The plies are kept in
+   * the order of these scores, so the best ply of a iteration is searched first in the next one.
+   */
+  private int[] rootPlies = new int[PlyGenerator.MAX_PLIES];
+  private int[] rootScores = new int[PlyGenerator.MAX_PLIES];
+
+  /**
+   * The number of root plies.
    */
-  private JCheckBoxMenuItem permanentBrainMenuItem;
+  private int rootPlyCount = 0;
+
+  /**
+   * The hash key of the root position, so the root plies are only generated for a new position.
+   */
+  private long rootHashKey;
+
+  /**
+   * Flag to indicate, if the search prunes with null plies.
+   */
+  private boolean nullMovePruning = true;
+
+  /**
+   * Flag to indicate, if the late quiet plies are searched with a reduced depth.
+   */
+  private boolean lateMoveReductions = true;
+
+  /**
+   * Flags to indicate, if the search uses razoring, futility pruning, late move pruning and the
+   * pruning of losing captures.
+   */
+  private boolean razoring = true;
+  private boolean futilityPruning = true;
+  private boolean lateMovePruning = true;
+  private boolean losingCapturePruning = true;
+
+  /**
+   * The first search level, where null plies are tried. It's raised while a null ply cutoff is
+   * verified.
+   */
+  private int nullPlyMinLevel = 0;
+
+  /**
+   * The score of the last completed iteration from the view of the player to move. It's the
+   * center of the aspiration window of the next iteration.
+   */
+  private int lastIterationScore;
+
+  /**
+   * The ply pickers of each search level. They generate the plies into their own arrays, so the
+   * search doesn't create any objects for them.
+   */
+  private PlyPicker[] plyPickers = new PlyPicker[0];
+
+  /**
+   * The 2 killer plies of each search level: quiet plies, that caused a cutoff in another position
+   * of the same level.
+   */
+  private int[][] killerPlies = new int[0][];
+
+  /**
+   * The quiet plies, that were searched in the current position of each search level. If one of
+   * them causes a cutoff, the history scores of the others are reduced.
+   */
+  private int[][] searchedQuietPlies = new int[0][];
+
+  /**
+   * The history scores and counter plies to order the quiet plies.
+   */
+  private PlyHistory history = new PlyHistory();
 
   /**
    * A hashtable for computed plies.
@@ -123,59 +303,91 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    */
   private long analyzedBoards;
 
+  /**
+   * The statistics of the current search of this thread.
+   */
+  private SearchStatistics statistics = new SearchStatistics();
+
   /**
    * A thread to search for the best move.
    */
   private volatile Thread searchThread;
 
   /**
-   * Flag to stop the search.
+   * Flag to stop the search. It is read by all the search threads.
    */
-  private boolean stopSearch;
+  private volatile boolean stopSearch;
 
   /**
-   * The best computed ply so far.
+   * The time in milliseconds, when the search has to stop, or 0, if there is no deadline.
    */
-  private IAnalyzedPly bestPly = null;
+  private volatile long searchDeadline = 0L;
 
   /**
-   * The menu items for the various fix search times.
+   * The limits of the current search.
    */
-  private JMenuItem[] fixSearchTimeMenuItem;
+  private SearchLimits searchLimits = new SearchLimits();
 
   /**
-   * The menu items for the various average search times.
+   * The number of nodes of all search threads, at which the search has to stop, or 0, if there is
+   * no limit. The nodes are counted like the total nodes of the search statistics.
    */
-  private JMenuItem[] avSearchTimeMenuItem;
+  private long nodeLimit = 0L;
 
   /**
-   * The predefined search times (in seconds).
+   * The nodes of all search threads, that were reported at the checks of the node limit. The
+   * helpers share the counter of the main engine.
    */
-  private int[] searchTime = {
-      3, 5, 10, 15, 30, 45, 60
-  };
+  private AtomicLong searchNodes = new AtomicLong();
 
   /**
-   * The menu items for the various hashtable sizes.
+   * The nodes of this thread, that were already added to the shared node counter.
    */
-  private JMenuItem[] hashtableSizeMenuItem;
+  private long reportedNodes;
 
   /**
-   * The predefined hashtable sizes.
+   * The number of checks of the stop flag. The deadline is only compared with the current time,
+   * when the lower bits are 0.
    */
-  private int[] hashtableSizes = {
-      5000, 10000, 20000, 50000, 100000
-  };
+  private int pollCounter;
+
+  /**
+   * The best root ply of the current iteration and it's score, if a root ply was searched
+   * completely and raised alpha, or CompactPly.NO_PLY.
+   */
+  private int interruptedIterationPly = CompactPly.NO_PLY;
+  private int interruptedIterationScore;
+
+  /**
+   * The best computed ply so far.
+   */
+  private IAnalyzedPly bestPly = null;
+
+  /**
+   * The default hashtable size (in megabytes).
+   */
+  private static final int DEFAULT_HASHTABLE_SIZE = 32;
 
   /**
-   * The menu items for the various search times.
+   * The number of threads, that search in parallel.
    */
-  private EnginePanel enginePanel = null;
+  private int threadCount = 1;
 
   /**
-   * The menu items for the various search times.
+   * The helper engines of a parallel search. They share the hashtable with this engine, but
+   * operate on their own game, board, ply generator and analyzer.
    */
-  private StatusPanel statusPanel = null;
+  private List<ChessEngineImpl> helpers = new CopyOnWriteArrayList<ChessEngineImpl>();
+
+  /**
+   * The index of this engine, if it's a helper of a parallel search (0 for the main engine).
+   */
+  private int helperIndex = 0;
+
+  /**
+   * The start time of the current search.
+   */
+  private long searchStartTime;
 
   /**
    * The last ply from the user.
@@ -188,14 +400,14 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
   private boolean bFixedTime = false;
 
   /**
-   * The ButtonGroup for the time controls
+   * The game timer with the remaining time of the players or null, if there is no timer.
    */
-  ButtonGroup buttonGroupSearchTime;
+  private GameTimer gameTimer = null;
 
   /**
-   * The ButtonGroup for the hash sizes
+   * The time manager, that decides, how long the search runs.
    */
-  ButtonGroup buttonGroupHashSize;
+  private TimeManager timeManager = new TimeManager();
 
   /**
    * The list of listeners
@@ -222,7 +434,7 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     setGame(game);
     setBoard(board);
     setWhite(white);
-    hashtable = new PlyHashtableImpl(100000);
+    hashtable = new PlyHashtableImpl(PlyHashtableImpl.getEntriesForSize(DEFAULT_HASHTABLE_SIZE));
     plyGenerator = new PlyGenerator(getGame(), hashtable);
     analyzer = new BitBoardAnalyzerImpl(getGame(), plyGenerator);
     plyGenerator.setAnalyzer(analyzer);
@@ -232,6 +444,36 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     setInOpeningBook(true);
   }
 
+  /**
+   * Create a helper engine for a parallel search. The helper searches a copy of the current game
+   * and board of the given engine and shares it's hashtable.
+   * 
+   * @param engine
+   *          The main engine of the search.
+   * @param helperIndex
+   *          The index of the new helper (starting with 1).
+   */
+  private ChessEngineImpl(ChessEngineImpl engine, int helperIndex) {
+    listeners = new ArrayList<IEngineStatusListener>();
+    setGame((IGame) engine.getGame().clone());
+    setBoard((Board) engine.getBoard().clone());
+    setWhite(engine.isWhite());
+    hashtable = engine.getHashtable();
+    plyGenerator = new PlyGenerator(getGame(), hashtable);
+    analyzer = new BitBoardAnalyzerImpl(getGame(), plyGenerator);
+    plyGenerator.setAnalyzer(analyzer);
+    setInOpeningBook(false);
+    setNullMovePruning(engine.isNullMovePruning());
+    setLateMoveReductions(engine.isLateMoveReductions());
+    setRazoring(engine.isRazoring());
+    setFutilityPruning(engine.isFutilityPruning());
+    setLateMovePruning(engine.isLateMovePruning());
+    setLosingCapturePruning(engine.isLosingCapturePruning());
+    nodeLimit = engine.nodeLimit;
+    searchNodes = engine.searchNodes;
+    this.helperIndex = helperIndex;
+  }
+
   // Methods
 
   /**
@@ -241,15 +483,8 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     setInOpeningBook(true); // Default is, that we are in the opening book.
     getHashtable().reset(); // Reset the hash tables.
 
-    // Remove the engine status messages.
-    if (enginePanel != null) {
-      enginePanel.setText("");
-    }
-
-    // After a reset, the user is about to move.
-    if (this.statusPanel != null) {
-      this.statusPanel.setStatusText("Your turn...");
-    }
+    // Tell the listeners, so they can remove the engine status messages.
+    fireSearchEvent(ENGINE_RESET, null);
 
     // Start the permanent brain, if the user wants it to be used.
     startPermanentBrain();
@@ -339,7 +574,7 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    * 
    * @return A flag, that indicates, if the permanent brain should be used.
    */
-  private final boolean usePermanentBrain() {
+  public final boolean usePermanentBrain() {
     return usePermanentBrain;
   }
 
@@ -349,7 +584,7 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    * @param active
    *          Flag to indicate, if the permanent brain function should be used.
    */
-  private final void activatePermanentBrain(boolean active) {
+  public final void activatePermanentBrain(boolean active) {
     usePermanentBrain = active;
 
     // Since the permanent brain is eventually active already, stop it now.
@@ -404,7 +639,7 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    * 
    * @return The current opening book.
    */
-  private final OpeningBook getOpeningBook() {
+  public final OpeningBook getOpeningBook() {
     return openingBook;
   }
 
@@ -423,7 +658,7 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    * 
    * @return true, if we are still in the opening book. False otherwise.
    */
-  private final boolean inOpeningBook() {
+  public final boolean inOpeningBook() {
     return inOpeningBook;
   }
 
@@ -438,28 +673,220 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
   }
 
   /**
-   * Start a new thread to search for a ply.
+   * Get the number of threads, that search in parallel.
+   * 
+   * @return The number of search threads.
+   */
+  public final int getThreadCount() {
+    return threadCount;
+  }
+
+  /**
+   * Set the number of threads, that search in parallel.
+   * 
+   * @param threadCount
+   *          The new number of search threads.
+   */
+  public final void setThreadCount(int threadCount) {
+    this.threadCount = threadCount < 1 ? 1 : threadCount;
+  }
+
+  /**
+   * Check, if the search prunes with null plies.
+   * 
+   * @return true, if null move pruning is used.
+   */
+  public final boolean isNullMovePruning() {
+    return nullMovePruning;
+  }
+
+  /**
+   * Switch the null move pruning on or off, for example to compare the searched boards per depth.
+   * 
+   * @param nullMovePruning
+   *          true, if the search should prune with null plies.
+   */
+  public final void setNullMovePruning(boolean nullMovePruning) {
+    this.nullMovePruning = nullMovePruning;
+  }
+
+  /**
+   * Check, if the late quiet plies are searched with a reduced depth.
+   * 
+   * @return true, if late move reductions are used.
+   */
+  public final boolean isLateMoveReductions() {
+    return lateMoveReductions;
+  }
+
+  /**
+   * Switch the late move reductions on or off, for example to compare the searched boards per
+   * depth.
+   * 
+   * @param lateMoveReductions
+   *          true, if the late quiet plies should be searched with a reduced depth.
+   */
+  public final void setLateMoveReductions(boolean lateMoveReductions) {
+    this.lateMoveReductions = lateMoveReductions;
+  }
+
+  /**
+   * Check, if the search uses razoring.
+   * 
+   * @return true, if razoring is used.
+   */
+  public final boolean isRazoring() {
+    return razoring;
+  }
+
+  /**
+   * Switch the razoring on or off.
+   * 
+   * @param razoring
+   *          true, if positions far below alpha should be checked with a quiescence search only.
+   */
+  public final void setRazoring(boolean razoring) {
+    this.razoring = razoring;
+  }
+
+  /**
+   * Check, if the search uses futility pruning.
+   * 
+   * @return true, if futility pruning is used.
+   */
+  public final boolean isFutilityPruning() {
+    return futilityPruning;
+  }
+
+  /**
+   * Switch the futility pruning on or off.
+   * 
+   * @param futilityPruning
+   *          true, if quiet plies, that can't raise alpha, should be pruned near the leaves.
+   */
+  public final void setFutilityPruning(boolean futilityPruning) {
+    this.futilityPruning = futilityPruning;
+  }
+
+  /**
+   * Check, if the search uses late move pruning.
+   * 
+   * @return true, if late move pruning is used.
+   */
+  public final boolean isLateMovePruning() {
+    return lateMovePruning;
+  }
+
+  /**
+   * Switch the late move pruning on or off.
+   * 
+   * @param lateMovePruning
+   *          true, if the late quiet plies should be pruned near the leaves.
+   */
+  public final void setLateMovePruning(boolean lateMovePruning) {
+    this.lateMovePruning = lateMovePruning;
+  }
+
+  /**
+   * Check, if the search prunes captures, that lose material.
+   * 
+   * @return true, if losing captures are pruned.
+   */
+  public final boolean isLosingCapturePruning() {
+    return losingCapturePruning;
+  }
+
+  /**
+   * Switch the pruning of losing captures on or off.
+   * 
+   * @param losingCapturePruning
+   *          true, if captures, that lose material according to the static exchange evaluation,
+   *          should be pruned near the leaves.
+   */
+  public final void setLosingCapturePruning(boolean losingCapturePruning) {
+    this.losingCapturePruning = losingCapturePruning;
+  }
+
+  /**
+   * Start a new thread to search for a ply. If more than 1 search thread is requested, the helper
+   * engines are started, too.
    */
   public void start() {
     if (searchThread == null) {
+      searchStartTime = System.currentTimeMillis();
       setSearchStop(false);
+      getHashtable().newSearch();
+      helpers.clear();
+      for (int i = 1; i < getThreadCount(); i++) {
+        ChessEngineImpl helper = new ChessEngineImpl(this, i);
+        helpers.add(helper);
+        helper.start();
+      }
       searchThread = new Thread(this);
       searchThread.start();
     }
   }
 
+  /**
+   * Stop the helper engines and wait for them to finish. If a helper completed a deeper search than
+   * this engine, it's result is used as the best ply. The helpers don't stop at the depth limit, so
+   * their deeper results are ignored, if the search has a depth limit.
+   * 
+   * @throws InterruptedException
+   *           if the waiting thread was interrupted.
+   */
+  private final void joinHelpers() throws InterruptedException {
+    for (Iterator<ChessEngineImpl> iterator = helpers.iterator(); iterator.hasNext();) {
+      ChessEngineImpl helper = iterator.next();
+      helper.setSearchStop(true);
+      helper.searchThread.join();
+      helper.searchThread = null;
+
+      setAnalyzedBoards(getAnalyzedBoards() + helper.getAnalyzedBoards());
+      statistics.add(helper.statistics);
+      if ((helper.bestPly != null) && (helper.getSearchDepth() > getSearchDepth())
+          && ((searchLimits.getDepth() == 0) || (helper.getSearchDepth() <= searchLimits
+              .getDepth()))) {
+        bestPly = helper.bestPly;
+        setSearchDepth(helper.getSearchDepth());
+      }
+    }
+    helpers.clear();
+  }
+
   /**
    * Compute the best ply for the current position.
    * 
    * @return The best known ply for the current position.
    */
   public IPly computeBestPly() {
+    return computeBestPly(new SearchLimits());
+  }
+
+  /**
+   * Compute the best ply for the current position with given search limits. The opening book is
+   * only used, if the engine manages the search time, so a search with a depth or node limit is
+   * reproducible.
+   * 
+   * @param limits
+   *          The limits of the search.
+   * @return The best known ply for the current position.
+   */
+  public IPly computeBestPly(SearchLimits limits) {
+
+    ComputeBestPlyEvent event = new ComputeBestPlyEvent();
+    event.begin();
 
     bestPly = null; // Remove ply from last computation.
     long startTime = System.currentTimeMillis();
+    statistics.reset();
+    reportedNodes = 0L;
+    searchNodes.set(0L);
 
-    if (inOpeningBook()) {
+    boolean bookPly = false;
+    if (limits.isEngineTime() && !limits.isPonder() && inOpeningBook()) {
       bestPly = getOpeningBook().getOpeningBookPly();
+      bookPly = bestPly != null;
 
       if (bestPly == null) { // If there's no ply in the opening book.
         setInOpeningBook(false);
@@ -467,44 +894,32 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     }
 
     if (bestPly == null) { // If we don't have a ply yet
+      searchLimits = limits;
+      nodeLimit = limits.getNodes();
+      startSearchTime();
       start();
       try {
-        Thread.sleep(getMaximumSearchTime());
-        setSearchStop(true);
-        // if( this.bFixedTime == false) {
-        searchThread.join(); // Wait for the search thread to end the
-        // search at this search depth.
-        // }
+        // The search thread ends by itself, if the time manager doesn't start another iteration.
+        // Otherwise it stops at the deadline within the current iteration.
+        searchThread.join();
+        setSearchDeadline(0L);
 
         searchThread = null; // Remove the thread, so it can be
         // recreated for the next move.
+
+        joinHelpers();
       }
       catch (InterruptedException ignored) {
       }
     }
+    statistics.setTime(System.currentTimeMillis() - startTime);
+    event.commit(statistics, bookPly ? 0 : getThreadCount(), bestPly, bookPly);
 
-    long usedTime = System.currentTimeMillis() - startTime;
     if (bestPly != null) {
-      if (this.enginePanel != null) {
-        StringBuffer sOut = new StringBuffer();
-        sOut.append("Best ply: ");
-        sOut.append(bestPly.getPly().toString());
-        sOut.append(" with score ");
-        sOut.append(bestPly.getScore());
-        sOut.append(" and search depth ");
-        sOut.append(getSearchDepth());
-        this.enginePanel.modifyText(sOut.toString());
-        sOut = new StringBuffer();
-        sOut.append("Analyzed boards: ");
-        sOut.append(getAnalyzedBoards());
-        sOut.append(" in ");
-        sOut.append(usedTime);
-        sOut.append(" ms");
-        this.enginePanel.modifyText(sOut.toString());
+      if (hasSearchListeners()) {
+        fireSearchEvent(BEST_PLY_FOUND, new SearchEvent(this, bestPly, getPrincipalVariation(),
+            getSearchDepth(), getAnalyzedBoards(), statistics.getTime(), getSearchStatistics()));
       }
-      if (this.statusPanel != null)
-        this.statusPanel.setStatusText("Your turn...");
-
       return bestPly.getPly();
     }
     return null;
@@ -515,7 +930,11 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    */
   public void run() {
     // setAnalyzedBoards( 0L); // Is done in the permanent brain now.
-    setSearchDepth(0);
+
+    // Every 2nd helper starts 1 level deeper, so the threads don't all search the same depth.
+    setSearchDepth(helperIndex & 1);
+    clearKillerPlies();
+    history.age();
 
     // Try to get a move from the permanent brain.
     PreComputedPly permanentBrainPly = usePermanentBrain() ? getPermanentBrain().getPlyForUserPly(
@@ -529,19 +948,8 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
       // before next
       // search!
 
-      if (this.enginePanel != null) {
-        StringBuffer sOutput = new StringBuffer();
-        sOutput.append("Best ply for search depth ");
-        sOutput.append(getSearchDepth());
-        sOutput.append(" is ");
-        sOutput.append(bestPly.getPly().toString());
-        sOutput.append(" with score ");
-        sOutput.append(bestPly.getScore());
-        this.enginePanel.modifyText(sOutput.toString());
-        // @Testdisplay
-        // System.out.println(getSearchDepth() + "-------------" +
-        // _bestPly.getPly().toString());
-
+      if ((helperIndex == 0) && hasSearchListeners()) {
+        fireSearchEvent(ITERATION_COMPLETED, createSearchEvent(bestPly));
       }
     }
 
@@ -551,6 +959,11 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     do {
       increaseSearchDepth();
 
+      SearchIterationEvent event = new SearchIterationEvent();
+      event.begin();
+      int depth = getSearchDepth();
+      long nodes = statistics.getTotalNodes();
+
       IAnalyzedPly searchDepthResult = null;
       try {
         searchDepthResult = startMinimaxAlphaBeta(isWhite());
@@ -561,30 +974,35 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
         // throw this
         // exception...
         decreaseSearchDepth(); // But the search depth is 1 too high.
+
+        // A root ply, that was searched completely in the interrupted iteration and is better
+        // than the first ply, is better than the result of the last iteration.
+        IAnalyzedPly interruptedPly = getInterruptedIterationPly(isWhite());
+        if (interruptedPly != null) {
+          bestPly = interruptedPly;
+        }
       }
+      event.commit(helperIndex, depth, statistics.getTotalNodes() - nodes, searchDepthResult);
 
       if (searchDepthResult != null) { // The exception might not be the
         // only case, where a null is
         // returned, so keep
         // this additional test.
 
-        if (this.statusPanel != null)
-          this.statusPanel.setStatusText("Thinking...");
-
         bestPly = searchDepthResult;
 
-        if (this.enginePanel != null) {
-          StringBuffer sOutput = new StringBuffer();
-          sOutput.append("Best ply for search depth ");
-          sOutput.append(getSearchDepth());
-          sOutput.append(" is ");
-          sOutput.append(bestPly.getPly().toString());
-          sOutput.append(" with score ");
-          sOutput.append(bestPly.getScore());
-          this.enginePanel.modifyText(sOutput.toString());
-          // System.out.println(getSearchDepth() + "-------------" +
-          // _bestPly.getPly().toString() + " " +
-          // _bestPly.getScore());
+        // Only the main engine decides, when the search ends. The helpers are stopped by it.
+        if ((helperIndex == 0) && isLastIteration()) {
+          setSearchStop(true);
+        }
+
+        if (helperIndex == 0) {
+          statistics.completeIteration(getSearchDepth(), System.currentTimeMillis()
+              - searchStartTime, getSearchStatistics().getTotalNodes());
+        }
+
+        if ((helperIndex == 0) && hasSearchListeners()) {
+          fireSearchEvent(ITERATION_COMPLETED, createSearchEvent(bestPly));
         }
       }
       // If search depth 1 was completed and no valid ply was found,
@@ -596,7 +1014,9 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
 
   /**
    * Start a complete Minimax-Alpha-Beta search. This is the search level 1, where we have to store
-   * the analyzed ply, so it gets a special method.
+   * the analyzed ply, so it gets a special method. When the search depth is increased for the same
+   * position, the root plies keep the order of the last iteration and the search starts with a
+   * aspiration window around the last score.
    * 
    * @param isWhite
    *          Flag to indicate, if white is about to move.
@@ -604,121 +1024,203 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    *           if the search was interrupted because of a timeout.
    */
   public final IAnalyzedPly startMinimaxAlphaBeta(boolean isWhite) throws InterruptedException {
-    short curAlpha = IAnalyzedPly.MIN_SCORE;
-    short curBeta = IAnalyzedPly.MAX_SCORE;
-    int bestPlyIndex = -1;
-
-    IPly[] plies = plyGenerator.getPliesForColor((IBitBoard) getBoard(), isWhite);
-    if (isWhite) {
-      for (int i = 0; i < plies.length; i++) {
-        if (isSearchStop() && (getSearchDepth() > 1)) { 
-          // If the search time is over and at least
-          // depth 1 was completed
-          throw new InterruptedException("Search interrupted at depth " + getSearchDepth());
-          // abort the search.
-        }
-        getGame().doPly(plies[i]);
-        short val;
-        try {
-          val = minimaxAlphaBeta(plies[i], getBoard().getBoardAfterPly(plies[i]), false, 1,
-              curAlpha, curBeta);
-        }
-        catch (InterruptedException ie) {
-          getGame().undoLastPly(); // Undo the last move
-          throw ie; // and pass the exception.
-        }
-        if (val > curAlpha) {
-          curAlpha = val;
-          bestPlyIndex = i;
-        }
-        if (curAlpha >= curBeta) {
-          getGame().undoLastPly(); // Take the last ply back, before
-          // the loop is aborted.
-          break;
+    ensureStackSize(getSearchDepth() + MAX_QUIESCENCE_LEVELS + 1);
+
+    // The search does and undoes the plies in place, so it works on a private copy of the board.
+    IBitBoard searchBoard = (IBitBoard) getBoard().clone();
+
+    // The root plies are only generated for a new position. Otherwise they are kept in the order
+    // of the last iteration. The plies of a new position are sorted by the scores of the ply
+    // generator, so the transformations and the captures of the most valuable victims with the
+    // least valuable attackers come first. The hashtable ply is searched before them.
+    long hashKey = searchBoard.getHashKey(isWhite);
+    boolean newPosition = (getSearchDepth() <= 1) || (rootPlyCount == 0)
+        || (hashKey != rootHashKey);
+    if (newPosition) {
+      rootPlyCount = plyGenerator.getPliesForColor(searchBoard, isWhite, rootPlies, rootScores);
+      rootHashKey = hashKey;
+      sortRootPlies();
+      moveRootPlyToFront(CompactEntry.getPly(getHashtable().probe(hashKey)));
+    }
+    if (rootPlyCount == 0) {
+      return null;
+    }
+    interruptedIterationPly = CompactPly.NO_PLY;
+
+    // Search with a small window around the score of the last iteration, since the score rarely
+    // changes much from one iteration to the next. If the score is outside of the window, the
+    // window is widened on that side and the root is searched again.
+    int alpha = -INFINITE_SCORE;
+    int beta = INFINITE_SCORE;
+    int window = ASPIRATION_WINDOW;
+    if (!newPosition && (Math.abs(lastIterationScore) < MIN_MATE_SCORE)) {
+      alpha = Math.max(lastIterationScore - window, -INFINITE_SCORE);
+      beta = Math.min(lastIterationScore + window, INFINITE_SCORE);
+    }
+
+    int score;
+    while (true) {
+      score = searchRoot(searchBoard, isWhite, alpha, beta);
+      if ((score <= alpha) && (alpha > -INFINITE_SCORE)) {
+        timeManager.failLow();
+        if ((helperIndex == 0) && isTimeLimited()) {
+          setSearchDeadline(System.currentTimeMillis() + timeManager.getRemainingTime());
         }
-        getGame().undoLastPly();
+        window <<= 1;
+        alpha = Math.max(score - window, -INFINITE_SCORE);
       }
-      
-      if (bestPlyIndex != -1) {
-    	      
-        // Since this is the best ply so far, we store it in the
-        // hashtable. This makes sense,
-        // since the minimax algorithm is started several times, before
-        // a move is selected.
-        // So this move is not necessarily applied immediately!
-        getHashtable().pushEntry(
-            new PlyHashtableEntryImpl(getBoard(), plies[bestPlyIndex], getSearchDepth()));
-
-        return new AnalyzedPlyImpl(plies[bestPlyIndex], curAlpha);
+      else if ((score >= beta) && (beta < INFINITE_SCORE)) {
+        window <<= 1;
+        beta = Math.min(score + window, INFINITE_SCORE);
       }
       else {
-        return null;
+        break;
       }
     }
-    else {
-      for (int i = 0; i < plies.length; i++) {
-        if (isSearchStop() && (getSearchDepth() > 1)) {
-          // If the search time is over and at least
-          // depth 1 was completed
-          throw new InterruptedException("Search interrupted at depth " + getSearchDepth());
-          // abort the search.
-        }
-        getGame().doPly(plies[i]);
-        short val;
-        try {
-          val = minimaxAlphaBeta(plies[i], getBoard().getBoardAfterPly(plies[i]), true, 1,
-              curAlpha, curBeta);
-          // @Testdisplay
-          // System.out.println(i + " " + plies[i] + " " + val + " " +
-          // todo lookup for scoring
-          // find ply-score
-          logger.info("score: " + val + " Ply: " + plies[i]);
-      // curAlpha + " " + curBeta);
-        }
-        catch (InterruptedException ie) {
-          getGame().undoLastPly(); // Undo the last move
-          throw ie; // and pass the exception.
-        }
-        if (val < curBeta) {
-          curBeta = val;
-          bestPlyIndex = i;
-        }
-        if (curBeta <= curAlpha) {
-          getGame().undoLastPly(); // Take the last ply back, before
-          // the loop is aborted.
-          break;
-        }
-        getGame().undoLastPly();
-      }
+    lastIterationScore = score;
 
-      if (bestPlyIndex != -1) {
+    // The root plies are sorted by their scores, so the best ply is in front.
+    int bestPly = rootPlies[0];
 
-        // Since this is the best ply so far, we store it in the
-        // hashtable. This makes sense,
-        // since the minimax algorithm is started several times, before
-        // a move is selected.
-        // So this move is not necessarily applied immediately!
-        getHashtable().pushEntry(
-            new PlyHashtableEntryImpl(getBoard(), plies[bestPlyIndex], getSearchDepth()));
+    // Since this is the best ply so far, we store it in the
+    // hashtable. This makes sense,
+    // since the minimax algorithm is started several times, before
+    // a move is selected.
+    // So this move is not necessarily applied immediately!
+    // The score is inside of the window, so it's exact.
+    getHashtable().store(hashKey, bestPly, score, getSearchDepth(), PlyHashtable.BOUND_EXACT, 0);
 
-        return new AnalyzedPlyImpl(plies[bestPlyIndex], curBeta);
-      }
-      else {
-        return null;
-      }
-    }
+    // The analyzed ply holds the score from the view of the white player.
+    return new AnalyzedPlyImpl(CompactPly.decode(bestPly), (short) (isWhite ? score : -score));
   }
 
   /**
-   * Perform a alpha-beta minimax search on the board.
-   * 
-   * @param lastPly
-   *          The ply, that created this board.
+   * Search the root plies with a given window. The first ply is searched with the full window, the
+   * other plies with a null window, that only proves, that they are not better. A ply, that is
+   * better, is searched again with the full window. Afterwards the root plies are sorted by their
+   * scores, so the best ply is in front.
+   *
    * @param board
-   *          The board to analyze.
-   * @param white
-   *          true, if white has the next move.
-   * @param byte searchLevel The level to search for.
+   *          The board with the root position.
+   * @param isWhite
+   *          Flag to indicate, if white is about to move.
+   * @param alpha
+   *          The lower bound of the window.
+   * @param beta
+   *          The upper bound of the window.
+   * @return The score of the root position. If it is not above alpha, it is a upper bound. If
+   *         it is not below beta, it is a lower bound.
+   * @throws InterruptedException
+   *           if the search was interrupted because of a timeout.
+   */
+  private final int searchRoot(IBitBoard board, boolean isWhite, int alpha, int beta)
+      throws InterruptedException {
+    int curAlpha = alpha;
+    int plyCount = rootPlyCount;
+    int depth = getSearchDepth() - 1;
+
+    // Plies, that don't raise alpha, keep their order behind the plies, that do.
+    for (int i = 0; i < plyCount; i++) {
+      rootScores[i] = -INFINITE_SCORE;
+    }
+
+    for (int i = 0; i < plyCount; i++) {
+      checkSearchStop();
+
+      // The helpers of a parallel search start with different plies, so they fill the hashtable
+      // with different positions.
+      int index = (i + helperIndex) % plyCount;
+      int ply = rootPlies[index];
+
+      int val;
+      int undoInfo = board.makePly(ply);
+      try {
+        if (i == 0) {
+          val = -minimaxAlphaBeta(ply, board, !isWhite, 1, depth, -beta, -curAlpha);
+        }
+        else {
+          val = -minimaxAlphaBeta(ply, board, !isWhite, 1, depth, -curAlpha - 1, -curAlpha);
+          if ((val > curAlpha) && (val < beta)) {
+            val = -minimaxAlphaBeta(ply, board, !isWhite, 1, depth, -beta, -curAlpha);
+          }
+        }
+      }
+      finally {
+        board.unmakePly(ply, undoInfo);
+      }
+      if (val > curAlpha) {
+        curAlpha = val;
+        rootScores[index] = val;
+
+        // This ply was searched completely and is better than the plies before it, so it can be
+        // played, if the iteration is interrupted.
+        interruptedIterationPly = ply;
+        interruptedIterationScore = val;
+
+        if ((helperIndex == 0) && (depth > 0) && (val < beta) && hasSearchListeners()) {
+          fireSearchEvent(PRINCIPAL_VARIATION_CHANGED, createSearchEvent(new AnalyzedPlyImpl(
+              CompactPly.decode(ply), (short) (isWhite ? val : -val))));
+        }
+      }
+      if (curAlpha >= beta) {
+        break;
+      }
+    }
+
+    sortRootPlies();
+    return curAlpha;
+  }
+
+  /**
+   * Sort the root plies by their scores. The sort is stable, so plies with equal scores keep the
+   * order of the last iteration (or of their generation).
+   */
+  private final void sortRootPlies() {
+    for (int i = 1; i < rootPlyCount; i++) {
+      int ply = rootPlies[i];
+      int score = rootScores[i];
+      int j = i - 1;
+      while ((j >= 0) && (rootScores[j] < score)) {
+        rootPlies[j + 1] = rootPlies[j];
+        rootScores[j + 1] = rootScores[j];
+        j--;
+      }
+      rootPlies[j + 1] = ply;
+      rootScores[j + 1] = score;
+    }
+  }
+
+  /**
+   * Move a root ply to the front of the root plies, if it's one of them.
+   *
+   * @param ply
+   *          The encoded ply or CompactPly.NO_PLY.
+   */
+  private final void moveRootPlyToFront(int ply) {
+    for (int i = 0; (i < rootPlyCount) && (ply != CompactPly.NO_PLY); i++) {
+      if (rootPlies[i] == ply) {
+        System.arraycopy(rootPlies, 0, rootPlies, 1, i);
+        rootPlies[0] = ply;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Perform a alpha-beta minimax search on the board. The search is written in the negamax form,
+   * so the returned score is always seen from the player, that has the next move. The plies are
+   * done and undone on the passed board in place.
+   * 
+   * @param lastPly
+   *          The encoded ply, that created this board, or CompactPly.NO_PLY after a null ply.
+   * @param board
+   *          The board to analyze.
+   * @param white
+   *          true, if white has the next move.
+   * @param byte searchLevel The level to search for.
+   * @param depth
+   *          The remaining search depth. It's lower than the search depth minus the search level,
+   *          if the search was reduced.
    * @param alpha
    *          The current maximum.
    * @param beta
@@ -726,128 +1228,428 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    * @throws InterruptedException
    *           if the search was interrupted because of a timeout.
    */
-  private final short minimaxAlphaBeta(IPly lastPly, Board board, boolean white, int searchLevel,
-      short alpha, short beta) throws InterruptedException {
-    if ((searchLevel >= getSearchDepth())
-        && (!lastPly.isCapture() || !(lastPly instanceof ITransformationPly) || !analyzer
-            .isInCheck((IBitBoard) board, !white))) {
-      increaseAnalyzedBoards();
-      return analyzeBoard(board);
+  private final int minimaxAlphaBeta(int lastPly, IBitBoard board, boolean white,
+      int searchLevel, int depth, int alpha, int beta) throws InterruptedException {
+    if (depth <= 0) {
+      return quiescenceSearch(board, white, searchLevel, alpha, beta);
     }
-    else {
-      short curAlpha = alpha;
-      short curBeta = beta;
-      int bestPlyIndex = -1;
-      
-      // TODO score implementieren
-
-      IPly[] plies = plyGenerator.getPliesForColor((IBitBoard) board, white);
-      if (white) {
-        for (int i = 0; i < plies.length; i++) {
-          /*
-           * W.E. 20140729 if( isSearchStop() && ( getSearchDepth() > 1)) { // If the search time is
-           * over and at least depth 1 was completed
-           */
-          if (isSearchStop() && (getSearchDepth() > 3)) {
-            /*
-             * If the search time is over and at least depth 1 was completed, abort search.
-             */
-            throw new InterruptedException("Search interrupted at depth " + getSearchDepth());
-          }
-          getGame().doPly(plies[i]);
-          short val;
-          try {
-            val = minimaxAlphaBeta(plies[i], board.getBoardAfterPly(plies[i]), false,
-                searchLevel + 1, curAlpha, curBeta);
+    checkSearchStop();
+    statistics.increaseNodes();
+
+    // Check, if this position was already searched deep enough. A exact score is the result. A
+    // bound is only used, if it's outside of the window. It doesn't narrow the window, since the
+    // bound type of the result is stored for this window.
+    long hashKey = board.getHashKey(white);
+    long entry = getHashtable().probe(hashKey, searchLevel);
+    statistics.increaseHashProbes(entry != 0L);
+    if ((entry != 0L) && (CompactEntry.getDepth(entry) >= depth)) {
+      int score = CompactEntry.getScore(entry);
+      switch (CompactEntry.getBound(entry)) {
+        case PlyHashtable.BOUND_EXACT:
+          statistics.increaseHashCutoffs();
+          return score;
+        case PlyHashtable.BOUND_LOWER:
+          if (score >= beta) {
+            statistics.increaseHashCutoffs();
+            return score;
           }
-          catch (InterruptedException ie) {
-            getGame().undoLastPly(); // Undo the last move
-            throw ie; // and pass the exception.
-          }
-          if (val > curAlpha) {
-            curAlpha = val;
-            bestPlyIndex = i; // Store the index of this ply, so we can access it later.
-          }
-          if (curAlpha >= curBeta) {
-            getGame().undoLastPly(); // Take the last ply back, before the loop is aborted.
-            break;
+          break;
+        case PlyHashtable.BOUND_UPPER:
+          if (score <= alpha) {
+            statistics.increaseHashCutoffs();
+            return score;
           }
-          getGame().undoLastPly();
+          break;
+      }
+    }
+
+    boolean inCheck = analyzer.isInCheck(board, white);
+    boolean pvNode = beta - alpha > 1;
+
+    // Near the leaves, the score of the board decides, if the quiet plies are worth a search.
+    int staticScore = 0;
+    boolean frontierNode = !inCheck && !pvNode && (depth <= FRONTIER_DEPTH)
+        && (Math.abs(alpha) < MIN_MATE_SCORE) && (isRazoring() || isFutilityPruning());
+    if (frontierNode) {
+      increaseAnalyzedBoards();
+      short score = analyzeBoard(board);
+      staticScore = white ? score : -score;
+    }
+
+    // Razoring: if the score of the board is far below alpha, only the captures might save the
+    // position. If the quiescence search confirms, that they don't, the position fails low.
+    if (frontierNode && isRazoring() && (depth <= 2)
+        && (staticScore + razorMargins[depth] <= alpha)) {
+      int razorAlpha = alpha - razorMargins[depth];
+      int score = quiescenceSearch(board, white, searchLevel, razorAlpha, razorAlpha + 1);
+      if (score <= razorAlpha) {
+        return score;
+      }
+    }
+
+    // Futility pruning: if the score of the board plus a margin for the positional gain of a quiet
+    // ply doesn't reach alpha, only the captures and checks are searched.
+    boolean futile = frontierNode && isFutilityPruning() && (depth <= 2)
+        && (staticScore + futilityMargins[depth] <= alpha);
+
+    // Late move pruning: at a low depth, only the first quiet plies are searched in a node, that
+    // is not on the principal variation.
+    int lateMoveLimit = (isLateMovePruning() && !inCheck && !pvNode && (depth <= FRONTIER_DEPTH))
+        ? lateMoveLimits[depth] : Integer.MAX_VALUE;
+
+    // Null move pruning: if the opponent can't reach beta, even when he moves twice in a row, the
+    // position is good enough to cut off without searching it. This fails in zugzwang positions,
+    // so it's not used with only pawns left. At a high depth, the cutoff is verified by a reduced
+    // search without null plies.
+    if (isNullMovePruning() && (lastPly != CompactPly.NO_PLY) && (depth >= 2) && !pvNode
+        && !inCheck && (searchLevel >= nullPlyMinLevel) && (Math.abs(beta) < MIN_MATE_SCORE)
+        && hasPieces(board, white)) {
+      int reduction = (depth > 6) ? 3 : 2;
+
+      int nullScore;
+      int undoInfo = board.makeNullPly();
+      try {
+        nullScore = -minimaxAlphaBeta(CompactPly.NO_PLY, board, !white, searchLevel + 1, depth
+            - reduction - 1, -beta, -beta + 1);
+      }
+      finally {
+        board.unmakeNullPly(undoInfo);
+      }
+
+      if (nullScore >= beta) {
+        if (depth < NULL_PLY_VERIFICATION_DEPTH) {
+          return beta;
         }
 
-        if (bestPlyIndex != -1) {
-          // Since this is the best ply for this search level, we store it in the hashtable
-          getHashtable()
-              .pushEntry(
-                  new PlyHashtableEntryImpl(board, plies[bestPlyIndex], getSearchDepth()
-                      - searchLevel));
+        // Verify the cutoff with a search of this position, where no null plies are tried for the
+        // next levels.
+        int minLevel = nullPlyMinLevel;
+        nullPlyMinLevel = searchLevel + 1 + 3 * (depth - reduction) / 4;
+        int score;
+        try {
+          score = minimaxAlphaBeta(lastPly, board, white, searchLevel, depth - reduction,
+              beta - 1, beta);
         }
-        else {
-          if (plies.length == 0) { // There are no legal moves available?
-            if (analyzer.isInCheck((IBitBoard) board, white)) { // Is this a checkmate?
-              return IBitBoardAnalyzer.BLACK_HAS_WON;
-            }
-            else { // Looks like a draw?
-              return IBitBoardAnalyzer.DRAW;
-            }
-          }
+        finally {
+          nullPlyMinLevel = minLevel;
+        }
+        if (score >= beta) {
+          return beta;
         }
+      }
+    }
 
-        return curAlpha;
+    int curAlpha = alpha;
+    int bestPly = CompactPly.NO_PLY;
+
+    // The picker returns the hashtable ply, the captures, the killer plies, the counter ply and
+    // the other plies and generates them only when they are needed. The plies are only checked for
+    // legality, when they are searched. So the plies after a cutoff are never generated or checked.
+    PlyPicker plyPicker = plyPickers[searchLevel];
+    plyPicker.init(board, white, CompactEntry.getPly(entry), killerPlies[searchLevel][0],
+        killerPlies[searchLevel][1], history.getCounterPly(white, lastPly));
+    int legalPlies = 0;
+    int[] quietPlies = searchedQuietPlies[searchLevel];
+    int quietPlyCount = 0;
+    for (int ply = plyPicker.nextPly(); ply != CompactPly.NO_PLY; ply = plyPicker.nextPly()) {
+      if (!plyPicker.isLegalPly(ply)) {
+        continue;
       }
-      else {
-        for (int i = 0; i < plies.length; i++) {
-          if (isSearchStop() && (getSearchDepth() > 1)) {
-            /*
-             * If the search time is over and at least depth 1 was completed, abort the search
-             */
-            throw new InterruptedException("Search interrupted at depth " + getSearchDepth());
-          }
-          getGame().doPly(plies[i]);
-          short val;
-          try {
-            val = minimaxAlphaBeta(plies[i], board.getBoardAfterPly(plies[i]), true,
-                searchLevel + 1, curAlpha, curBeta);
+      legalPlies++;
+
+      // Captures, that lose more material than the remaining depth can win back, are pruned near
+      // the leaves.
+      if (isLosingCapturePruning() && !pvNode && !inCheck && (depth <= FRONTIER_DEPTH)
+          && (legalPlies > 1) && (plyPicker.getExchangeScore() < -LOSING_CAPTURE_MARGIN * depth)) {
+        continue;
+      }
+
+      int undoInfo = board.makePly(ply);
+
+      // Quiet plies, that are no killer plies and don't give check, can be pruned or reduced.
+      boolean quiet = (legalPlies > 1) && !inCheck && isQuietPly(ply)
+          && (ply != killerPlies[searchLevel][0]) && (ply != killerPlies[searchLevel][1])
+          && !analyzer.isInCheck(board, !white);
+      if (quiet && (futile || (legalPlies > lateMoveLimit))) {
+        board.unmakePly(ply, undoInfo);
+        continue;
+      }
+
+      // The first ply is expected to be the best one, so the other plies are only searched with a
+      // null window to prove, that they are not better. If one is, it's searched again. Late
+      // quiet plies are searched with a reduced depth first, and with the full depth only if they
+      // look better.
+      int val;
+      try {
+        if (legalPlies == 1) {
+          val = -minimaxAlphaBeta(ply, board, !white, searchLevel + 1, depth - 1, -beta,
+              -curAlpha);
+        }
+        else {
+          int reduction = 0;
+          if (isLateMoveReductions() && (depth >= 3) && quiet) {
+            reduction = reductionTable[Math.min(depth, 63)][Math.min(legalPlies, 63)];
+            if (pvNode) {
+              reduction--; // Reduce the plies of the principal variation less.
+            }
+            reduction = Math.max(0, Math.min(reduction, depth - 2));
           }
-          catch (InterruptedException ie) {
-            getGame().undoLastPly(); // Undo the last move and pass the exception.
-            throw ie;
+
+          val = -minimaxAlphaBeta(ply, board, !white, searchLevel + 1, depth - 1 - reduction,
+              -curAlpha - 1, -curAlpha);
+          if ((reduction > 0) && (val > curAlpha)) {
+            val = -minimaxAlphaBeta(ply, board, !white, searchLevel + 1, depth - 1, -curAlpha - 1,
+                -curAlpha);
           }
-          if (val < curBeta) {
-            curBeta = val;
-            bestPlyIndex = i; // Store the index of this ply, so we can access it later.
+          if ((val > curAlpha) && (val < beta)) {
+            val = -minimaxAlphaBeta(ply, board, !white, searchLevel + 1, depth - 1, -beta,
+                -curAlpha);
           }
-          if (curBeta <= curAlpha) {
-            getGame().undoLastPly(); // Take the last ply back, before the loop is aborted.
-            break;
+        }
+      }
+      finally {
+        board.unmakePly(ply, undoInfo); // Undo the last move, even if the search was stopped.
+      }
+      if (val > curAlpha) {
+        curAlpha = val;
+        bestPly = ply; // Store this ply, so we can put it in the hashtable later.
+      }
+      if (curAlpha >= beta) {
+        statistics.increaseCutoffs(legalPlies == 1);
+        if (isQuietPly(ply)) {
+          storeKillerPly(searchLevel, ply);
+          history.storeCutoff(white, lastPly, ply, depth, quietPlies, quietPlyCount);
+        }
+        break;
+      }
+      if (isQuietPly(ply)) {
+        quietPlies[quietPlyCount++] = ply;
+      }
+    }
+
+    if (legalPlies == 0) { // There are no legal moves available?
+      if (inCheck) { // Is this a checkmate?
+        return -(MATE_SCORE - searchLevel);
+      }
+      else { // Looks like a draw?
+        return IBitBoardAnalyzer.DRAW;
+      }
+    }
+
+    // Store the result with it's bound type: if no ply raised alpha, the real score might be
+    // even lower. If a ply caused a cutoff, it might be even higher.
+    int bound;
+    if (bestPly == CompactPly.NO_PLY) {
+      bound = PlyHashtable.BOUND_UPPER;
+    }
+    else if (curAlpha >= beta) {
+      bound = PlyHashtable.BOUND_LOWER;
+    }
+    else {
+      bound = PlyHashtable.BOUND_EXACT;
+    }
+    getHashtable().store(hashKey, bestPly, curAlpha, depth, bound, searchLevel);
+
+    return curAlpha;
+  }
+
+  /**
+   * Search the captures at the end of the search, until the position is quiet. Otherwise a capture
+   * at the last level would be scored without the recapture. The player to move can accept the
+   * score of the board (stand pat), since he doesn't have to capture. If he is in check, all the
+   * plies are searched instead, and no legal ply is a checkmate.
+   *
+   * @param board
+   *          The board to analyze.
+   * @param white
+   *          true, if white has the next move.
+   * @param searchLevel
+   *          The current search level.
+   * @param alpha
+   *          The current maximum.
+   * @param beta
+   *          The current minimum.
+   * @return The score of the position from the view of the player, that has the next move.
+   */
+  private final int quiescenceSearch(IBitBoard board, boolean white, int searchLevel, int alpha,
+      int beta) throws InterruptedException {
+    checkSearchStop();
+    increaseAnalyzedBoards();
+    statistics.increaseQuiescenceNodes(searchLevel);
+    short score = analyzeBoard(board);
+    int standPat = white ? score : -score;
+
+    if (searchLevel >= getSearchDepth() + MAX_QUIESCENCE_LEVELS) {
+      return standPat;
+    }
+
+    PlyPicker plyPicker = plyPickers[searchLevel];
+    plyPicker.initQuiescence(board, white);
+    boolean inCheck = plyPicker.getCheckers() != 0L;
+
+    int curAlpha = alpha;
+    if (!inCheck) {
+      if (standPat >= beta) {
+        return standPat;
+      }
+
+      // Even the capture of a queen can't raise alpha.
+      if (standPat + pieceValues[IPiece.QUEEN] + DELTA_MARGIN <= alpha) {
+        return standPat;
+      }
+      curAlpha = Math.max(curAlpha, standPat);
+    }
+
+    int bestScore = inCheck ? -INFINITE_SCORE : standPat;
+    int legalPlies = 0;
+    for (int ply = plyPicker.nextPly(); ply != CompactPly.NO_PLY; ply = plyPicker.nextPly()) {
+      boolean transformation = CompactPly.getType(ply) == CompactPly.TRANSFORMATION;
+      if (!inCheck) {
+        // Only the transformations to a queen are worth a look, and captures of pieces with a
+        // low value are skipped, if they can't raise alpha. The picker doesn't return the
+        // captures, that lose material, at all.
+        if (transformation) {
+          if (CompactPly.getTypeAfterTransformation(ply) != IPiece.QUEEN) {
+            continue;
           }
-          getGame().undoLastPly();
         }
+        else if (standPat + getCapturedValue(board, ply) + DELTA_MARGIN <= curAlpha) {
+          continue;
+        }
+      }
+      if (!plyPicker.isLegalPly(ply)) {
+        continue;
+      }
+      legalPlies++;
 
-        if (bestPlyIndex != -1) {
-          // Since this is the best ply for this search level, we store it in the hashtable
-          getHashtable()
-              .pushEntry(
-                  new PlyHashtableEntryImpl(board, plies[bestPlyIndex], getSearchDepth()
-                      - searchLevel));
+      int val;
+      int undoInfo = board.makePly(ply);
+      try {
+        val = -quiescenceSearch(board, !white, searchLevel + 1, -beta, -curAlpha);
+      }
+      finally {
+        board.unmakePly(ply, undoInfo);
+      }
+      if (val > bestScore) {
+        bestScore = val;
+      }
+      if (val > curAlpha) {
+        curAlpha = val;
+      }
+      if (curAlpha >= beta) {
+        break;
+      }
+    }
+
+    if (inCheck && (legalPlies == 0)) {
+      return -(MATE_SCORE - searchLevel);
+    }
+    return bestScore;
+  }
+
+  /**
+   * Check, if a player has other pieces than his king and pawns. Without them, zugzwang is common
+   * and a null ply would often be the best ply.
+   *
+   * @param board
+   *          The board to check.
+   * @param white
+   *          true, if the white pieces are checked.
+   * @return true, if the player has a knight, bishop, rook or queen.
+   */
+  private static final boolean hasPieces(IBitBoard board, boolean white) {
+    int color = white ? 1 : 0;
+    return (board.getAllPiecesForColor(white)
+        & ~board.getPositionOfPieces(IPiece.PAWN << 1 | color)
+        & ~board.getPositionOfPieces(IPiece.KING << 1 | color)) != 0L;
+  }
+
+  /**
+   * Get the material value of the piece, that a ply captures.
+   *
+   * @param board
+   *          The board before the ply.
+   * @param ply
+   *          The encoded ply.
+   * @return The value of the captured piece or 0, if the ply is no capture.
+   */
+  private static final int getCapturedValue(IBitBoard board, int ply) {
+    if (!CompactPly.isCapture(ply)) {
+      return 0;
+    }
+    if (CompactPly.getType(ply) == CompactPly.EN_PASSANT) {
+      return pieceValues[IPiece.PAWN];
+    }
+    return pieceValues[board.getPieceCode(CompactPly.getDestination(ply)) >> 1];
+  }
+
+  /**
+   * Make sure, that there are ply pickers, killer plies and searched plies for a number of search
+   * levels. They are allocated once per search depth and not for each searched position.
+   * 
+   * @param levels
+   *          The number of search levels.
+   */
+  private final void ensureStackSize(int levels) {
+    if (plyPickers.length < levels) {
+      PlyPicker[] newPlyPickers = new PlyPicker[levels];
+      int[][] newKillerPlies = new int[levels][];
+      int[][] newSearchedQuietPlies = new int[levels][];
+      for (int level = 0; level < levels; level++) {
+        if (level < plyPickers.length) {
+          newPlyPickers[level] = plyPickers[level];
+          newKillerPlies[level] = killerPlies[level];
+          newSearchedQuietPlies[level] = searchedQuietPlies[level];
         }
         else {
-          if (plies.length == 0) { // There are no legal moves available?
-            // Is this a checkmate?
-            if (analyzer.isInCheck((IBitBoard) board, white)) {
-              return IBitBoardAnalyzer.WHITE_HAS_WON;
-            }
-            else { // Looks like a draw?
-              return IBitBoardAnalyzer.DRAW;
-            }
-          }
+          newPlyPickers[level] = new PlyPicker(plyGenerator, history);
+          newKillerPlies[level] = new int[2];
+          newSearchedQuietPlies[level] = new int[PlyGenerator.MAX_PLIES];
         }
-
-        return curBeta;
       }
+      plyPickers = newPlyPickers;
+      killerPlies = newKillerPlies;
+      searchedQuietPlies = newSearchedQuietPlies;
     }
   }
 
+  /**
+   * Remove the killer plies of the last search.
+   */
+  private final void clearKillerPlies() {
+    for (int level = 0; level < killerPlies.length; level++) {
+      killerPlies[level][0] = CompactPly.NO_PLY;
+      killerPlies[level][1] = CompactPly.NO_PLY;
+    }
+  }
+
+  /**
+   * Store a ply, that caused a cutoff, as a killer ply of it's search level. Only quiet plies are
+   * stored, since the captures are tried early anyway.
+   * 
+   * @param searchLevel
+   *          The search level of the ply.
+   * @param ply
+   *          The ply, that caused the cutoff.
+   */
+  private final void storeKillerPly(int searchLevel, int ply) {
+    if (isQuietPly(ply) && (killerPlies[searchLevel][0] != ply)) {
+      killerPlies[searchLevel][1] = killerPlies[searchLevel][0];
+      killerPlies[searchLevel][0] = ply;
+    }
+  }
+
+  /**
+   * Check, if a ply is a quiet ply, so it neither captures a piece nor transforms a pawn.
+   * 
+   * @param ply
+   *          The encoded ply.
+   * @return true, if the ply is a quiet ply.
+   */
+  private static final boolean isQuietPly(int ply) {
+    return !CompactPly.isCapture(ply) && (CompactPly.getType(ply) != CompactPly.TRANSFORMATION);
+  }
+
   /**
    * Compute a score for a game position.
    * 
@@ -949,6 +1751,11 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
    */
   public final void setSearchStop(boolean stopFlag) {
     stopSearch = stopFlag;
+    if (stopFlag) {
+      for (Iterator<ChessEngineImpl> iterator = helpers.iterator(); iterator.hasNext();) {
+        iterator.next().setSearchStop(true);
+      }
+    }
   }
 
   /**
@@ -961,200 +1768,286 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
   }
 
   /**
-   * Get the number of analyzed boards.
+   * Set the time, when the search has to stop. The search compares it with the current time every
+   * few nodes, so it stops within a few milliseconds after the deadline.
    * 
-   * @return The number of analyzed boards.
+   * @param deadline
+   *          The time in milliseconds (as returned by System.currentTimeMillis()) or 0, if the
+   *          search only stops, when the stop flag is set.
    */
-  public final long getAnalyzedBoards() {
-    return analyzedBoards;
+  public final void setSearchDeadline(long deadline) {
+    searchDeadline = deadline;
   }
 
   /**
-   * Set the number of analyzed boards.
+   * Check, if the engine is searching for a ply.
    * 
-   * @param analyzedBoards
-   *          The new number of analyzed boards.
+   * @return true, if a search is running.
    */
-  public final void setAnalyzedBoards(long analyzedBoards) {
-    this.analyzedBoards = analyzedBoards;
+  public final boolean isSearching() {
+    return searchThread != null;
   }
 
   /**
-   * Increase the number of analyzed boards by 1.
+   * Stop a running search. The best ply of the completed iterations is returned.
    */
-  public final void increaseAnalyzedBoards() {
-    analyzedBoards++;
+  public final void stopSearch() {
+    setSearchStop(true);
   }
 
   /**
-   * Get the current search depth.
-   * 
-   * @return The current search depth.
+   * The opponent played the expected ply of a ponder search, so the search continues with the
+   * time limits of the current search limits.
    */
-  public final int getSearchDepth() {
-    return searchDepth;
+  public final void ponderHit() {
+    searchLimits.setPonder(false);
+    startSearchTime();
   }
 
   /**
-   * Set a new search depth.
+   * Check, if the search of the current limits has a time limit.
    * 
-   * @param searchDepth
-   *          The new search depth.
+   * @return true, if the search ends at the maximum time of the time manager.
    */
-  public final void setSearchDepth(int searchDepth) {
-    this.searchDepth = searchDepth;
+  private final boolean isTimeLimited() {
+    return !searchLimits.isPonder()
+        && (searchLimits.isEngineTime() || (searchLimits.getMoveTime() > 0));
   }
 
   /**
-   * Increase the search depth by 1.
+   * Start the time manager for the current search limits and set the deadline of the search.
    */
-  public final void increaseSearchDepth() {
-    searchDepth++;
+  private final void startSearchTime() {
+    if (searchLimits.isEngineTime()) {
+      if (searchLimits.getRemainingTime() > 0L) {
+        timeManager.startWithClock(searchLimits.getRemainingTime(), searchLimits.getIncrement(),
+            searchLimits.getMovesToGo());
+      }
+      else {
+        long remainingTime = ((gameTimer != null) && gameTimer.isRunning()) ? gameTimer
+            .getRemainingTime(isWhite()) : 0L;
+        timeManager.start(getMaximumSearchTime(), isFixedTime(), remainingTime);
+      }
+    }
+    else if (searchLimits.getMoveTime() > 0) {
+      timeManager.start(searchLimits.getMoveTime(), true, 0L);
+    }
+    setSearchDeadline(isTimeLimited() ? System.currentTimeMillis()
+        + timeManager.getRemainingTime() : 0L);
   }
 
   /**
-   * Decrease the search depth by 1.
+   * Decide after a completed iteration, if it's the last iteration of the search.
+   * 
+   * @return true, if the search should end.
    */
-  public final void decreaseSearchDepth() {
-    searchDepth--;
+  private final boolean isLastIteration() {
+    if ((getSearchDepth() >= MAX_SEARCH_DEPTH)
+        || ((searchLimits.getDepth() > 0) && (getSearchDepth() >= searchLimits.getDepth()))) {
+      return true;
+    }
+    return isTimeLimited()
+        && !timeManager.isNextIterationAllowed(rootPlies[0], getSearchDepth(), rootPlyCount,
+            Math.abs(lastIterationScore) >= MIN_MATE_SCORE);
   }
 
   /**
-   * Return a menu from the chess engine, where the user can change the settings.
+   * Check the stop flag and, every few nodes, the deadline and the node limit of the search. Every
+   * search thread checks the node limit against the nodes of all threads. A helper, that reaches
+   * it, only stops itself, but the main engine reaches it within a few nodes and stops the others.
+   * Depth 1 is always completed, so there is a ply to play.
    * 
-   * @return A menu for the engine settings.
+   * @throws InterruptedException
+   *           if the search has to stop.
    */
-  public final JMenu getMenu() {
-
-    // Create a new menu.
-    JMenu engineMenu = new JMenu("Engine");
+  private final void checkSearchStop() throws InterruptedException {
+    if (((++pollCounter & POLL_INTERVAL_MASK) == 0)
+        && (((searchDeadline != 0L) && (System.currentTimeMillis() >= searchDeadline))
+            || ((nodeLimit != 0L) && (reportNodes() >= nodeLimit)))) {
+      setSearchStop(true);
+    }
+    if (stopSearch && (getSearchDepth() > 1)) {
+      throw new InterruptedException("Search interrupted at depth " + getSearchDepth());
+    }
+  }
 
-    // Add a toggle item for to the permanent brain.
-    engineMenu.add(permanentBrainMenuItem = new JCheckBoxMenuItem("Use permanent brain",
-        usePermanentBrain()));
-    permanentBrainMenuItem.addActionListener(this);
+  /**
+   * Add the nodes of this thread since the last report to the node counter of all threads.
+   * 
+   * @return The nodes of all search threads, that were reported so far.
+   */
+  private final long reportNodes() {
+    long nodes = statistics.getTotalNodes();
+    long total = searchNodes.addAndGet(nodes - reportedNodes);
+    reportedNodes = nodes;
+    return total;
+  }
 
-    // Add a menu for the maximum search time
-    JMenu searchTimeMenu = new JMenu("Search time");
+  /**
+   * Get the best ply of a interrupted iteration. It's only known, if at least 1 root ply was
+   * searched completely and raised alpha.
+   * 
+   * @param isWhite
+   *          Flag to indicate, if white is about to move.
+   * @return The best ply of the interrupted iteration or null.
+   */
+  private final IAnalyzedPly getInterruptedIterationPly(boolean isWhite) {
+    if (interruptedIterationPly == CompactPly.NO_PLY) {
+      return null;
+    }
+    return new AnalyzedPlyImpl(CompactPly.decode(interruptedIterationPly),
+        (short) (isWhite ? interruptedIterationScore : -interruptedIterationScore));
+  }
 
-    // Add a sub-menu for fixed time.
-    JMenu searchTimeSubMenuFix = new JMenu("Fixed time");
+  /**
+   * Get the best ply of the last search.
+   * 
+   * @return The best ply with it's score from the view of white or null, if no ply was found.
+   */
+  public final IAnalyzedPly getBestPly() {
+    return bestPly;
+  }
 
-    // Add a sub-menu for average time.
-    JMenu searchTimeSubMenuAv = new JMenu("Average time");
+  /**
+   * Get the principal variation of the last search. It starts with the best ply and follows the
+   * plies of the hashtable, as long as they are legal. It's computed on the engine's ply generator,
+   * which is used by the search thread, so other threads must not call it during a search. The
+   * listeners get the principal variation of a running search with the search events.
+   * 
+   * @return The encoded plies of the principal variation.
+   */
+  public final int[] getPrincipalVariation() {
+    return getPrincipalVariation(bestPly);
+  }
 
-    // Add various options for the fixed search time
-    // (maybe a user defined search time should be added, too).
-    buttonGroupSearchTime = new ButtonGroup();
-    fixSearchTimeMenuItem = new JRadioButtonMenuItem[searchTime.length];
-    for (int st = 0; st < searchTime.length; st++) {
-      fixSearchTimeMenuItem[st] = new JRadioButtonMenuItem("" + searchTime[st] + " seconds");
-      fixSearchTimeMenuItem[st].addActionListener(this);
-      if (searchTime[st] == 15) { // set initially 5 sec max search time:
-        fixSearchTimeMenuItem[st].setSelected(true);
-        this.setMaximumSearchTime(15000);
+  /**
+   * Get the principal variation, that starts with a given ply, from the hashtable. The main search
+   * thread calls it itself between 2 root plies and between 2 iterations. That's safe, since the
+   * search works on a copy of the board and doesn't use the ply generator at these points. Any
+   * other thread must only call it, while no search is running.
+   * 
+   * @param firstPly
+   *          The first ply of the principal variation or null.
+   * @return The encoded plies of the principal variation.
+   */
+  private final int[] getPrincipalVariation(IAnalyzedPly firstPly) {
+    if (firstPly == null) {
+      return new int[0];
+    }
+    IBitBoard variationBoard = (IBitBoard) getBoard().clone();
+    boolean white = isWhite();
+    int[] plies = new int[PlyGenerator.MAX_PLIES];
+    int[] scores = new int[PlyGenerator.MAX_PLIES];
+    int[] variation = new int[Math.max(getSearchDepth(), 1)];
+    int length = 0;
+
+    int ply = findLegalPly(variationBoard, white, CompactPly.encode(firstPly.getPly()), plies,
+        scores);
+    while (ply != CompactPly.NO_PLY) {
+      variation[length++] = ply;
+      if (length == variation.length) {
+        break;
       }
-
-      buttonGroupSearchTime.add(fixSearchTimeMenuItem[st]);
-
-      // Add the current search time menu item to it's menu.
-      searchTimeSubMenuFix.add(fixSearchTimeMenuItem[st]);
+      variationBoard.makePly(ply);
+      white = !white;
+      ply = findLegalPly(variationBoard, white, CompactEntry.getPly(getHashtable().probe(
+          variationBoard.getHashKey(white))), plies, scores);
     }
 
-    // Add various options for the average search time
-    avSearchTimeMenuItem = new JRadioButtonMenuItem[searchTime.length];
-    for (int st = 0; st < searchTime.length; st++) {
-      avSearchTimeMenuItem[st] = new JRadioButtonMenuItem("" + searchTime[st] + " seconds");
-      avSearchTimeMenuItem[st].addActionListener(this);
+    int[] result = new int[length];
+    System.arraycopy(variation, 0, result, 0, length);
+    return result;
+  }
 
-      // Add the current search time menu item to it's menu.
-      searchTimeSubMenuAv.add(avSearchTimeMenuItem[st]);
-      buttonGroupSearchTime.add(avSearchTimeMenuItem[st]);
+  /**
+   * Find a legal ply with the same squares and the same transformation as a given ply.
+   * 
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param ply
+   *          The encoded ply to find or CompactPly.NO_PLY.
+   * @param plies
+   *          A buffer for the legal plies.
+   * @param scores
+   *          A buffer for the scores of the legal plies.
+   * @return The legal ply as encoded by the ply generator or CompactPly.NO_PLY.
+   */
+  private final int findLegalPly(IBitBoard board, boolean white, int ply, int[] plies,
+      int[] scores) {
+    if (ply == CompactPly.NO_PLY) {
+      return CompactPly.NO_PLY;
     }
-
-    searchTimeMenu.add(searchTimeSubMenuFix);
-    searchTimeMenu.add(searchTimeSubMenuAv);
-
-    // Add the search time menu to the main engine menu.
-    engineMenu.add(searchTimeMenu);
-
-    // Add a menu for the hashtable size.
-    JMenu hashtableSizeMenu = new JMenu("Hashtable size");
-
-    // Add various options for the hashtable size.
-    this.buttonGroupHashSize = new ButtonGroup();
-    hashtableSizeMenuItem = new JRadioButtonMenuItem[hashtableSizes.length];
-    for (int hts = 0; hts < hashtableSizes.length; hts++) {
-      hashtableSizeMenuItem[hts] = new JRadioButtonMenuItem("" + hashtableSizes[hts] + " entries");
-      hashtableSizeMenuItem[hts].addActionListener(this);
-      if (hashtableSizes[hts] == 100000) {
-        hashtableSizeMenuItem[hts].setSelected(true);
-        getHashtable().setMaximumSize(hashtableSizes[hts]);
+    int plyCount = plyGenerator.getPliesForColor(board, white, plies, scores);
+    for (int i = 0; i < plyCount; i++) {
+      if ((CompactPly.getSource(plies[i]) == CompactPly.getSource(ply))
+          && (CompactPly.getDestination(plies[i]) == CompactPly.getDestination(ply))
+          && (CompactPly.getTypeAfterTransformation(plies[i]) == CompactPly
+              .getTypeAfterTransformation(ply))) {
+        return plies[i];
       }
-
-      // Add the current search time menu item to it's menu.
-      hashtableSizeMenu.add(hashtableSizeMenuItem[hts]);
-      this.buttonGroupHashSize.add(hashtableSizeMenuItem[hts]);
     }
-
-    // Add the search time menu to the main engine menu.
-    engineMenu.add(hashtableSizeMenu);
-
-    // Add a menu item to read openings from PGN files.
-    engineMenu.addSeparator();
-    engineMenu.add(new LoadOpeningsAction(getOpeningBook()));
-
-    // Return the engine menu.
-    return engineMenu;
+    return CompactPly.NO_PLY;
   }
 
   /**
-   * Perform a action (could be a menu related action).
+   * Get the number of analyzed boards.
    * 
-   * @param actionEvent
-   *          The event.
+   * @return The number of analyzed boards.
    */
-  public final void actionPerformed(ActionEvent actionEvent) {
+  public final long getAnalyzedBoards() {
+    return analyzedBoards;
+  }
 
-    // Check, if the user (de-)activated the permanent brain.
-    if (actionEvent.getSource().equals(permanentBrainMenuItem)) {
-      activatePermanentBrain(permanentBrainMenuItem.isSelected());
-      this.notifyListeners();
-      return;
-    }
+  /**
+   * Set the number of analyzed boards.
+   * 
+   * @param analyzedBoards
+   *          The new number of analyzed boards.
+   */
+  public final void setAnalyzedBoards(long analyzedBoards) {
+    this.analyzedBoards = analyzedBoards;
+  }
 
-    // Check if the user has requested a new search time
-    for (int st = 0; st < searchTime.length; st++) {
-      if (actionEvent.getSource().equals(avSearchTimeMenuItem[st])) {
-        setMaximumSearchTime(searchTime[st] * 1000);
-        this.bFixedTime = false;
-      }
+  /**
+   * Increase the number of analyzed boards by 1.
+   */
+  public final void increaseAnalyzedBoards() {
+    analyzedBoards++;
+  }
 
-      if (actionEvent.getSource().equals(fixSearchTimeMenuItem[st])) {
-        setMaximumSearchTime(searchTime[st] * 1000);
-        this.bFixedTime = true;
-      }
-    }
+  /**
+   * Get the current search depth.
+   * 
+   * @return The current search depth.
+   */
+  public final int getSearchDepth() {
+    return searchDepth;
+  }
 
-    // Check, if the user has requested a different hashtable size.
-    for (int hts = 0; hts < hashtableSizes.length; hts++) {
-      if (actionEvent.getSource().equals(hashtableSizeMenuItem[hts])) {
-        getHashtable().setMaximumSize(hashtableSizes[hts]);
-      }
-    }
+  /**
+   * Set a new search depth.
+   * 
+   * @param searchDepth
+   *          The new search depth.
+   */
+  public final void setSearchDepth(int searchDepth) {
+    this.searchDepth = searchDepth;
+  }
 
-    this.notifyListeners();
+  /**
+   * Increase the search depth by 1.
+   */
+  public final void increaseSearchDepth() {
+    searchDepth++;
   }
 
   /**
-   * Sets the EnginePanel to be able to output in the panel and not only with
-   * System.out.println(...)
-   * 
-   * @param panel
-   *          The EnginePanel to set
+   * Decrease the search depth by 1.
    */
-  public void setEnginePanel(EnginePanel panel) {
-    this.enginePanel = panel;
+  public final void decreaseSearchDepth() {
+    searchDepth--;
   }
 
   /**
@@ -1188,11 +2081,6 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     }
   }
 
-  public void setStatusPanel(StatusPanel myPanel) {
-    if (this.statusPanel != myPanel)
-      this.statusPanel = myPanel;
-  }
-
   /**
    * Returns whether the search time is fixed or not.
    * 
@@ -1202,20 +2090,50 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     return (this.bFixedTime);
   }
 
+  /**
+   * Set the mode of the search time.
+   * 
+   * @param fixedTime
+   *          true, if the search always uses the maximum search time, false if the maximum search
+   *          time is the average time per ply.
+   */
+  public void setFixedTime(boolean fixedTime) {
+    this.bFixedTime = fixedTime;
+  }
+
+  /**
+   * Set the game timer, so the search time can be adjusted to the remaining time of the engine.
+   * 
+   * @param timer
+   *          The game timer or null, if there is no timer.
+   */
+  public void setGameTimer(GameTimer timer) {
+    this.gameTimer = timer;
+  }
+
+  /**
+   * Get the time manager of the search.
+   * 
+   * @return The time manager.
+   */
+  public final TimeManager getTimeManager() {
+    return timeManager;
+  }
+
   /**
    * Returns the hash size
    * 
-   * @return The hashsize
+   * @return The hashsize in megabytes
    */
   public int getHashSize() {
-    return (this.getHashtable().getMaximumSize());
+    return (this.getHashtable().getSizeInMegabytes());
   }
 
   /**
    * Returns the status string to display in status bar
    */
   public String getStatusDisplayString() {
-    String retString = "HashSize: " + this.getHashSize() + " entries; " + "Search time: "
+    String retString = "HashSize: " + this.getHashSize() + " MB; " + "Search time: "
         + this.getMaximumSearchTime() / 1000 + "sec";
     if (this.isFixedTime()) {
       retString += " fix";
@@ -1223,6 +2141,7 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
     else {
       retString += " average";
     }
+    retString += "; Threads: " + this.getThreadCount();
 
     return (retString);
 
@@ -1248,4 +2167,81 @@ public class ChessEngineImpl implements IChessEngine, Runnable, ActionListener {
       listener.engineStatusChanged(this);
     }
   }
+
+  /**
+   * Get the statistics of the current or last search. The counters of the search threads are
+   * added into a new instance, so the statistics don't change, while they are used.
+   * 
+   * @return The statistics of all search threads.
+   */
+  public final SearchStatistics getSearchStatistics() {
+    SearchStatistics result = new SearchStatistics();
+    result.add(statistics);
+    for (Iterator<ChessEngineImpl> iterator = helpers.iterator(); iterator.hasNext();) {
+      result.add(iterator.next().statistics);
+    }
+    if (searchThread != null) {
+      result.setTime(System.currentTimeMillis() - searchStartTime);
+    }
+    return result;
+  }
+
+  /**
+   * Check, if a search listener is registered, so the search events are only created, if they are
+   * used.
+   * 
+   * @return true, if at least 1 search listener is registered.
+   */
+  private final boolean hasSearchListeners() {
+    for (Iterator<IEngineStatusListener> iterator = listeners.iterator(); iterator.hasNext();) {
+      if (iterator.next() instanceof ISearchListener) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Create a search event for the current search.
+   * 
+   * @param ply
+   *          The best ply with it's score from the view of white.
+   * @return The search event with the principal variation, that starts with the ply.
+   */
+  private final SearchEvent createSearchEvent(IAnalyzedPly ply) {
+    long time = System.currentTimeMillis() - searchStartTime;
+    return new SearchEvent(this, ply, getPrincipalVariation(ply), getSearchDepth(),
+        getAnalyzedBoards(), time, getSearchStatistics());
+  }
+
+  /**
+   * Send a search event to all registered search listeners.
+   * 
+   * @param type
+   *          The type of the event.
+   * @param event
+   *          The event or null for a reset of the engine.
+   */
+  private final void fireSearchEvent(int type, SearchEvent event) {
+    Iterator<IEngineStatusListener> iterator = listeners.iterator();
+    while (iterator.hasNext()) {
+      IEngineStatusListener listener = iterator.next();
+      if (listener instanceof ISearchListener) {
+        ISearchListener searchListener = (ISearchListener) listener;
+        switch (type) {
+          case ITERATION_COMPLETED:
+            searchListener.iterationCompleted(event);
+            break;
+          case PRINCIPAL_VARIATION_CHANGED:
+            searchListener.principalVariationChanged(event);
+            break;
+          case BEST_PLY_FOUND:
+            searchListener.bestPlyFound(event);
+            break;
+          default:
+            searchListener.engineReset(this);
+        }
+      }
+    }
+  }
 }
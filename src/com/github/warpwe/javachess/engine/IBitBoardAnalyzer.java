@@ -47,6 +47,13 @@ public interface IBitBoardAnalyzer {
    */
   short WHITE_HAS_WON = Short.MAX_VALUE;
 
+  /**
+   * The maximum number of plies from the root of a search to a checkmate. The search scores a
+   * checkmate after n plies with WHITE_HAS_WON - n, so all the scores from WHITE_HAS_WON - MAX_PLY
+   * on are checkmates.
+   */
+  int MAX_PLY = 128;
+
   // Methods
 
   /**
@@ -12,11 +12,10 @@
 
 package com.github.warpwe.javachess.engine;
 
-import javax.swing.JMenu;
-
 import com.github.warpwe.javachess.board.Board;
 import com.github.warpwe.javachess.game.IGame;
 import com.github.warpwe.javachess.ply.IPly;
+import com.github.warpwe.javachess.timer.GameTimer;
 
 /**
  * This interface defines the functionality of a engine to play the game of chess.
@@ -80,6 +79,28 @@ public interface IChessEngine {
    */
   IPly computeBestPly();
 
+  /**
+   * Compute the best ply for the current position with given search limits.
+   *
+   * @param limits
+   *          The limits of the search.
+   * @return The best known ply for the current position.
+   */
+  IPly computeBestPly(SearchLimits limits);
+
+  /**
+   * Stop a running search. The best ply of the completed iterations is returned.
+   */
+  void stopSearch();
+
+  /**
+   * Set the game timer, so the search time can be adjusted to the remaining time of the engine.
+   *
+   * @param timer
+   *          The game timer or null, if there is no timer.
+   */
+  void setGameTimer(GameTimer timer);
+
   /**
    * Get all the potential plies for the human player.
    *
@@ -96,13 +117,6 @@ public interface IChessEngine {
    */
   boolean validateUserPly(IPly ply);
 
-  /**
-   * Request a menu from the chess engine, where the user can change it's settings.
-   *
-   * @return A menu for the engine settings.
-   */
-  JMenu getMenu();
-
   /**
    * Get the current game state for a given color.
    *
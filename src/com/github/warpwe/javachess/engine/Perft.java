@@ -0,0 +1,477 @@
+/*
+ * Perft - A class to count the leaf nodes of the ply tree of a position. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.ply.CompactPly;
+
+/**
+ * This class counts the leaf nodes of the ply tree of a position up to a given depth (perft). The
+ * counts of well known positions are published, so they verify the ply generator and makePly /
+ * unmakePly of the board, including castlings, en passant attacks and transformations. The divide
+ * command lists the count for each ply of the position, so a wrong count can be traced down to a
+ * single ply.
+ * <p>
+ * The counts of subtrees can be memoized in a table, that is shared by all threads. The entries
+ * are packed like the entries of the ply hashtable, so no locks are required. With a fork/join
+ * pool, the plies of the position are counted in parallel.
+ * <p>
+ * Usage: Perft [depth] [thread count] [table entries] [FEN]. Without a FEN position, the reference
+ * positions are counted up to the given depth and the counts are compared with the published ones.
+ */
+public class Perft {
+
+  // Static variables
+
+  /**
+   * The reference positions as FEN strings.
+   */
+  private static final String[] _referencePositions = {
+      FENPosition.INITIAL_POSITION,
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+      "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+      "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+  };
+
+  /**
+   * The published counts of the reference positions for the depths 1, 2, 3...
+   */
+  private static final long[][] _referenceCounts = {
+      {
+          20L, 400L, 8902L, 197281L, 4865609L, 119060324L
+      }, {
+          48L, 2039L, 97862L, 4085603L, 193690690L
+      }, {
+          14L, 191L, 2812L, 43238L, 674624L, 11030083L
+      }, {
+          6L, 264L, 9467L, 422333L, 15833292L
+      }, {
+          44L, 1486L, 62379L, 2103487L, 89941194L
+      }, {
+          46L, 2079L, 89890L, 3894594L, 164075551L
+      }
+  };
+
+  /**
+   * The maximum depth, that can be stored in the table.
+   */
+  private static final int MAX_DEPTH = 255;
+
+  // Instance variables
+
+  /**
+   * The board, that the plies are performed on.
+   */
+  private IBitBoard _board;
+
+  /**
+   * The generator for the plies.
+   */
+  private PlyGenerator _plyGenerator;
+
+  /**
+   * The plies and their scores for each level of the tree.
+   */
+  private int[][] _plies = new int[0][];
+  private int[][] _scores = new int[0][];
+
+  /**
+   * The memoized counts, 2 longs per entry: the hash key xor'ed with the data and the data itself.
+   * The data holds the count in the upper bits and the depth in the lowest 8 bits. null, if the
+   * counts are not memoized.
+   */
+  private final long[] _table;
+
+  // Constructors
+
+  /**
+   * Create a new perft instance.
+   *
+   * @param tableEntries
+   *          The number of entries of the table for the memoized counts (rounded down to a power of
+   *          2) or 0, if no counts are memoized.
+   */
+  public Perft(int tableEntries) {
+    int entries = 0;
+    if (tableEntries > 0) {
+      entries = 1;
+      while ((entries << 1) > 0 && (entries << 1) <= tableEntries) {
+        entries <<= 1;
+      }
+    }
+    _table = (entries > 0) ? new long[entries * 2] : null;
+    init();
+  }
+
+  /**
+   * Create a new perft instance, that shares the table with another instance.
+   *
+   * @param perft
+   *          The instance with the table.
+   */
+  private Perft(Perft perft) {
+    _table = perft._table;
+    init();
+  }
+
+  // Methods
+
+  /**
+   * Create the ply generator of this instance.
+   */
+  private final void init() {
+    GameImpl game = new GameImpl();
+    _plyGenerator = new PlyGenerator(game, new PlyHashtableImpl(2));
+    _plyGenerator.setAnalyzer(new BitBoardAnalyzerImpl(game, _plyGenerator));
+  }
+
+  /**
+   * Count the leaf nodes of the ply tree of a position.
+   *
+   * @param board
+   *          The board with the position. It is not modified.
+   * @param white
+   *          true, if white has the next move.
+   * @param depth
+   *          The depth of the tree.
+   * @return The number of leaf nodes.
+   */
+  public final long perft(IBitBoard board, boolean white, int depth) {
+    setPosition(board, depth);
+    return perft(white, depth, 0);
+  }
+
+  /**
+   * Count the leaf nodes of the ply tree of a position for each legal ply of the position.
+   *
+   * @param board
+   *          The board with the position. It is not modified.
+   * @param white
+   *          true, if white has the next move.
+   * @param depth
+   *          The depth of the tree (at least 1).
+   * @param pool
+   *          The pool to count the plies in parallel or null to count them in this thread.
+   * @param out
+   *          The stream for the count of each ply or null, if only the sum is required.
+   * @return The number of leaf nodes.
+   */
+  public final long divide(IBitBoard board, boolean white, int depth, ForkJoinPool pool,
+      PrintStream out) {
+    setPosition(board, depth);
+
+    int[] plies = _plies[0];
+    int plyCount = _plyGenerator.getPseudoLegalPliesForColor(_board, white, plies, _scores[0]);
+    long pinnedPieces = _plyGenerator.getPinnedPieces();
+    long checkers = _plyGenerator.getCheckers();
+
+    // Create a task with a copy of the board for each legal ply.
+    PlyTask[] tasks = new PlyTask[plyCount];
+    int taskCount = 0;
+    for (int i = 0; i < plyCount; i++) {
+      int ply = plies[i];
+      if (_plyGenerator.isLegalPly(_board, white, ply, pinnedPieces, checkers)) {
+        int undoInfo = _board.makePly(ply);
+        tasks[taskCount++] = new PlyTask(new Perft(this), (IBitBoard) _board.clone(), !white,
+            depth - 1, ply);
+        _board.unmakePly(ply, undoInfo);
+      }
+    }
+
+    if (pool != null) {
+      for (int i = 0; i < taskCount; i++) {
+        pool.execute(tasks[i]);
+      }
+    }
+
+    long nodes = 0L;
+    for (int i = 0; i < taskCount; i++) {
+      long count = (pool != null) ? tasks[i].join() : tasks[i].compute();
+      if (out != null) {
+        out.println(CompactPly.toCoordinateNotation(tasks[i].getPly()) + ": " + count);
+      }
+      nodes += count;
+    }
+    return nodes;
+  }
+
+  /**
+   * Copy a position to a board of this instance and allocate the arrays for the plies.
+   *
+   * @param board
+   *          The board with the position.
+   * @param depth
+   *          The depth of the tree.
+   */
+  private final void setPosition(IBitBoard board, int depth) {
+    _board = (IBitBoard) board.clone();
+
+    if (_plies.length < depth + 1) {
+      _plies = new int[depth + 1][PlyGenerator.MAX_PLIES];
+      _scores = new int[depth + 1][PlyGenerator.MAX_PLIES];
+    }
+  }
+
+  /**
+   * Count the leaf nodes of the ply tree of the current position.
+   *
+   * @param white
+   *          true, if white has the next move.
+   * @param depth
+   *          The remaining depth of the tree.
+   * @param level
+   *          The level in the tree (0 for the root).
+   * @return The number of leaf nodes.
+   */
+  private final long perft(boolean white, int depth, int level) {
+    if (depth == 0) {
+      return 1L;
+    }
+
+    // The leaf counts are not memoized, since counting them is cheaper than a table access.
+    long hashKey = 0L;
+    if ((_table != null) && (depth > 1)) {
+      hashKey = _board.getHashKey(white);
+      long count = probe(hashKey, depth);
+      if (count >= 0L) {
+        return count;
+      }
+    }
+
+    int[] plies = _plies[level];
+    int plyCount = _plyGenerator.getPseudoLegalPliesForColor(_board, white, plies, _scores[level]);
+    long pinnedPieces = _plyGenerator.getPinnedPieces();
+    long checkers = _plyGenerator.getCheckers();
+
+    long nodes = 0L;
+    for (int i = 0; i < plyCount; i++) {
+      int ply = plies[i];
+      if (!_plyGenerator.isLegalPly(_board, white, ply, pinnedPieces, checkers)) {
+        continue;
+      }
+      if (depth == 1) {
+        nodes++;  // Count the legal plies only, without performing them.
+      }
+      else {
+        int undoInfo = _board.makePly(ply);
+        nodes += perft(!white, depth - 1, level + 1);
+        _board.unmakePly(ply, undoInfo);
+      }
+    }
+
+    if ((_table != null) && (depth > 1)) {
+      store(hashKey, depth, nodes);
+    }
+    return nodes;
+  }
+
+  /**
+   * Get a memoized count.
+   *
+   * @param hashKey
+   *          The hash key of the position.
+   * @param depth
+   *          The depth of the tree.
+   * @return The count or -1, if the count is not in the table.
+   */
+  private final long probe(long hashKey, int depth) {
+    int index = ((int) hashKey & (_table.length / 2 - 1)) * 2;
+    long data = _table[index + 1];
+    if ((data != 0L) && ((_table[index] ^ data) == hashKey) && ((data & 0xFF) == depth)) {
+      return data >>> 8;
+    }
+    return -1L;
+  }
+
+  /**
+   * Memoize a count. The entry is always replaced.
+   *
+   * @param hashKey
+   *          The hash key of the position.
+   * @param depth
+   *          The depth of the tree.
+   * @param nodes
+   *          The number of leaf nodes.
+   */
+  private final void store(long hashKey, int depth, long nodes) {
+    if (depth > MAX_DEPTH) {
+      return;
+    }
+    int index = ((int) hashKey & (_table.length / 2 - 1)) * 2;
+    long data = (nodes << 8) | depth;
+    _table[index] = hashKey ^ data;
+    _table[index + 1] = data;
+  }
+
+  /**
+   * Count the reference positions or the divide of a given position.
+   *
+   * @param args
+   *          The depth, the thread count, the number of table entries and a FEN position.
+   */
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+    int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime()
+        .availableProcessors();
+    int tableEntries = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+    ForkJoinPool pool = (threadCount > 1) ? new ForkJoinPool(threadCount) : null;
+    Perft perft = new Perft(tableEntries);
+    IBitBoard board = new BitBoardImpl();
+
+    if (args.length > 3) {
+      StringBuilder fen = new StringBuilder(args[3]);
+      for (int i = 4; i < args.length; i++) {
+        fen.append(' ').append(args[i]);
+      }
+      boolean white = FENPosition.setPosition(board, fen.toString());
+
+      long startTime = System.nanoTime();
+      long nodes = perft.divide(board, white, depth, pool, System.out);
+      printResult("Total", depth, nodes, -1L, System.nanoTime() - startTime);
+    }
+    else {
+      boolean failed = false;
+      for (int p = 0; p < _referencePositions.length; p++) {
+        boolean white = FENPosition.setPosition(board, _referencePositions[p]);
+        int positionDepth = Math.min(depth, _referenceCounts[p].length);
+
+        long startTime = System.nanoTime();
+        long nodes = perft.divide(board, white, positionDepth, pool, null);
+        long expected = _referenceCounts[p][positionDepth - 1];
+        printResult("Position " + (p + 1), positionDepth, nodes, expected, System.nanoTime()
+            - startTime);
+        failed |= (nodes != expected);
+      }
+      if (failed) {
+        System.exit(1);
+      }
+    }
+
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Print the result of a count.
+   *
+   * @param name
+   *          The name of the position.
+   * @param depth
+   *          The depth of the tree.
+   * @param nodes
+   *          The number of leaf nodes.
+   * @param expected
+   *          The published number of leaf nodes or -1, if it's not known.
+   * @param nanos
+   *          The time of the count in nanoseconds.
+   */
+  private static void printResult(String name, int depth, long nodes, long expected, long nanos) {
+    System.out.println(name + " depth: " + depth + " nodes: " + nodes
+        + (expected < 0L ? "" : (nodes == expected ? " ok" : " expected: " + expected))
+        + " time: " + (nanos / 1000000L) + " ms nodes/s: "
+        + (nanos > 0L ? nodes * 1000000000L / nanos : 0L));
+  }
+
+  /**
+   * A task to count the leaf nodes after a ply of the divided position.
+   */
+  private static final class PlyTask extends RecursiveTask<Long> {
+
+    // Static variables
+
+    private static final long serialVersionUID = 1L;
+
+    // Instance variables
+
+    /**
+     * The perft instance of this task.
+     */
+    private final Perft _perft;
+
+    /**
+     * The board with the position after the ply.
+     */
+    private final IBitBoard _board;
+
+    /**
+     * Flag to indicate, if white has the next move after the ply.
+     */
+    private final boolean _white;
+
+    /**
+     * The remaining depth of the tree.
+     */
+    private final int _depth;
+
+    /**
+     * The ply, that leads to the position.
+     */
+    private final int _ply;
+
+    // Constructors
+
+    /**
+     * Create a new task.
+     *
+     * @param perft
+     *          The perft instance of this task.
+     * @param board
+     *          The board with the position after the ply.
+     * @param white
+     *          true, if white has the next move after the ply.
+     * @param depth
+     *          The remaining depth of the tree.
+     * @param ply
+     *          The ply, that leads to the position.
+     */
+    PlyTask(Perft perft, IBitBoard board, boolean white, int depth, int ply) {
+      _perft = perft;
+      _board = board;
+      _white = white;
+      _depth = depth;
+      _ply = ply;
+    }
+
+    // Methods
+
+    /**
+     * Get the ply, that leads to the position of this task.
+     *
+     * @return The encoded ply.
+     */
+    final int getPly() {
+      return _ply;
+    }
+
+    /**
+     * Count the leaf nodes.
+     *
+     * @return The number of leaf nodes.
+     */
+    protected final Long compute() {
+      return Long.valueOf(_perft.perft(_board, _white, _depth));
+    }
+  }
+}
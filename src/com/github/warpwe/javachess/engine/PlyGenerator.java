@@ -18,26 +18,29 @@ import com.github.warpwe.javachess.bitboard.IBitBoard;
 import com.github.warpwe.javachess.engine.hashtable.PlyHashtable;
 import com.github.warpwe.javachess.game.IGame;
 import com.github.warpwe.javachess.piece.IPiece;
-import com.github.warpwe.javachess.ply.AnalyzedPlyImpl;
-import com.github.warpwe.javachess.ply.CastlingPlyImpl;
-import com.github.warpwe.javachess.ply.EnPassantPlyImpl;
-import com.github.warpwe.javachess.ply.IAnalyzedPly;
+import com.github.warpwe.javachess.ply.CompactPly;
 import com.github.warpwe.javachess.ply.IPly;
-import com.github.warpwe.javachess.ply.PlyImpl;
-import com.github.warpwe.javachess.ply.TransformationPlyImpl;
-import com.github.warpwe.javachess.position.Position;
-import com.github.warpwe.javachess.position.PositionImpl;
 
 /**
- * This class generates all possible plies for a given game position.
+ * This class generates all possible plies for a given game position. The plies are generated as
+ * ints (see CompactPly) into arrays, that the caller provides, so the generation doesn't create any
+ * objects. Ply objects are only created for the callers, that need them (like the user interface).
+ * <p>
+ * The search can also request the pseudo-legal plies, that might leave the own king in check. It
+ * then checks each ply with isLegalPly, before it's searched. Most plies pass this check with the
+ * pinned pieces and the checking pieces of the position, without performing the ply.
  */
 public class PlyGenerator {
 
   // Static variables
   static org.apache.logging.log4j.Logger logger = LogManager.getLogger("logfile");
 
+  /**
+   * The maximum number of plies in a position. No legal chess position has more than 218 plies.
+   */
+  public static final int MAX_PLIES = 256;
+
   // The scores for presorted plies.
-  private short HASHTABLE_PLY = 101;
   private short QUEEN_TRANSFORMATION = 100;
   private short ROOK_TRANSFORMATION = 98;
   private short BISHOP_TRANSFORMATION = 96;
@@ -45,6 +48,20 @@ public class PlyGenerator {
   private short MATERIAL_WIN = 50;
   private short REGULAR_PLY = 20;
 
+  /**
+   * The values of the piece types for the static exchange evaluation (indexed by IPiece type).
+   */
+  private static final int[] _exchangeValues = {
+      0, 90, 270, 270, 405, 720, 10000
+  };
+
+  /**
+   * The piece types in the order, that they are used for captures in the exchange evaluation.
+   */
+  private static final int[] _exchangeOrder = {
+      IPiece.PAWN, IPiece.KNIGHT, IPiece.BISHOP, IPiece.ROOK, IPiece.QUEEN, IPiece.KING
+  };
+
   // The moves of a knight, of there are no limitations due to position on the board's edge,
   // opponent's pieces etc.
   private static int[][] _knightPlyOffset = {
@@ -111,9 +128,20 @@ public class PlyGenerator {
   IBitBoardAnalyzer _analyzer;
 
   /**
-   * An array for the current plies to avoid the overhead of dynamic data structures.
+   * The array for the currently generated plies.
    */
-  IAnalyzedPly[] _currentPlies = new AnalyzedPlyImpl[150];
+  private int[] _currentPlies;
+
+  /**
+   * The presort scores of the currently generated plies.
+   */
+  private int[] _currentScores;
+
+  /**
+   * The buffers for the plies and scores, if ply objects are requested.
+   */
+  private int[] _plyBuffer = new int[MAX_PLIES];
+  private int[] _scoreBuffer = new int[MAX_PLIES];
 
   /**
    * A counter for the currently computed plies.
@@ -141,6 +169,37 @@ public class PlyGenerator {
    */
   private boolean _white;
 
+  /**
+   * Flag to indicate, if the plies are added without checking their legality.
+   */
+  private boolean _pseudoLegal;
+
+  /**
+   * Flags to indicate, if the captures (and transformations) and the other plies are generated.
+   */
+  private boolean _generateCaptures;
+  private boolean _generateQuiets;
+
+  /**
+   * The possible destination squares of the generated plies.
+   */
+  private long _destinationSquares;
+
+  /**
+   * The pieces of the current color, that are pinned to their king.
+   */
+  private long _pinnedPieces;
+
+  /**
+   * The pieces of the opponent, that give check to the king of the current color.
+   */
+  private long _checkers;
+
+  /**
+   * The material gains of the captures in a static exchange evaluation.
+   */
+  private int[] _exchangeGains = new int[32];
+
   // Constructors
 
   /**
@@ -234,6 +293,165 @@ public class PlyGenerator {
    *          true, if white has the next move.
    */
   public final IPly[] getPliesForColor(boolean white) {
+    setGenerationMode(false, true, true);
+    int plyCount = getPliesForColor(white, _plyBuffer, _scoreBuffer);
+
+    // Convert the plies to a array of the correct size
+    IPly[] plies = new IPly[plyCount];
+    for (int index = 0; index < plyCount; index++) {
+      plies[index] = CompactPly.decode(_plyBuffer[index]);
+    }
+
+    return plies;
+  }
+
+  /**
+   * Get the encoded plies for a given board and color.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param plies
+   *          The array for the plies (with at least MAX_PLIES elements).
+   * @param scores
+   *          The array for the presort scores of the plies (with at least MAX_PLIES elements).
+   * @return The number of plies.
+   */
+  public final int getPliesForColor(IBitBoard board, boolean white, int[] plies, int[] scores) {
+    setBoard(board);
+    setGenerationMode(false, true, true);
+    return getPliesForColor(white, plies, scores);
+  }
+
+  /**
+   * Get the encoded pseudo-legal plies for a given board and color. These plies might leave the
+   * own king in check, so each ply has to be checked with isLegalPly before it's performed. The
+   * pinned pieces and the checking pieces for this check are available with getPinnedPieces and
+   * getCheckers, until the next plies are generated.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param plies
+   *          The array for the plies (with at least MAX_PLIES elements).
+   * @param scores
+   *          The array for the presort scores of the plies (with at least MAX_PLIES elements).
+   * @return The number of plies.
+   */
+  public final int getPseudoLegalPliesForColor(IBitBoard board, boolean white, int[] plies,
+      int[] scores) {
+    setBoard(board);
+    setGenerationMode(true, true, true);
+    return getPliesForColor(white, plies, scores);
+  }
+
+  /**
+   * Get the encoded pseudo-legal captures and transformations for a given board and color.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param plies
+   *          The array for the plies (with at least MAX_PLIES elements).
+   * @param scores
+   *          The array for the presort scores of the plies (with at least MAX_PLIES elements).
+   * @return The number of plies.
+   */
+  public final int getPseudoLegalCaptures(IBitBoard board, boolean white, int[] plies,
+      int[] scores) {
+    setBoard(board);
+    setGenerationMode(true, true, false);
+    return getPliesForColor(white, plies, scores);
+  }
+
+  /**
+   * Get the encoded pseudo-legal plies, that are no captures or transformations, for a given
+   * board and color.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param plies
+   *          The array for the plies (with at least MAX_PLIES elements).
+   * @param scores
+   *          The array for the presort scores of the plies (with at least MAX_PLIES elements).
+   * @return The number of plies.
+   */
+  public final int getPseudoLegalQuietPlies(IBitBoard board, boolean white, int[] plies,
+      int[] scores) {
+    setBoard(board);
+    setGenerationMode(true, false, true);
+    return getPliesForColor(white, plies, scores);
+  }
+
+  /**
+   * Set the kind of plies, that are generated.
+   *
+   * @param pseudoLegal
+   *          true, if the legality of the plies is not checked.
+   * @param captures
+   *          true, if captures and transformations are generated.
+   * @param quiets
+   *          true, if the other plies are generated.
+   */
+  private final void setGenerationMode(boolean pseudoLegal, boolean captures, boolean quiets) {
+    _pseudoLegal = pseudoLegal;
+    _generateCaptures = captures;
+    _generateQuiets = quiets;
+  }
+
+  /**
+   * Compute the pinned pieces and the checking pieces for a board and color without generating
+   * any plies. They are available with getPinnedPieces and getCheckers afterwards.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   */
+  public final void computeLegalityMasks(IBitBoard board, boolean white) {
+    setBoard(board);
+    _white = white;
+    _emptySquares = getBoard().getEmptySquares();
+    computeLegalityMasks();
+  }
+
+  /**
+   * Get the pieces, that are pinned to their king in the position of the last generated plies.
+   *
+   * @return The pinned pieces as a bitmask.
+   */
+  public final long getPinnedPieces() {
+    return _pinnedPieces;
+  }
+
+  /**
+   * Get the pieces, that give check in the position of the last generated plies.
+   *
+   * @return The checking pieces as a bitmask.
+   */
+  public final long getCheckers() {
+    return _checkers;
+  }
+
+  /**
+   * Get the encoded plies for the current board and a color.
+   *
+   * @param white
+   *          true, if white has the next move.
+   * @param plies
+   *          The array for the plies.
+   * @param scores
+   *          The array for the presort scores of the plies.
+   * @return The number of plies.
+   */
+  private final int getPliesForColor(boolean white, int[] plies, int[] scores) {
+    _currentPlies = plies;
+    _currentScores = scores;
     resetPlies();
     _white = white;  // Store the color of the current player.
 
@@ -241,6 +459,9 @@ public class PlyGenerator {
     _emptySquares = getBoard().getEmptySquares(); // Get the positions of the empty squares.
     _attackablePieces = getBoard().getAllPiecesForColor(!_white)
         & ~getBoard().getPositionOfPieces(IPiece.KING << 1 | (_white ? 0 : 1));
+    _destinationSquares = (_generateCaptures ? _attackablePieces : 0L)
+        | (_generateQuiets ? _emptySquares : 0L);
+    computeLegalityMasks();
 
     // Add the possible plies for all piece types.
     // I tried to sort this list according to the probality for a check, so
@@ -252,31 +473,7 @@ public class PlyGenerator {
     addPliesForPawns();
     addPliesForKing();
 
-    // Check, if there's a good ply for this board in the hash table.
-    IPly hashtablePly = getHashtable().getPly(getBoard(), _white);
-    if (hashtablePly != null) {  // If so, increase the score of this ply.
-      for (int index = 0; index < _plyCounter; index++) {
-        if (_currentPlies[index].getPly().equals(hashtablePly)) {
-          _currentPlies[index].setScore(HASHTABLE_PLY);
-          break;
-        }
-      }
-    }
-/*
-    // Presort the plies
-    presortPlies();
-*/
-    // Convert the plies to a array of the correct size
-    IPly[] plies = new IPly[_plyCounter];
-    int destIndex = 0;
-    for (int sourceIndex = (_plyCounter - 1); sourceIndex >= 0;) {
-      // find ply-score
-      logger.info(" Ply: " + _currentPlies[sourceIndex].getPly() + " " + _currentPlies[sourceIndex].getScore() );
-      plies[destIndex++] = _currentPlies[sourceIndex--].getPly();
-
-    }
-
-    return plies;
+    return _plyCounter;
   }
 
   /**
@@ -288,150 +485,127 @@ public class PlyGenerator {
       // Get the positions of all pawns
       long pawnPos = getBoard().getPositionOfPieces(IPiece.PAWN << 1 | 1);
 
-      // Add all the diagonal attacks
-      addRelativePliesUpward(((pawnPos & IBitBoard._NOT_LINE_H) << 9) & _attackablePieces, 17, 63,
-          -9);
-      addRelativePliesUpward(((pawnPos & IBitBoard._NOT_LINE_A) << 7) & _attackablePieces, 16, 62,
-          -7);
-
-      // Check for a en-passent attack
-      if (getLastPly() != null) {
-        Position destination = getLastPly().getDestination();
-        IPiece piece = getBoard().getPiece(destination);
-
-        // The check for the color is sorta redundant, but during analysis the
-        // order of moves might be incorrect.
-        if (piece != null && piece.getType() == IPiece.PAWN && piece.getColor() == IPiece.BLACK) {
-          int sourceIndex = getLastPly().getSource().getSquareIndex();
-          int destinationIndex = getLastPly().getDestination().getSquareIndex();
-
-          // If the pawn moved 2 squares
-          if ((sourceIndex - destinationIndex) == 16) {
-            int attackableIndex = sourceIndex - 8;
-
-            // Compute the bitmask for the pawn.
-            long attackablePawnBitmask = (1L << attackableIndex);
-
-            // Add the en passant attacks.
-            if ((((pawnPos & IBitBoard._NOT_LINE_H) << 9) & attackablePawnBitmask) != 0L) {
-              addPly(new EnPassantPlyImpl(new PositionImpl(attackableIndex - 9), new PositionImpl(
-                  attackableIndex), new PositionImpl(destinationIndex)), MATERIAL_WIN);
-            }
-            // Add the en passant attacks. W.E 20140728 _NOT_LINE_A
-            if ((((pawnPos & IBitBoard._NOT_LINE_A) << 7) & attackablePawnBitmask) != 0L) {
-              addPly(new EnPassantPlyImpl(new PositionImpl(attackableIndex - 7), new PositionImpl(
-                  attackableIndex), new PositionImpl(destinationIndex)), MATERIAL_WIN);
-            }
-          }
+      // Add all the diagonal attacks. The attacks on the last row are transformations.
+      long rightAttacks = ((pawnPos & IBitBoard._NOT_LINE_H) << 9) & _attackablePieces
+          & _destinationSquares;
+      long leftAttacks = ((pawnPos & IBitBoard._NOT_LINE_A) << 7) & _attackablePieces
+          & _destinationSquares;
+      addRelativePliesUpward(rightAttacks & IBitBoard._NOT_ROW_8, 17, 55, -9);
+      addRelativePliesUpward(leftAttacks & IBitBoard._NOT_ROW_8, 16, 55, -7);
+
+      // Check for a en-passent attack. The board knows the square, that a black pawn skipped
+      // with the last ply.
+      int attackableIndex = getBoard().getEnPassantSquare();
+      if (_generateCaptures && (attackableIndex >= 40)) {
+
+        // Compute the bitmask for the pawn.
+        long attackablePawnBitmask = (1L << attackableIndex);
+
+        // Add the en passant attacks.
+        if ((((pawnPos & IBitBoard._NOT_LINE_H) << 9) & attackablePawnBitmask) != 0L) {
+          addPly(CompactPly.encode(attackableIndex - 9, attackableIndex, true,
+              CompactPly.EN_PASSANT, 0), MATERIAL_WIN);
+        }
+        // Add the en passant attacks. W.E 20140728 _NOT_LINE_A
+        if ((((pawnPos & IBitBoard._NOT_LINE_A) << 7) & attackablePawnBitmask) != 0L) {
+          addPly(CompactPly.encode(attackableIndex - 7, attackableIndex, true,
+              CompactPly.EN_PASSANT, 0), MATERIAL_WIN);
         }
       }
 
       // Add all the 2 square plies. Since the square in front of the pawn has to be free, I have to
       // add the bit and with the shifted empty squares.
       addRelativePliesUpward(((pawnPos & IBitBoard._ROW_2 & (_emptySquares >>> 8)) << 16)
-          & _emptySquares, 24, 31, -16);
+          & _emptySquares & _destinationSquares, 24, 31, -16);
 
       // Add all the 1 square plies.
       long movedPawns = (pawnPos << 8) & _emptySquares;
-      addRelativePliesUpward(movedPawns & IBitBoard._NOT_ROW_8, 16, 55, -8);
-
-      // Now take care of the last row.
-      movedPawns &= IBitBoard._ROW_8;
-      while (movedPawns != 0L) {
-        int destinationSquare = BitUtils.getHighestBit(movedPawns);
-        int sourceSquare = destinationSquare - 8;
-
-        // Add all transformation types as plies.
+      addRelativePliesUpward(movedPawns & IBitBoard._NOT_ROW_8 & _destinationSquares, 16, 55, -8);
 
-        boolean capture = (((1L << destinationSquare) & _attackablePieces) != 0L);
-
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.QUEEN, capture,
-            QUEEN_TRANSFORMATION);
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.KNIGHT, capture,
-            KNIGHT_TRANSFORMATION);
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.ROOK, capture,
-            ROOK_TRANSFORMATION);
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.BISHOP, capture,
-            BISHOP_TRANSFORMATION);
-
-        movedPawns &= ~(1L << destinationSquare);
+      // Now take care of the last row. The transformations are generated with the captures.
+      if (_generateCaptures) {
+        addTransformationPlies(movedPawns & IBitBoard._ROW_8, -8);
+        addTransformationPlies(rightAttacks & IBitBoard._ROW_8, -9);
+        addTransformationPlies(leftAttacks & IBitBoard._ROW_8, -7);
       }
     }
     else {
       // Get the positions of all pawns
       long pawnPos = getBoard().getPositionOfPieces(IPiece.PAWN << 1);
 
-      // Add all the diagonal attacks
-      addRelativePliesDownward(((pawnPos & IBitBoard._NOT_LINE_A) >>> 9) & _attackablePieces, 46,
-          0, 9);
-      addRelativePliesDownward(((pawnPos & IBitBoard._NOT_LINE_H) >>> 7) & _attackablePieces, 47,
-          0, 7);
-
-      // Check for a en-passent attack
-      if (getLastPly() != null) {
-        Position destination = getLastPly().getDestination();
-        IPiece piece = getBoard().getPiece(destination);
-
-        // The check for the color is sorta redundant, but during analysis the
-        // order of moves might be incorrect.
-        if (piece != null && piece.getType() == IPiece.PAWN && piece.getColor() == IPiece.BLACK) {
-          int sourceIndex = getLastPly().getSource().getSquareIndex();
-          int destinationIndex = getLastPly().getDestination().getSquareIndex();
-
-          // If the pawn moved 2 squares
-          if ((destinationIndex - sourceIndex) == 16) {
-            int attackableIndex = sourceIndex + 8;
-
-            // Compute the bitmask for the pawn.
-            long attackablePawnBitmask = (1L << attackableIndex);
-
-            // Add the en passant attacks. W.E. 20140728
-            if ((((pawnPos & IBitBoard._NOT_LINE_A) >>> 9) & attackablePawnBitmask) != 0L) {
-              addPly(new EnPassantPlyImpl(new PositionImpl(attackableIndex + 9), new PositionImpl(
-                  attackableIndex), new PositionImpl(destinationIndex)), MATERIAL_WIN);
-            }
-            // Add the en passant attacks.
-            if ((((pawnPos & IBitBoard._NOT_LINE_H) >>> 7) & attackablePawnBitmask) != 0L) {
-              addPly(new EnPassantPlyImpl(new PositionImpl(attackableIndex + 7), new PositionImpl(
-                  attackableIndex), new PositionImpl(destinationIndex)), MATERIAL_WIN);
-            }
-          }
+      // Add all the diagonal attacks. The attacks on the last row are transformations.
+      long leftAttacks = ((pawnPos & IBitBoard._NOT_LINE_A) >>> 9) & _attackablePieces
+          & _destinationSquares;
+      long rightAttacks = ((pawnPos & IBitBoard._NOT_LINE_H) >>> 7) & _attackablePieces
+          & _destinationSquares;
+      addRelativePliesDownward(leftAttacks & IBitBoard._NOT_ROW_1, 46, 8, 9);
+      addRelativePliesDownward(rightAttacks & IBitBoard._NOT_ROW_1, 47, 8, 7);
+
+      // Check for a en-passent attack. The board knows the square, that a white pawn skipped
+      // with the last ply.
+      int attackableIndex = getBoard().getEnPassantSquare();
+      if (_generateCaptures && (attackableIndex >= 16) && (attackableIndex < 24)) {
+
+        // Compute the bitmask for the pawn.
+        long attackablePawnBitmask = (1L << attackableIndex);
+
+        // Add the en passant attacks. W.E. 20140728
+        if ((((pawnPos & IBitBoard._NOT_LINE_A) >>> 9) & attackablePawnBitmask) != 0L) {
+          addPly(CompactPly.encode(attackableIndex + 9, attackableIndex, true,
+              CompactPly.EN_PASSANT, 0), MATERIAL_WIN);
+        }
+        // Add the en passant attacks.
+        if ((((pawnPos & IBitBoard._NOT_LINE_H) >>> 7) & attackablePawnBitmask) != 0L) {
+          addPly(CompactPly.encode(attackableIndex + 7, attackableIndex, true,
+              CompactPly.EN_PASSANT, 0), MATERIAL_WIN);
         }
       }
 
       // Add all the 2 square plies. Since the square in front of the pawn has to be free, I have to
       // add the bit and with the shifted empty squares.
       addRelativePliesDownward(((pawnPos & IBitBoard._ROW_7 & (_emptySquares << 8)) >>> 16)
-          & _emptySquares, 39, 32, 16);
+          & _emptySquares & _destinationSquares, 39, 32, 16);
 
       // Add all the 1 square plies.
       long movedPawns = (pawnPos >>> 8) & _emptySquares;
-      addRelativePliesDownward(movedPawns & IBitBoard._NOT_ROW_1, 56, 8, 8);
-
-      // Now take care of the last row.
-      movedPawns &= IBitBoard._ROW_1;
-      while (movedPawns != 0L) {
-        int destinationSquare = BitUtils.getHighestBit(movedPawns);
-        int sourceSquare = destinationSquare + 8;
-
-        // Add all transformation types as plies.
-
-        boolean capture = (((1L << destinationSquare) & _attackablePieces) != 0L);
+      addRelativePliesDownward(movedPawns & IBitBoard._NOT_ROW_1 & _destinationSquares, 56, 8, 8);
 
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.QUEEN, capture,
-            QUEEN_TRANSFORMATION);
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.KNIGHT, capture,
-            KNIGHT_TRANSFORMATION);
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.ROOK, capture,
-            ROOK_TRANSFORMATION);
-        addTransformationPly(sourceSquare, destinationSquare, IPiece.BISHOP, capture,
-            BISHOP_TRANSFORMATION);
-
-        movedPawns &= ~(1L << destinationSquare);
+      // Now take care of the last row. The transformations are generated with the captures.
+      if (_generateCaptures) {
+        addTransformationPlies(movedPawns & IBitBoard._ROW_1, 8);
+        addTransformationPlies(leftAttacks & IBitBoard._ROW_1, 9);
+        addTransformationPlies(rightAttacks & IBitBoard._ROW_1, 7);
       }
     }
   }
 
+  /**
+   * Add the 4 transformation plies for each pawn, that reaches the last row.
+   *
+   * @param destinationPos
+   *          The destination squares of the pawns on the last row.
+   * @param offset
+   *          The offset from the destination square to the source square.
+   */
+  private final void addTransformationPlies(long destinationPos, int offset) {
+    while (destinationPos != 0L) {
+      int destinationSquare = BitUtils.getHighestBit(destinationPos);
+      int sourceSquare = destinationSquare + offset;
+      boolean capture = (((1L << destinationSquare) & _attackablePieces) != 0L);
+
+      addTransformationPly(sourceSquare, destinationSquare, IPiece.QUEEN, capture,
+          QUEEN_TRANSFORMATION);
+      addTransformationPly(sourceSquare, destinationSquare, IPiece.KNIGHT, capture,
+          KNIGHT_TRANSFORMATION);
+      addTransformationPly(sourceSquare, destinationSquare, IPiece.ROOK, capture,
+          ROOK_TRANSFORMATION);
+      addTransformationPly(sourceSquare, destinationSquare, IPiece.BISHOP, capture,
+          BISHOP_TRANSFORMATION);
+
+      destinationPos &= ~(1L << destinationSquare);
+    }
+  }
+
   /**
    * Compute the knight plies for each square. This is done at startup, so we can get the plies by a
    * simple array access.
@@ -484,7 +658,7 @@ public class PlyGenerator {
 
     while (knightPositions != 0) {
       int highestBit = BitUtils.getHighestBit(knightPositions);
-      long curMoves = _knightMask[highestBit] & (_emptySquares | _attackablePieces);
+      long curMoves = _knightMask[highestBit] & _destinationSquares;
       int startBitRange = highestBit - 17;
       if (startBitRange < 0) {
         startBitRange = 0;
@@ -519,107 +693,7 @@ public class PlyGenerator {
    *          The square index of the bishop pos.
    */
   private final void addPliesForBishopPos(int square) {
-
-    int orgPos = square;  // Save the original position.
-    int squareRow = square >> 3;
-    int squareLine = square & 7;
-    long bitmask;
-
-    if (squareRow > 0) {  // If we are not on row 1
-      if (squareLine < 7) {
-        // Compute plies to the lower right.
-        square -= 7;
-        bitmask = 1L << square;
-        while (square >= 0 && ((square & 7) > 0)) {
-          if ((bitmask & (_emptySquares | _attackablePieces)) != 0L) {
-            boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-            addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-            // If we attacked a piece, we cannot move further
-            if (capture) {
-              break;
-            }
-          }
-          else {
-            break;
-          }
-          square -= 7;
-          bitmask >>>= 7;
-        }
-      }
-
-      if (squareLine > 0) {
-        // Compute plies to the lower left.
-        square = orgPos - 9;
-        bitmask = 1L << square;
-        while (square >= 0 && ((square & 7) != 7)) {
-          if ((bitmask & (_emptySquares | _attackablePieces)) != 0L) {
-            boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-            addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-            // If we attacked a piece, we cannot move further
-            if (capture) {
-              break;
-            }
-          }
-          else {
-            break;
-          }
-          square -= 9;
-          bitmask >>>= 9;
-        }
-      }
-    }
-
-    if (squareRow < 7) {
-      if (squareLine > 0) {
-        // Compute plies to the upper left.
-        square = orgPos + 7;
-        bitmask = 1L << square;
-        while (square < 64 && ((square & 7) != 7)) {
-          if ((bitmask & (_emptySquares | _attackablePieces)) != 0L) {
-            boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-            addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-            // If we attacked a piece, we cannot move further
-            if (capture) {
-              break;
-            }
-          }
-          else {
-            break;
-          }
-          square += 7;
-          bitmask <<= 7;
-        }
-      }
-
-      if (squareLine < 7) {
-        // Compute plies to the upper right.
-        square = orgPos + 9;
-        bitmask = 1L << square;
-        while (square < 64 && ((square & 7) > 0)) {
-          if ((bitmask & (_emptySquares | _attackablePieces)) != 0L) {
-            boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-            addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-            // If we attacked a piece, we cannot move further
-            if (capture) {
-              break;
-            }
-          }
-          else {
-            break;
-          }
-          square += 9;
-          bitmask <<= 9;
-        }
-      }
-    }
+    addSlidingPlies(SlidingAttacks.getBishopAttacks(square, ~_emptySquares), square);
   }
 
   /**
@@ -643,94 +717,7 @@ public class PlyGenerator {
    *          The square index of the rook pos.
    */
   private final void addPliesForRookPos(int square) {
-
-    int orgPos = square;  // Save the original position.
-    long bitmask;
-
-    // Compute plies to the left.
-    bitmask = 1L << square;
-    while ((square & 7) > 0) {
-      square -= 1;
-      bitmask >>>= 1;
-      if ((bitmask & (_emptySquares | _attackablePieces)) != 0) {
-        boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-        addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-        // If we attacked a piece, we cannot move further
-        if (capture) {
-          break;
-        }
-      }
-      else {
-        break;
-      }
-    }
-
-    // Compute plies downwards.
-    square = orgPos;
-    bitmask = 1L << square;
-    // @Bugfix Korrektur aus Sourceforge Version
-    // alt: while( square > 8) {
-    while (square > 7) {
-      square -= 8;
-      bitmask >>>= 8;
-      if ((bitmask & (_emptySquares | _attackablePieces)) != 0) {
-        boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-        addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-        // If we attacked a piece, we cannot move further
-        if (capture) {
-          break;
-        }
-      }
-      else {
-        break;
-      }
-    }
-
-    // Compute plies to the right.
-    square = orgPos;
-    bitmask = 1L << square;
-    while ((square & 7) < 7) {
-      square += 1;
-      bitmask <<= 1;
-      if ((bitmask & (_emptySquares | _attackablePieces)) != 0) {
-        boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-        addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-        // If we attacked a piece, we cannot move further
-        if (capture) {
-          break;
-        }
-      }
-      else {
-        break;
-      }
-    }
-
-    // Compute plies upwards.
-    square = orgPos;
-    bitmask = 1L << square;
-    while (square < 56) {
-      square += 8;
-      bitmask <<= 8;
-      if ((bitmask & (_emptySquares | _attackablePieces)) != 0) {
-        boolean capture = ((bitmask & _attackablePieces) != 0L);
-
-        addRegularPly(orgPos, square, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
-
-        // If we attacked a piece, we cannot move further
-        if (capture) {
-          break;
-        }
-      }
-      else {
-        break;
-      }
-    }
+    addSlidingPlies(SlidingAttacks.getRookAttacks(square, ~_emptySquares), square);
   }
 
   /**
@@ -754,11 +741,28 @@ public class PlyGenerator {
    *          The square index of the queen position.
    */
   private final void addPliesForQueenPos(int square) {
+    addSlidingPlies(SlidingAttacks.getQueenAttacks(square, ~_emptySquares), square);
+  }
+
+  /**
+   * Add the plies of a sliding piece to all the attacked squares, that are empty or hold a
+   * attackable piece.
+   *
+   * @param attacks
+   *          The attacked squares of the piece.
+   * @param square
+   *          The square of the piece.
+   */
+  private final void addSlidingPlies(long attacks, int square) {
+    long destinations = attacks & _destinationSquares;
 
-    // Since a queen can move like a bishop or rook,
-    // I simply add the plies of both for this position.
-    addPliesForBishopPos(square);
-    addPliesForRookPos(square);
+    while (destinations != 0L) {
+      int destination = Long.numberOfTrailingZeros(destinations);
+      boolean capture = ((_attackablePieces & (1L << destination)) != 0L);
+
+      addRegularPly(square, destination, capture, capture ? MATERIAL_WIN : REGULAR_PLY);
+      destinations &= destinations - 1;
+    }
   }
 
   /**
@@ -770,7 +774,7 @@ public class PlyGenerator {
     int highestBit = BitUtils.getHighestBit(getBoard().getPositionOfPieces(
         _white ? (IPiece.KING << 1) + 1 : IPiece.KING << 1));
     long restrictedSquares = _kingMask[BitUtils.getHighestBit(opponentKingPosition)];
-    long curMoves = _kingMask[highestBit] & (_emptySquares | _attackablePieces)
+    long curMoves = _kingMask[highestBit] & _destinationSquares
         & ~restrictedSquares;
     // @Testdisplay nur fuer den schwarzen Koenig
     // if (_white == false) {
@@ -792,65 +796,42 @@ public class PlyGenerator {
     }
     addAbsolutePlies(curMoves, startBitRange, endBitRange, highestBit);
 
-    // Check for castling
+    // Check for castling. The board knows, if the king or the rooks have been moved.
+    int castlingRights = _generateQuiets ? getBoard().getCastlingRights() : 0;
     if (_white) {
       // If the king has not been moved and is not in check
-      if (!getGame().hasBeenMoved(new PositionImpl(4))
-          && !getAnalyzer().isInCheck(getBoard(), true)) {
+      if (((castlingRights & (IBitBoard.WHITE_LEFT_CASTLING | IBitBoard.WHITE_RIGHT_CASTLING)) != 0)
+          && (_checkers == 0L)) {
         long rookPositions = getBoard().getPositionOfPieces((IPiece.ROOK << 1) + 1);
-        if (!getGame().hasBeenMoved(new PositionImpl(0))
-            && ((rookPositions & 0x1L) == 0x1L)  // steht da �berhaupt ein Rook?
+        if (((castlingRights & IBitBoard.WHITE_LEFT_CASTLING) != 0)
+            && ((rookPositions & 0x1L) == 0x1L)  // steht da ueberhaupt ein Rook?
             && ((_emptySquares & 0xEL) == 0xEL)
-            && (!getAnalyzer().isInCheck(
-                (IBitBoard) (getBoard().getBoardAfterPly(new PlyImpl(new PositionImpl(4),
-                    new PositionImpl(3), false))), true)
-            /*
-             * && !getAnalyzer().isInCheck( (BitBoard)(getBoard().getBoardAfterPly( new PlyImpl( new
-             * PositionImpl(4), new PositionImpl(2)))), true)
-             */)) {  // The addPly method checks for this check anyway, so it can be outcommented
-                    // here...
+            && !isInCheckAfterPly(CompactPly.encode(4, 3, false, CompactPly.REGULAR, 0), true)) {
+          // The addPly method checks the destination square of the king anyway.
           addCastlingPly(4, true);
         }
-        if (!getGame().hasBeenMoved(new PositionImpl(7))
-            && ((rookPositions & 0x80L) == 0x80L)  // steht da �berhaupt ein Rook?
+        if (((castlingRights & IBitBoard.WHITE_RIGHT_CASTLING) != 0)
+            && ((rookPositions & 0x80L) == 0x80L)  // steht da ueberhaupt ein Rook?
             && ((_emptySquares & 0x60L) == 0x60L)
-            && (!getAnalyzer().isInCheck(
-                (IBitBoard) (getBoard().getBoardAfterPly(new PlyImpl(new PositionImpl(4),
-                    new PositionImpl(5), false))), true)
-            /*
-             * && !getAnalyzer().isInCheck( (BitBoard)(getBoard().getBoardAfterPly( new PlyImpl( new
-             * PositionImpl(4), new PositionImpl(6)))), true)
-             */)) {
+            && !isInCheckAfterPly(CompactPly.encode(4, 5, false, CompactPly.REGULAR, 0), true)) {
           addCastlingPly(4, false);
         }
       }
     }
     else {
-      if (!getGame().hasBeenMoved(new PositionImpl(60))
-          && !getAnalyzer().isInCheck(getBoard(), false)) {
+      if (((castlingRights & (IBitBoard.BLACK_LEFT_CASTLING | IBitBoard.BLACK_RIGHT_CASTLING)) != 0)
+          && (_checkers == 0L)) {
         long rookPositions = getBoard().getPositionOfPieces(IPiece.ROOK << 1);
-        if (!getGame().hasBeenMoved(new PositionImpl(56))
-            && ((rookPositions & (0x1L << 56)) == (0x1L << 56))  // steht da �berhaupt ein Rook?
+        if (((castlingRights & IBitBoard.BLACK_LEFT_CASTLING) != 0)
+            && ((rookPositions & (0x1L << 56)) == (0x1L << 56))  // steht da ueberhaupt ein Rook?
             && ((_emptySquares & (0xEL << 56)) == (0xEL << 56))
-            && (!getAnalyzer().isInCheck(
-                (IBitBoard) (getBoard().getBoardAfterPly(new PlyImpl(new PositionImpl(60),
-                    new PositionImpl(59), false))), false)
-            /*
-             * && !getAnalyzer().isInCheck( (BitBoard)(getBoard().getBoardAfterPly( new PlyImpl( new
-             * PositionImpl(60), new PositionImpl(58)))), false)
-             */)) {
+            && !isInCheckAfterPly(CompactPly.encode(60, 59, false, CompactPly.REGULAR, 0), false)) {
           addCastlingPly(4 + 56, true);
         }
-        if (!getGame().hasBeenMoved(new PositionImpl(63))
+        if (((castlingRights & IBitBoard.BLACK_RIGHT_CASTLING) != 0)
             && ((rookPositions & (0x1L << 63)) == (0x1L << 63))  // steht da ueberhaupt ein Rook?
             && ((_emptySquares & (0x60L << 56)) == (0x60L << 56))
-            && (!getAnalyzer().isInCheck(
-                (IBitBoard) (getBoard().getBoardAfterPly(new PlyImpl(new PositionImpl(60),
-                    new PositionImpl(61), false))), false)
-            /*
-             * && !getAnalyzer().isInCheck( (BitBoard)(getBoard().getBoardAfterPly( new PlyImpl( new
-             * PositionImpl(60), new PositionImpl(62)))), false)
-             */)) {
+            && !isInCheckAfterPly(CompactPly.encode(60, 61, false, CompactPly.REGULAR, 0), false)) {
           addCastlingPly(4 + 56, false);
         }
       }
@@ -967,40 +948,218 @@ public class PlyGenerator {
   }
 
   /**
-   * Get the last ply.
+   * Set a analyzer for check tests.
    *
-   * @return The last ply.
+   * @param analyzer
+   *          The new analyzer to set.
    */
-  final IPly getLastPly() {
-    return getGame().getLastPly();
-    // return _lastPly;
+  public final void setAnalyzer(IBitBoardAnalyzer analyzer) {
+    _analyzer = analyzer;
   }
 
   /**
-   * Set the last ply.
-   *
-   * @param lastPly
-   *          The last ply.
+   * Reset the ply buffer.
    */
-  /*
-   * final void setLastPly( Ply lastPly) { // _lastPly = lastPly; }
+  private final void resetPlies() {
+    _plyCounter = 0;
+  }
+
+  /**
+   * Compute the pinned pieces and the checking pieces for the current board and color.
    */
+  private final void computeLegalityMasks() {
+    _pinnedPieces = 0L;
+    _checkers = 0L;
+
+    long kingPosition = getBoard().getPositionOfPieces(
+        _white ? IPiece.KING << 1 | 1 : IPiece.KING << 1);
+    if (kingPosition == 0L) {  // Without a king, there is no check.
+      return;
+    }
+    int kingSquare = Long.numberOfTrailingZeros(kingPosition);
+
+    long occupiedSquares = ~_emptySquares;
+    int opponentColor = _white ? 0 : 1;
+    long queenPositions = getBoard().getPositionOfPieces(IPiece.QUEEN << 1 | opponentColor);
+    long diagonalAttackers = queenPositions
+        | getBoard().getPositionOfPieces(IPiece.BISHOP << 1 | opponentColor);
+    long straightAttackers = queenPositions
+        | getBoard().getPositionOfPieces(IPiece.ROOK << 1 | opponentColor);
+
+    // The sliding pieces, that attack the king on a empty board, pin a own piece, if it's the only
+    // piece between them and the king.
+    long snipers = (SlidingAttacks.getBishopAttacks(kingSquare, 0L) & diagonalAttackers)
+        | (SlidingAttacks.getRookAttacks(kingSquare, 0L) & straightAttackers);
+    long ownPieces = getBoard().getAllPiecesForColor(_white);
+    while (snipers != 0L) {
+      long blockers = SlidingAttacks.getSquaresBetween(kingSquare,
+          Long.numberOfTrailingZeros(snipers)) & occupiedSquares;
+      if ((blockers != 0L) && ((blockers & (blockers - 1)) == 0L)
+          && ((blockers & ownPieces) != 0L)) {
+        _pinnedPieces |= blockers;
+      }
+      snipers &= snipers - 1;
+    }
+
+    // Compute the attacks backwards from the king's position.
+    _checkers = (SlidingAttacks.getBishopAttacks(kingSquare, occupiedSquares) & diagonalAttackers)
+        | (SlidingAttacks.getRookAttacks(kingSquare, occupiedSquares) & straightAttackers)
+        | (_knightMask[kingSquare] & getBoard().getPositionOfPieces(
+            IPiece.KNIGHT << 1 | opponentColor));
+    if (_white) {
+      _checkers |= (((kingPosition & IBitBoard._NOT_LINE_H & IBitBoard._NOT_ROW_8) << 9)
+          | ((kingPosition & IBitBoard._NOT_LINE_A & IBitBoard._NOT_ROW_8) << 7))
+          & getBoard().getPositionOfPieces(IPiece.PAWN << 1);
+    }
+    else {
+      _checkers |= (((kingPosition & IBitBoard._NOT_LINE_A & IBitBoard._NOT_ROW_1) >>> 9)
+          | ((kingPosition & IBitBoard._NOT_LINE_H & IBitBoard._NOT_ROW_1) >>> 7))
+          & getBoard().getPositionOfPieces((IPiece.PAWN << 1) | 1);
+    }
+  }
 
   /**
-   * Set a analyzer for check tests.
+   * Check, if a pseudo-legal ply leaves the own king out of check. Plies of pieces, that are not
+   * pinned, are checked with the checking pieces only. Only plies of the king, pinned pieces and
+   * en passant attacks are performed on the board to check them.
    *
-   * @param analyzer
-   *          The new analyzer to set.
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param ply
+   *          The encoded ply to check.
+   * @param pinnedPieces
+   *          The pinned pieces of the moving color.
+   * @param checkers
+   *          The pieces, that give check to the king of the moving color.
+   * @return true, if the ply is legal.
    */
-  public final void setAnalyzer(IBitBoardAnalyzer analyzer) {
-    _analyzer = analyzer;
+  public final boolean isLegalPly(IBitBoard board, boolean white, int ply, long pinnedPieces,
+      long checkers) {
+    long kingPosition = board.getPositionOfPieces(white ? IPiece.KING << 1 | 1 : IPiece.KING << 1);
+
+    if ((((1L << CompactPly.getSource(ply)) & (pinnedPieces | kingPosition)) == 0L)
+        && (CompactPly.getType(ply) != CompactPly.EN_PASSANT)) {
+      if (checkers == 0L) {
+        return true;
+      }
+      if ((checkers & (checkers - 1)) != 0L) {  // Only the king can escape a double check.
+        return false;
+      }
+
+      // The ply has to capture the checking piece or block it's ray.
+      long checkMask = checkers | SlidingAttacks.getSquaresBetween(Long
+          .numberOfTrailingZeros(kingPosition), Long.numberOfTrailingZeros(checkers));
+      return ((1L << CompactPly.getDestination(ply)) & checkMask) != 0L;
+    }
+
+    setBoard(board);
+    return !isInCheckAfterPly(ply, white);
   }
 
   /**
-   * Reset the ply buffer.
+   * Check, if a encoded ply from another position (like a ply from the hashtable) is a
+   * pseudo-legal ply on a given board. Castlings and en passant attacks are never accepted, so
+   * they are only found by the generation.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param white
+   *          true, if white has the next move.
+   * @param ply
+   *          The encoded ply to check.
+   * @return true, if the generator might generate this ply as a pseudo-legal ply.
    */
-  private final void resetPlies() {
-    _plyCounter = 0;
+  public final boolean isPseudoLegalPly(IBitBoard board, boolean white, int ply) {
+    int source = CompactPly.getSource(ply);
+    int destination = CompactPly.getDestination(ply);
+    int pieceCode = board.getPieceCode(source);
+
+    if ((ply == CompactPly.NO_PLY) || (pieceCode == 0) || (((pieceCode & 1) != 0) != white)) {
+      return false;
+    }
+
+    long destinationMask = 1L << destination;
+    long emptySquares = board.getEmptySquares();
+    long attackablePieces = board.getAllPiecesForColor(!white)
+        & ~board.getPositionOfPieces(IPiece.KING << 1 | (white ? 0 : 1));
+
+    // The capture flag has to match the destination square.
+    if (((CompactPly.isCapture(ply) ? attackablePieces : emptySquares) & destinationMask) == 0L) {
+      return false;
+    }
+
+    int pieceType = pieceCode >> 1;
+    switch (CompactPly.getType(ply)) {
+      case CompactPly.REGULAR:
+        if (pieceType == IPiece.PAWN) {
+          long lastRow = white ? IBitBoard._ROW_8 : IBitBoard._ROW_1;
+          return ((destinationMask & lastRow) == 0L)
+              && isPawnPly(source, destination, white, CompactPly.isCapture(ply), emptySquares);
+        }
+        break;
+      case CompactPly.TRANSFORMATION:
+        int typeAfterTransformation = CompactPly.getTypeAfterTransformation(ply);
+        return (pieceType == IPiece.PAWN) && (typeAfterTransformation >= IPiece.BISHOP)
+            && (typeAfterTransformation <= IPiece.QUEEN)
+            && ((destinationMask & (white ? IBitBoard._ROW_8 : IBitBoard._ROW_1)) != 0L)
+            && isPawnPly(source, destination, white, CompactPly.isCapture(ply), emptySquares);
+      default:
+        return false;
+    }
+
+    long occupiedSquares = ~emptySquares;
+    switch (pieceType) {
+      case IPiece.KNIGHT:
+        return (_knightMask[source] & destinationMask) != 0L;
+      case IPiece.BISHOP:
+        return (SlidingAttacks.getBishopAttacks(source, occupiedSquares) & destinationMask) != 0L;
+      case IPiece.ROOK:
+        return (SlidingAttacks.getRookAttacks(source, occupiedSquares) & destinationMask) != 0L;
+      case IPiece.QUEEN:
+        return (SlidingAttacks.getQueenAttacks(source, occupiedSquares) & destinationMask) != 0L;
+      case IPiece.KING:
+        // The king must not move next to the other king.
+        long opponentKingPosition = board.getPositionOfPieces(
+            white ? IPiece.KING << 1 : IPiece.KING << 1 | 1);
+        return ((_kingMask[source] & destinationMask) != 0L)
+            && ((_kingMask[BitUtils.getHighestBit(opponentKingPosition)] & destinationMask) == 0L);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Check the geometry of a pawn ply.
+   *
+   * @param source
+   *          The source square.
+   * @param destination
+   *          The destination square.
+   * @param white
+   *          true, if it's a white pawn.
+   * @param capture
+   *          true, if the pawn captures a piece.
+   * @param emptySquares
+   *          The empty squares of the board.
+   * @return true, if a pawn can move from the source to the destination.
+   */
+  private final boolean isPawnPly(int source, int destination, boolean white, boolean capture,
+      long emptySquares) {
+    int distance = white ? destination - source : source - destination;
+    if (capture) {
+      // A diagonal step to a neighbour line.
+      return ((distance == 7) || (distance == 9))
+          && (Math.abs((destination & 7) - (source & 7)) == 1);
+    }
+    if (distance == 8) {
+      return true;
+    }
+
+    // A pawn on it's initial row can move 2 squares, if the skipped square is empty.
+    return (distance == 16) && ((source >> 3) == (white ? 1 : 6))
+        && ((emptySquares & (1L << ((source + destination) >> 1))) != 0L);
   }
 
   /**
@@ -1011,16 +1170,34 @@ public class PlyGenerator {
    * @param score
    *          The presort score of this ply.
    */
-  private final void addPly(IPly ply, short score) {
+  private final void addPly(int ply, short score) {
 
     // @Testdisplay
     // System.out.println(_plyCounter + " " + ply + " " + score);
     // Test if the own king is in check, before adding the ply
-    if (!getAnalyzer().isInCheck((IBitBoard) (getBoard().getBoardAfterPly(ply)), _white)) {
-      _currentPlies[_plyCounter++] = new AnalyzedPlyImpl(ply, score);
+    if (_pseudoLegal || isLegalPly(getBoard(), _white, ply, _pinnedPieces, _checkers)) {
+      _currentPlies[_plyCounter] = ply;
+      _currentScores[_plyCounter++] = score;
     }
   }
 
+  /**
+   * Test, if a king is in check after a given ply. The ply is performed on the current board in
+   * place and taken back afterwards, so no board copy is required.
+   *
+   * @param ply
+   *          The encoded ply to test.
+   * @param white
+   *          true, if the white king is tested.
+   * @return true, if the king is in check after the ply.
+   */
+  private final boolean isInCheckAfterPly(int ply, boolean white) {
+    int undoInfo = getBoard().makePly(ply);
+    boolean inCheck = getAnalyzer().isInCheck(getBoard(), white);
+    getBoard().unmakePly(ply, undoInfo);
+    return inCheck;
+  }
+
   /**
    * Add a regular ply.
    *
@@ -1034,7 +1211,12 @@ public class PlyGenerator {
    *          The presort score of this ply.
    */
   private final void addRegularPly(int source, int destination, boolean capture, short score) {
-    addPly(new PlyImpl(new PositionImpl(source), new PositionImpl(destination), capture), score);
+    if (capture) {
+      // Most valuable victim, least valuable attacker.
+      score += 4 * _exchangeValues[getBoard().getPieceCode(destination) >> 1]
+          / _exchangeValues[IPiece.PAWN] - (getBoard().getPieceCode(source) >> 1);
+    }
+    addPly(CompactPly.encode(source, destination, capture, CompactPly.REGULAR, 0), score);
   }
 
   /**
@@ -1046,7 +1228,8 @@ public class PlyGenerator {
    *          The flag that indicates if the castling goes to the left.
    */
   private final void addCastlingPly(int source, boolean goesLeft) {
-    addPly(new CastlingPlyImpl(new PositionImpl(source), goesLeft), REGULAR_PLY);
+    addPly(CompactPly.encode(source, goesLeft ? source - 2 : source + 2, false,
+        CompactPly.CASTLING, 0), REGULAR_PLY);
   }
 
   /**
@@ -1065,105 +1248,147 @@ public class PlyGenerator {
    */
   private final void addTransformationPly(int source, int destination, byte pieceType,
       boolean capture, short score) {
-    addPly(new TransformationPlyImpl(new PositionImpl(source), new PositionImpl(destination),
-        pieceType, capture), score);
+    addPly(CompactPly.encode(source, destination, capture, CompactPly.TRANSFORMATION, pieceType),
+        score);
   }
 
   /**
-   * Get the knight plies for a given knight square.
+   * Get all the pieces of both colors, that attack a square.
    *
+   * @param board
+   *          The board with the game position.
    * @param square
-   *          The square, where the knight is located.
-   * @return All the knight plies as a 64 bit bitmask.
+   *          The attacked square.
+   * @param occupiedSquares
+   *          The squares, that block the sliding pieces.
+   * @return The attacking pieces as a bitmask.
    */
-  public final long getKnightPlies(int square) {
-    return _knightMask[square];
+  public final long getAttackers(IBitBoard board, int square, long occupiedSquares) {
+    long target = 1L << square;
+    return (SlidingAttacks.getBishopAttacks(square, occupiedSquares) & getDiagonalSliders(board))
+        | (SlidingAttacks.getRookAttacks(square, occupiedSquares) & getStraightSliders(board))
+        | (_knightMask[square] & (board.getPositionOfPieces(IPiece.KNIGHT << 1) | board
+            .getPositionOfPieces(IPiece.KNIGHT << 1 | 1)))
+        | (_kingMask[square] & (board.getPositionOfPieces(IPiece.KING << 1) | board
+            .getPositionOfPieces(IPiece.KING << 1 | 1)))
+        | ((((target & IBitBoard._NOT_LINE_A & IBitBoard._NOT_ROW_1) >>> 9) | ((target
+            & IBitBoard._NOT_LINE_H & IBitBoard._NOT_ROW_1) >>> 7)) & board
+            .getPositionOfPieces(IPiece.PAWN << 1 | 1))
+        | ((((target & IBitBoard._NOT_LINE_H & IBitBoard._NOT_ROW_8) << 9) | ((target
+            & IBitBoard._NOT_LINE_A & IBitBoard._NOT_ROW_8) << 7)) & board
+            .getPositionOfPieces(IPiece.PAWN << 1));
   }
 
   /**
-   * Presort the scored plies.
+   * Compute the material, that a ply wins, if both players capture on it's destination square with
+   * their least valuable pieces, as long as this doesn't lose material (static exchange
+   * evaluation). Pinned pieces and transformations of recapturing pawns are ignored.
+   *
+   * @param board
+   *          The board with the game position.
+   * @param ply
+   *          The encoded ply.
+   * @return The material gain of the moving player (negative, if he loses material).
    */
-  private final void presortPlies() {
-    if (_plyCounter > 1) {  // Check the array size, so the sort methods don't have to do it.
-      quickersort(0, _plyCounter - 1);
+  public final int getExchangeScore(IBitBoard board, int ply) {
+    int source = CompactPly.getSource(ply);
+    int destination = CompactPly.getDestination(ply);
+    int pieceCode = board.getPieceCode(source);
+    boolean white = (pieceCode & 1) != 0;
+    long occupiedSquares = ~board.getEmptySquares() & ~(1L << source);
+
+    // The value of the piece on the destination square, that the opponent might capture next.
+    int pieceValue = _exchangeValues[pieceCode >> 1];
+    if (CompactPly.getType(ply) == CompactPly.EN_PASSANT) {
+      _exchangeGains[0] = _exchangeValues[IPiece.PAWN];
+      occupiedSquares &= ~(1L << (white ? destination - 8 : destination + 8));
     }
-  }
-
-  /**
-   * Perform a combined quick-/shakersort on a ply partition.
-   *
-   * @param l
-   *          The left bound of the array partition.
-   * @param r
-   *          The right bound of the array partition.
-   */
-  private final void quickersort(int l, int r) {
-    int i = l, j = r;
-    IAnalyzedPly x = _currentPlies[(l + r) / 2];
-    do {
-      while (_currentPlies[i].getScore() > x.getScore()) {
-        i++;
-      }
-      while (x.getScore() > _currentPlies[j].getScore()) {
-        j--;
+    else {
+      _exchangeGains[0] = CompactPly.isCapture(ply) ? _exchangeValues[board
+          .getPieceCode(destination) >> 1] : 0;
+      if (CompactPly.getType(ply) == CompactPly.TRANSFORMATION) {
+        pieceValue = _exchangeValues[CompactPly.getTypeAfterTransformation(ply)];
+        _exchangeGains[0] += pieceValue - _exchangeValues[IPiece.PAWN];
       }
-      if (i <= j) {
-        IAnalyzedPly w = _currentPlies[i];
-        _currentPlies[i++] = _currentPlies[j];
-        _currentPlies[j--] = w;
+    }
+
+    long diagonalSliders = getDiagonalSliders(board);
+    long straightSliders = getStraightSliders(board);
+    long attackers = getAttackers(board, destination, occupiedSquares) & occupiedSquares;
+    int depth = 0;
+    while (true) {
+      white = !white;
+      long ownAttackers = attackers & board.getAllPiecesForColor(white);
+      if (ownAttackers == 0L) {
+        break;
       }
 
-    }
-    while (i <= j);
-    if (l < j) {
-      if ((l - j) > 7) {
-        quickersort(l, j);
+      // Capture with the least valuable piece.
+      int type = 0;
+      long attacker = 0L;
+      for (int i = 0; (i < _exchangeOrder.length) && (attacker == 0L); i++) {
+        type = _exchangeOrder[i];
+        attacker = ownAttackers & board.getPositionOfPieces(type << 1 | (white ? 1 : 0));
       }
-      else {
-        shakersort(l, j);
+      if ((type == IPiece.KING) && ((attackers & board.getAllPiecesForColor(!white)) != 0L)) {
+        break; // The king can't capture a defended piece.
       }
+
+      depth++;
+      _exchangeGains[depth] = pieceValue - _exchangeGains[depth - 1];
+      pieceValue = _exchangeValues[type];
+
+      // Remove the capturing piece and add the sliding pieces behind it.
+      occupiedSquares ^= attacker & -attacker;
+      attackers |= (SlidingAttacks.getBishopAttacks(destination, occupiedSquares) & diagonalSliders)
+          | (SlidingAttacks.getRookAttacks(destination, occupiedSquares) & straightSliders);
+      attackers &= occupiedSquares;
     }
-    if (i < r) {
-      if ((r - i) > 7) {
-        quickersort(i, r);
-      }
-      else {
-        shakersort(i, r);
-      }
+
+    // Each player can stop the exchange, if the next capture would lose material.
+    while (depth > 0) {
+      _exchangeGains[depth - 1] = -Math.max(-_exchangeGains[depth - 1], _exchangeGains[depth]);
+      depth--;
     }
+    return _exchangeGains[0];
   }
 
   /**
-   * Perform a shakersort on a ply partition.
+   * Get the bishops and queens of both colors.
    *
-   * @param l
-   *          The left bound of the ply partition.
-   * @param r
-   *          The right bound of the ply partition.
-   */
-  private final void shakersort(int l, int r) {
-    int i = l + 1, j = r, k = r;
-
-    do {
-      for (int h = j; h >= i; h--) {
-        if (_currentPlies[h - 1].getScore() < _currentPlies[h].getScore()) {
-          IAnalyzedPly w = _currentPlies[h - 1];
-          _currentPlies[h - 1] = _currentPlies[h];
-          _currentPlies[h] = w;
-          k = h;
-        }
-      }
-      i = k + 1;
-      for (int h = i; h <= j; h++) {
-        if (_currentPlies[h - 1].getScore() < _currentPlies[h].getScore()) {
-          IAnalyzedPly w = _currentPlies[h - 1];
-          _currentPlies[h - 1] = _currentPlies[h];
-          _currentPlies[h] = w;
-          k = h;
-        }
-      }
-      j = k - 1;
-    }
-    while (i <= j);
+   * @param board
+   *          The board with the game position.
+   * @return The pieces as a bitmask.
+   */
+  private final long getDiagonalSliders(IBitBoard board) {
+    return board.getPositionOfPieces(IPiece.BISHOP << 1)
+        | board.getPositionOfPieces(IPiece.BISHOP << 1 | 1)
+        | board.getPositionOfPieces(IPiece.QUEEN << 1)
+        | board.getPositionOfPieces(IPiece.QUEEN << 1 | 1);
+  }
+
+  /**
+   * Get the rooks and queens of both colors.
+   *
+   * @param board
+   *          The board with the game position.
+   * @return The pieces as a bitmask.
+   */
+  private final long getStraightSliders(IBitBoard board) {
+    return board.getPositionOfPieces(IPiece.ROOK << 1)
+        | board.getPositionOfPieces(IPiece.ROOK << 1 | 1)
+        | board.getPositionOfPieces(IPiece.QUEEN << 1)
+        | board.getPositionOfPieces(IPiece.QUEEN << 1 | 1);
+  }
+
+  /**
+   * Get the knight plies for a given knight square.
+   *
+   * @param square
+   *          The square, where the knight is located.
+   * @return All the knight plies as a 64 bit bitmask.
+   */
+  public final long getKnightPlies(int square) {
+    return _knightMask[square];
   }
 }
@@ -0,0 +1,162 @@
+/*
+ * PlyHistory - A class to remember the quiet plies, that caused cutoffs. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import com.github.warpwe.javachess.ply.CompactPly;
+
+/**
+ * This class remembers, which quiet plies caused cutoffs in the search, so the ply picker can try
+ * them early in other positions. The history table holds a score for each color, source and
+ * destination square (a butterfly board), that grows with the depth of the cutoffs and shrinks for
+ * the quiet plies, that were searched before the cutoff without success. The counter plies are the
+ * last quiet plies, that refuted a ply of the opponent, indexed by the source and destination of
+ * that ply.
+ * <p>
+ * Each search thread has it's own history, so the tables are not synchronized.
+ */
+public class PlyHistory {
+
+  // Static variables
+
+  /**
+   * The maximum score of a ply in the history table. If a score reaches it, all the scores are
+   * halved, so recent cutoffs count more than old ones.
+   */
+  private static final int MAX_SCORE = 1 << 24;
+
+  // Instance variables
+
+  /**
+   * The scores of the quiet plies, indexed by color (0 for black, 1 for white), source and
+   * destination square.
+   */
+  private int[][][] _scores = new int[2][64][64];
+
+  /**
+   * The counter plies, indexed by the color of the refuting player and the source and destination
+   * square of the refuted ply.
+   */
+  private int[][][] _counterPlies = new int[2][64][64];
+
+  // Constructors
+
+  /**
+   * Create a new, empty history.
+   */
+  public PlyHistory() {
+    clear();
+  }
+
+  // Methods
+
+  /**
+   * Remove all the scores and counter plies.
+   */
+  public final void clear() {
+    for (int color = 0; color < 2; color++) {
+      for (int source = 0; source < 64; source++) {
+        for (int destination = 0; destination < 64; destination++) {
+          _scores[color][source][destination] = 0;
+          _counterPlies[color][source][destination] = CompactPly.NO_PLY;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reduce the scores of a previous search, so they still order the plies of the next search, but
+   * are soon replaced by it's own cutoffs.
+   */
+  public final void age() {
+    for (int color = 0; color < 2; color++) {
+      for (int source = 0; source < 64; source++) {
+        for (int destination = 0; destination < 64; destination++) {
+          _scores[color][source][destination] >>= 3;
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the history score of a quiet ply.
+   *
+   * @param white
+   *          true, if white moves.
+   * @param ply
+   *          The encoded ply.
+   * @return The score of the ply.
+   */
+  public final int getScore(boolean white, int ply) {
+    return _scores[white ? 1 : 0][CompactPly.getSource(ply)][CompactPly.getDestination(ply)];
+  }
+
+  /**
+   * Get the counter ply for a ply of the opponent.
+   *
+   * @param white
+   *          true, if white has to answer the ply.
+   * @param lastPly
+   *          The last ply of the opponent or CompactPly.NO_PLY.
+   * @return The counter ply or CompactPly.NO_PLY, if there is none.
+   */
+  public final int getCounterPly(boolean white, int lastPly) {
+    if (lastPly == CompactPly.NO_PLY) {
+      return CompactPly.NO_PLY;
+    }
+    return _counterPlies[white ? 1 : 0][CompactPly.getSource(lastPly)][CompactPly
+        .getDestination(lastPly)];
+  }
+
+  /**
+   * Remember a quiet ply, that caused a cutoff. The quiet plies, that were searched before it in
+   * the same position, are scored down.
+   *
+   * @param white
+   *          true, if white moved.
+   * @param lastPly
+   *          The last ply of the opponent or CompactPly.NO_PLY.
+   * @param ply
+   *          The ply, that caused the cutoff.
+   * @param depth
+   *          The remaining search depth of the position.
+   * @param searchedPlies
+   *          The quiet plies, that were searched before the cutoff.
+   * @param searchedPlyCount
+   *          The number of searched quiet plies.
+   */
+  public final void storeCutoff(boolean white, int lastPly, int ply, int depth,
+      int[] searchedPlies, int searchedPlyCount) {
+    int color = white ? 1 : 0;
+    int bonus = depth * depth;
+
+    for (int i = 0; i < searchedPlyCount; i++) {
+      int[] scores = _scores[color][CompactPly.getSource(searchedPlies[i])];
+      int destination = CompactPly.getDestination(searchedPlies[i]);
+      scores[destination] = Math.max(scores[destination] - bonus, -MAX_SCORE);
+    }
+
+    int[] scores = _scores[color][CompactPly.getSource(ply)];
+    scores[CompactPly.getDestination(ply)] += bonus;
+    if (scores[CompactPly.getDestination(ply)] >= MAX_SCORE) {
+      for (int source = 0; source < 64; source++) {
+        for (int destination = 0; destination < 64; destination++) {
+          _scores[color][source][destination] /= 2;
+        }
+      }
+    }
+
+    if (lastPly != CompactPly.NO_PLY) {
+      _counterPlies[color][CompactPly.getSource(lastPly)][CompactPly.getDestination(lastPly)] = ply;
+    }
+  }
+}
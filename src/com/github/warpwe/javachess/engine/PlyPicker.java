@@ -0,0 +1,400 @@
+/*
+ * PlyPicker - A class to return the plies of a position in stages. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.piece.IPiece;
+import com.github.warpwe.javachess.ply.CompactPly;
+
+/**
+ * This class returns the pseudo-legal plies of a position in the order, that the search should try
+ * them: the ply from the hashtable, the captures (the most valuable captured piece first and the
+ * least valuable capturing piece first for equal victims), the killer plies, the counter ply to the
+ * last ply of the opponent, the other plies (the best history score first) and finally the
+ * captures, that lose material according to the static exchange evaluation. The plies of each stage
+ * are only generated, when the previous stages didn't cause a cutoff. So often only the hashtable
+ * ply is returned, and no ply is generated at all.
+ * <p>
+ * The search uses one picker for each search level, so the arrays for the plies are only allocated
+ * once.
+ */
+public class PlyPicker {
+
+  // Static variables
+
+  /**
+   * The stages of the picker.
+   */
+  private static final int STAGE_HASHTABLE_PLY = 0;
+  private static final int STAGE_GENERATE_CAPTURES = 1;
+  private static final int STAGE_CAPTURES = 2;
+  private static final int STAGE_FIRST_KILLER = 3;
+  private static final int STAGE_SECOND_KILLER = 4;
+  private static final int STAGE_COUNTER_PLY = 5;
+  private static final int STAGE_GENERATE_QUIETS = 6;
+  private static final int STAGE_QUIETS = 7;
+  private static final int STAGE_LOSING_CAPTURES = 8;
+  private static final int STAGE_DONE = 9;
+
+  /**
+   * The values of the piece types to order the captures (indexed by IPiece type).
+   */
+  private static final int[] _pieceValues = {
+      0, 1, 3, 3, 5, 9, 0
+  };
+
+  // Instance variables
+
+  /**
+   * The generator for the plies.
+   */
+  private PlyGenerator _plyGenerator;
+
+  /**
+   * The history of the cutoffs to order the quiet plies.
+   */
+  private PlyHistory _history;
+
+  /**
+   * The board with the current position.
+   */
+  private IBitBoard _board;
+
+  /**
+   * Flag to indicate, if white has the next move.
+   */
+  private boolean _white;
+
+  /**
+   * The pinned pieces and the checking pieces of the position.
+   */
+  private long _pinnedPieces;
+  private long _checkers;
+
+  /**
+   * The plies of the current stage and their scores.
+   */
+  private int[] _plies = new int[PlyGenerator.MAX_PLIES];
+  private int[] _scores = new int[PlyGenerator.MAX_PLIES];
+
+  /**
+   * The captures, that lose material, and their exchange scores. They are returned after the quiet
+   * plies.
+   */
+  private int[] _losingCaptures = new int[PlyGenerator.MAX_PLIES];
+  private int[] _losingCaptureScores = new int[PlyGenerator.MAX_PLIES];
+
+  /**
+   * The number of losing captures and the index of the next one to return.
+   */
+  private int _losingCaptureCount;
+  private int _losingCaptureIndex;
+
+  /**
+   * The exchange score of the last returned ply, if it's a losing capture, or 0.
+   */
+  private int _exchangeScore;
+
+  /**
+   * The number of plies in the current stage.
+   */
+  private int _plyCount;
+
+  /**
+   * The index of the next ply in the current stage.
+   */
+  private int _plyIndex;
+
+  /**
+   * The current stage.
+   */
+  private int _stage;
+
+  /**
+   * The ply from the hashtable, the killer plies and the counter ply. They are set to NO_PLY, if
+   * they are not pseudo-legal in this position, so only the returned plies are skipped in the later
+   * stages.
+   */
+  private int _hashtablePly;
+  private int _firstKillerPly;
+  private int _secondKillerPly;
+  private int _counterPly;
+
+  /**
+   * Flag to indicate, if only the captures and transformations are returned.
+   */
+  private boolean _capturesOnly;
+
+  // Constructors
+
+  /**
+   * Create a new ply picker.
+   *
+   * @param plyGenerator
+   *          The generator for the plies.
+   * @param history
+   *          The history of the cutoffs to order the quiet plies.
+   */
+  public PlyPicker(PlyGenerator plyGenerator, PlyHistory history) {
+    _plyGenerator = plyGenerator;
+    _history = history;
+  }
+
+  // Methods
+
+  /**
+   * Start to pick the plies of a new position.
+   *
+   * @param board
+   *          The board with the position.
+   * @param white
+   *          true, if white has the next move.
+   * @param hashtablePly
+   *          The best ply from the hashtable or CompactPly.NO_PLY.
+   * @param firstKillerPly
+   *          The first killer ply of this search level or CompactPly.NO_PLY.
+   * @param secondKillerPly
+   *          The second killer ply of this search level or CompactPly.NO_PLY.
+   * @param counterPly
+   *          The counter ply to the last ply of the opponent or CompactPly.NO_PLY.
+   */
+  public final void init(IBitBoard board, boolean white, int hashtablePly, int firstKillerPly,
+      int secondKillerPly, int counterPly) {
+    _board = board;
+    _white = white;
+    _hashtablePly = hashtablePly;
+    _firstKillerPly = firstKillerPly;
+    _secondKillerPly = secondKillerPly;
+    _counterPly = counterPly;
+    _capturesOnly = false;
+    _stage = STAGE_HASHTABLE_PLY;
+    _losingCaptureCount = 0;
+    _losingCaptureIndex = 0;
+    _exchangeScore = 0;
+
+    _plyGenerator.computeLegalityMasks(board, white);
+    _pinnedPieces = _plyGenerator.getPinnedPieces();
+    _checkers = _plyGenerator.getCheckers();
+  }
+
+  /**
+   * Start to pick the plies of a new position for the quiescence search. Only the captures and
+   * transformations are returned, that don't lose material, so the other plies are never generated.
+   * If the king is in check, all the plies are returned instead, so every escape from the check is
+   * searched.
+   *
+   * @param board
+   *          The board with the position.
+   * @param white
+   *          true, if white has the next move.
+   */
+  public final void initQuiescence(IBitBoard board, boolean white) {
+    init(board, white, CompactPly.NO_PLY, CompactPly.NO_PLY, CompactPly.NO_PLY, CompactPly.NO_PLY);
+    if (_checkers == 0L) {
+      _capturesOnly = true;
+      _stage = STAGE_GENERATE_CAPTURES;
+    }
+  }
+
+  /**
+   * Get the next pseudo-legal ply.
+   *
+   * @return The next ply or CompactPly.NO_PLY, if there are no more plies.
+   */
+  public final int nextPly() {
+    while (true) {
+      switch (_stage) {
+        case STAGE_HASHTABLE_PLY:
+          _stage = STAGE_GENERATE_CAPTURES;
+          if ((_hashtablePly != CompactPly.NO_PLY)
+              && _plyGenerator.isPseudoLegalPly(_board, _white, _hashtablePly)) {
+            return _hashtablePly;
+          }
+          _hashtablePly = CompactPly.NO_PLY;
+          break;
+        case STAGE_GENERATE_CAPTURES:
+          _plyCount = _plyGenerator.getPseudoLegalCaptures(_board, _white, _plies, _scores);
+          scoreCaptures();
+          _plyIndex = 0;
+          _stage = STAGE_CAPTURES;
+          break;
+        case STAGE_CAPTURES:
+          while (_plyIndex < _plyCount) {
+            int ply = pickBestPly();
+            if (ply == _hashtablePly) {
+              continue;
+            }
+            int exchangeScore = isPossiblyLosingCapture(ply) ? _plyGenerator.getExchangeScore(
+                _board, ply) : 0;
+            if (exchangeScore < 0) {
+              _losingCaptures[_losingCaptureCount] = ply;
+              _losingCaptureScores[_losingCaptureCount++] = exchangeScore;
+              continue;
+            }
+            return ply;
+          }
+          _stage = _capturesOnly ? STAGE_DONE : STAGE_FIRST_KILLER;
+          break;
+        case STAGE_FIRST_KILLER:
+          _stage = STAGE_SECOND_KILLER;
+          if (isStoredQuietPly(_firstKillerPly)) {
+            return _firstKillerPly;
+          }
+          _firstKillerPly = CompactPly.NO_PLY;
+          break;
+        case STAGE_SECOND_KILLER:
+          _stage = STAGE_COUNTER_PLY;
+          if ((_secondKillerPly != _firstKillerPly) && isStoredQuietPly(_secondKillerPly)) {
+            return _secondKillerPly;
+          }
+          _secondKillerPly = CompactPly.NO_PLY;
+          break;
+        case STAGE_COUNTER_PLY:
+          _stage = STAGE_GENERATE_QUIETS;
+          if ((_counterPly != _firstKillerPly) && (_counterPly != _secondKillerPly)
+              && isStoredQuietPly(_counterPly)) {
+            return _counterPly;
+          }
+          _counterPly = CompactPly.NO_PLY;
+          break;
+        case STAGE_GENERATE_QUIETS:
+          _plyCount = _plyGenerator.getPseudoLegalQuietPlies(_board, _white, _plies, _scores);
+          for (int i = 0; i < _plyCount; i++) {
+            _scores[i] = _history.getScore(_white, _plies[i]);
+          }
+          _plyIndex = 0;
+          _stage = STAGE_QUIETS;
+          break;
+        case STAGE_QUIETS:
+          while (_plyIndex < _plyCount) {
+            int ply = pickBestPly();
+            if ((ply != _hashtablePly) && (ply != _firstKillerPly) && (ply != _secondKillerPly)
+                && (ply != _counterPly)) {
+              return ply;
+            }
+          }
+          _stage = STAGE_LOSING_CAPTURES;
+          break;
+        case STAGE_LOSING_CAPTURES:
+          if (_losingCaptureIndex < _losingCaptureCount) {
+            _exchangeScore = _losingCaptureScores[_losingCaptureIndex];
+            return _losingCaptures[_losingCaptureIndex++];
+          }
+          _exchangeScore = 0;
+          _stage = STAGE_DONE;
+          break;
+        default:
+          return CompactPly.NO_PLY;
+      }
+    }
+  }
+
+  /**
+   * Check, if a pseudo-legal ply of this picker leaves the own king out of check.
+   *
+   * @param ply
+   *          The ply to check.
+   * @return true, if the ply is legal.
+   */
+  public final boolean isLegalPly(int ply) {
+    return _plyGenerator.isLegalPly(_board, _white, ply, _pinnedPieces, _checkers);
+  }
+
+  /**
+   * Get the pieces, that give check in this position.
+   *
+   * @return The checking pieces as a bitmask.
+   */
+  public final long getCheckers() {
+    return _checkers;
+  }
+
+  /**
+   * Get the exchange score of the last returned ply.
+   *
+   * @return The material, that the ply loses according to the static exchange evaluation (as a
+   *         negative score), if it's a losing capture, or 0 for all the other plies.
+   */
+  public final int getExchangeScore() {
+    return _exchangeScore;
+  }
+
+  /**
+   * Check, if a capture might lose material, because the capturing piece is more valuable than the
+   * captured piece. Only these captures need a static exchange evaluation.
+   *
+   * @param ply
+   *          The capture.
+   * @return true, if the capture might lose material.
+   */
+  private final boolean isPossiblyLosingCapture(int ply) {
+    if (!CompactPly.isCapture(ply) || (CompactPly.getType(ply) != CompactPly.REGULAR)) {
+      return false;
+    }
+    return _pieceValues[_board.getPieceCode(CompactPly.getSource(ply)) >> 1] > _pieceValues[_board
+        .getPieceCode(CompactPly.getDestination(ply)) >> 1];
+  }
+
+  /**
+   * Check, if a killer ply or counter ply can be returned in this position.
+   *
+   * @param ply
+   *          The killer ply or counter ply.
+   * @return true, if the ply is a pseudo-legal quiet ply, that was not returned yet.
+   */
+  private final boolean isStoredQuietPly(int ply) {
+    return (ply != CompactPly.NO_PLY) && (ply != _hashtablePly) && !CompactPly.isCapture(ply)
+        && (CompactPly.getType(ply) != CompactPly.TRANSFORMATION)
+        && _plyGenerator.isPseudoLegalPly(_board, _white, ply);
+  }
+
+  /**
+   * Score the generated captures with the value of the captured piece and the value of the new
+   * piece of a transformation. Captures of equal pieces are ordered by the value of the capturing
+   * piece, so the least valuable piece captures first.
+   */
+  private final void scoreCaptures() {
+    for (int i = 0; i < _plyCount; i++) {
+      int ply = _plies[i];
+      int score = 0;
+      if (CompactPly.isCapture(ply)) {
+        score = (CompactPly.getType(ply) == CompactPly.EN_PASSANT) ? _pieceValues[IPiece.PAWN]
+            : _pieceValues[_board.getPieceCode(CompactPly.getDestination(ply)) >> 1];
+      }
+      if (CompactPly.getType(ply) == CompactPly.TRANSFORMATION) {
+        score += _pieceValues[CompactPly.getTypeAfterTransformation(ply)];
+      }
+      _scores[i] = score * 16 - (_board.getPieceCode(CompactPly.getSource(ply)) >> 1);
+    }
+  }
+
+  /**
+   * Move the ply with the best score to the current index and return it.
+   *
+   * @return The ply with the best score of the remaining plies.
+   */
+  private final int pickBestPly() {
+    int bestIndex = _plyIndex;
+    for (int i = _plyIndex + 1; i < _plyCount; i++) {
+      if (_scores[i] > _scores[bestIndex]) {
+        bestIndex = i;
+      }
+    }
+
+    int ply = _plies[bestIndex];
+    _plies[bestIndex] = _plies[_plyIndex];
+    _scores[bestIndex] = _scores[_plyIndex];
+    _plyIndex++;
+    return ply;
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * PruningBenchmark - A benchmark for the pruning and reductions of the search. Copyright (C) 2003
+ * The Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.ply.IAnalyzedPly;
+import com.github.warpwe.javachess.ply.IPly;
+
+/**
+ * This class searches a few positions to a fixed depth with the pruning techniques of the search
+ * switched on and off. For each configuration, it prints the number of analyzed boards and the used
+ * time on some opening positions (the savings of the pruning) and the number of solved tactical
+ * positions (the cost of the pruning). Usage: PruningBenchmark [depth] [tactical depth]
+ */
+public class PruningBenchmark {
+
+  // Static variables
+
+  /**
+   * The positions to count the analyzed boards.
+   */
+  private static final String[] positions = {
+      FENPosition.INITIAL_POSITION,
+      // 1. e4 e5 2. Nf3 Nc6 3. Bb5 a6
+      "r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 4",
+      // 1. d4 d5 2. c4 e6 3. Nc3 Nf6 4. Bg5 Be7
+      "rnbqk2r/ppp1bppp/4pn2/3p2B1/2PP4/2N5/PP2PPPP/R2QKBNR w KQkq - 3 5"
+  };
+
+  /**
+   * Tactical positions (from Win at Chess) and their best plies.
+   */
+  private static final String[][] tacticalPositions = {
+      {
+          "2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - - 0 1", "g3g6"
+      }, {
+          "8/7p/5k2/5p2/p1p2P2/Pr1pPK2/1P1R3P/6R1 b - - 0 1", "b3b2"
+      }, {
+          "5rk1/1ppb3p/p1pb4/6q1/3P1p1r/2P1R2P/PP1BQ1P1/5RKN w - - 0 1", "e3g3"
+      }, {
+          "r1bq2rk/pp3pbp/2p1p1pQ/7P/3P4/2PB1N2/PP3PPR/2KR4 w - - 0 1", "h6h7"
+      }, {
+          "5k2/6pp/p1qN4/1p1p4/3P4/2PKP2Q/PP3r2/3R4 b - - 0 1", "c6c4"
+      }, {
+          "7k/p7/1R5K/6r1/6p1/6P1/8/8 w - - 0 1", "b6b7"
+      }, {
+          "rnbqkb1r/pppp1ppp/8/4P3/6n1/7P/PPPNPPP1/R1BQKBNR b KQkq - 0 1", "g4e3"
+      }, {
+          "r4q1k/p2bR1rp/2p2Q1N/5p2/5p2/2P5/PP3PPP/R5K1 w - - 0 1", "e7f7"
+      }, {
+          "3q1rk1/p4pp1/2pb3p/3p4/6Pr/1PNQ4/P1PB1PP1/4RRK1 b - - 0 1", "d6h2"
+      }, {
+          "2br2k1/2q3rn/p2NppQ1/2p1P3/Pp5R/4P3/1P3PPP/3R2K1 w - - 0 1", "h4h7"
+      }
+  };
+
+  /**
+   * The names of the configurations and the switches of null move pruning, late move reductions,
+   * futility pruning, razoring, late move pruning and the pruning of losing captures.
+   */
+  private static final String[] configurationNames = {
+      "all", "no null move", "no reductions", "no futility", "no razoring", "no move count",
+      "no losing captures", "none"
+  };
+
+  private static final boolean[][] configurations = {
+      {
+          true, true, true, true, true, true
+      }, {
+          false, true, true, true, true, true
+      }, {
+          true, false, true, true, true, true
+      }, {
+          true, true, false, true, true, true
+      }, {
+          true, true, true, false, true, true
+      }, {
+          true, true, true, true, false, true
+      }, {
+          true, true, true, true, true, false
+      }, {
+          false, false, false, false, false, false
+      }
+  };
+
+  // Methods
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args
+   *          The search depth of the opening positions and the search depth of the tactical
+   *          positions.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+    int tacticalDepth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+    // Warm up the virtual machine, so the times of the first configuration are comparable.
+    for (int p = 0; p < positions.length; p++) {
+      search(createEngine(positions[p], configurations[0]), depth - 1);
+    }
+
+    for (int c = 0; c < configurations.length; c++) {
+      long boards = 0L;
+      long startTime = System.currentTimeMillis();
+      for (int p = 0; p < positions.length; p++) {
+        ChessEngineImpl engine = createEngine(positions[p], configurations[c]);
+        search(engine, depth);
+        boards += engine.getAnalyzedBoards();
+      }
+      long usedTime = System.currentTimeMillis() - startTime;
+
+      long tacticalBoards = 0L;
+      int solved = 0;
+      for (int p = 0; p < tacticalPositions.length; p++) {
+        ChessEngineImpl engine = createEngine(tacticalPositions[p][0], configurations[c]);
+        IPly ply = search(engine, tacticalDepth).getPly();
+        tacticalBoards += engine.getAnalyzedBoards();
+        if ((ply.getSource().toSquareName() + ply.getDestination().toSquareName())
+            .equals(tacticalPositions[p][1])) {
+          solved++;
+        }
+      }
+
+      System.out.println("Configuration: " + configurationNames[c] + " boards: " + boards
+          + " time: " + usedTime + " ms solved: " + solved + "/" + tacticalPositions.length
+          + " tactical boards: " + tacticalBoards);
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Create a engine for a position.
+   *
+   * @param fen
+   *          The position in Forsyth-Edwards notation.
+   * @param configuration
+   *          The switches of the pruning techniques.
+   * @return The new engine.
+   */
+  private static ChessEngineImpl createEngine(String fen, boolean[] configuration) {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, fen);
+
+    ChessEngineImpl engine = new ChessEngineImpl(new GameImpl(), null, board, white);
+    engine.setNullMovePruning(configuration[0]);
+    engine.setLateMoveReductions(configuration[1]);
+    engine.setFutilityPruning(configuration[2]);
+    engine.setRazoring(configuration[3]);
+    engine.setLateMovePruning(configuration[4]);
+    engine.setLosingCapturePruning(configuration[5]);
+    engine.setAnalyzedBoards(0);
+    return engine;
+  }
+
+  /**
+   * Search the position of a engine with iterative deepening to a fixed depth.
+   *
+   * @param engine
+   *          The engine.
+   * @param depth
+   *          The search depth.
+   * @return The best ply of the last iteration.
+   */
+  private static IAnalyzedPly search(ChessEngineImpl engine, int depth)
+      throws InterruptedException {
+    IAnalyzedPly result = null;
+    for (int d = 1; d <= depth; d++) {
+      engine.setSearchDepth(d);
+      result = engine.startMinimaxAlphaBeta(engine.isWhite());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * SearchBenchmark - A benchmark for the parallel search of the engine. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.ply.IPly;
+import com.github.warpwe.javachess.ply.PlyImpl;
+import com.github.warpwe.javachess.position.PositionImpl;
+
+/**
+ * This class searches a few positions with a increasing number of threads and prints the reached
+ * search depth, the number of analyzed boards and the boards per second for each thread count.
+ * Usage: SearchBenchmark [search time in seconds] [thread count]...
+ */
+public class SearchBenchmark {
+
+  // Static variables
+
+  /**
+   * The plies (as source and destination square) to reach the benchmark positions from the initial
+   * position. Each row is a position.
+   */
+  private static final int[][] positions = {
+      {},
+      { // 1. e4 e5 2. Nf3 Nc6 3. Bb5 a6
+      12, 28, 52, 36, 6, 21, 57, 42, 5, 33, 48, 40
+      },
+      { // 1. d4 d5 2. c4 e6 3. Nc3 Nf6 4. Bg5 Be7
+      11, 27, 51, 35, 10, 26, 52, 44, 1, 18, 62, 45, 2, 38, 61, 52
+      }
+  };
+
+  // Methods
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args
+   *          The search time per position in seconds, followed by the thread counts to test.
+   */
+  public static void main(String[] args) {
+    int searchTime = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    int[] threadCounts;
+    if (args.length > 1) {
+      threadCounts = new int[args.length - 1];
+      for (int i = 1; i < args.length; i++) {
+        threadCounts[i - 1] = Integer.parseInt(args[i]);
+      }
+    }
+    else {
+      threadCounts = new int[] {
+          1, 2, 4, Runtime.getRuntime().availableProcessors()
+      };
+    }
+
+    for (int tc = 0; tc < threadCounts.length; tc++) {
+      long totalBoards = 0L;
+      long totalTime = 0L;
+      int totalDepth = 0;
+
+      for (int p = 0; p < positions.length; p++) {
+        IGame game = new GameImpl();
+        IBitBoard board = new BitBoardImpl();
+        board.initialPosition();
+        for (int i = 0; i < positions[p].length; i += 2) {
+          IPly ply = new PlyImpl(new PositionImpl(positions[p][i]), new PositionImpl(
+              positions[p][i + 1]), board.getPiece(new PositionImpl(positions[p][i + 1])) != null);
+          game.doPly(ply);
+          board.doPly(ply);
+        }
+
+        ChessEngineImpl engine = new ChessEngineImpl(game, null, board, true);
+        engine.setThreadCount(threadCounts[tc]);
+        engine.setMaximumSearchTime(searchTime * 1000);
+
+        long startTime = System.currentTimeMillis();
+        IPly bestPly = engine.computeBestPly();
+        long usedTime = System.currentTimeMillis() - startTime;
+
+        totalBoards += engine.getAnalyzedBoards();
+        totalTime += usedTime;
+        totalDepth += engine.getSearchDepth();
+
+        System.out.println("Threads: " + threadCounts[tc] + " position: " + p + " best ply: "
+            + bestPly + " depth: " + engine.getSearchDepth() + " boards: "
+            + engine.getAnalyzedBoards());
+      }
+
+      System.out.println("Threads: " + threadCounts[tc] + " total depth: " + totalDepth
+          + " boards: " + totalBoards + " boards/s: "
+          + (totalTime > 0 ? totalBoards * 1000L / totalTime : 0L));
+    }
+    System.exit(0);
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * SearchLimits - A class to define, when a search ends. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details. You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc., 59 Temple Place - Suite
+ * 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+/**
+ * This class defines, when a search ends. A search can be limited by the search depth, the number
+ * of analyzed boards and the search time. If several limits are set, the search ends at the first
+ * one, that is reached. A infinite search has no time limit and only ends, when it's stopped.
+ * Without any limit, the search time of the engine is used, or the time of the engine's clock,
+ * if it's given.
+ * <p>
+ * The depth and node limits don't depend on the speed of the computer, so a search with 1 thread
+ * and one of these limits always returns the same ply after the same number of analyzed boards.
+ */
+public class SearchLimits {
+
+  // Instance variables
+
+  /**
+   * The maximum search depth or 0, if the depth is not limited.
+   */
+  private int _depth;
+
+  /**
+   * The maximum number of nodes or 0, if the number is not limited.
+   */
+  private long _nodes;
+
+  /**
+   * The fixed search time in milliseconds or 0, if the engine manages the time itself.
+   */
+  private int _moveTime;
+
+  /**
+   * Flag to indicate, if the search has no time limit.
+   */
+  private boolean _infinite;
+
+  /**
+   * Flag to indicate, if the engine searches, while the opponent thinks about his ply.
+   */
+  private volatile boolean _ponder;
+
+  /**
+   * The remaining time of the engine's clock in milliseconds or 0, if there is no clock.
+   */
+  private long _remainingTime;
+
+  /**
+   * The time in milliseconds, that is added to the engine's clock after each ply.
+   */
+  private long _increment;
+
+  /**
+   * The number of plies of the engine until the next time control or 0, if it's unknown.
+   */
+  private int _movesToGo;
+
+  // Constructors
+
+  /**
+   * Create new search limits, that use the search time of the engine.
+   */
+  public SearchLimits() {
+  }
+
+  // Methods
+
+  /**
+   * Get the maximum search depth.
+   *
+   * @return The maximum search depth or 0, if the depth is not limited.
+   */
+  public final int getDepth() {
+    return _depth;
+  }
+
+  /**
+   * Set the maximum search depth.
+   *
+   * @param depth
+   *          The maximum search depth or 0, if the depth is not limited.
+   */
+  public final void setDepth(int depth) {
+    _depth = depth;
+  }
+
+  /**
+   * Get the maximum number of nodes.
+   *
+   * @return The maximum number of nodes or 0, if the number is not limited.
+   */
+  public final long getNodes() {
+    return _nodes;
+  }
+
+  /**
+   * Set the maximum number of nodes of all search threads, as counted by the total nodes of the
+   * search statistics. The search checks the limit every few nodes, so it might search a few more
+   * nodes.
+   *
+   * @param nodes
+   *          The maximum number of nodes or 0, if the number is not limited.
+   */
+  public final void setNodes(long nodes) {
+    _nodes = nodes;
+  }
+
+  /**
+   * Get the fixed search time.
+   *
+   * @return The search time in milliseconds or 0, if the engine manages the time itself.
+   */
+  public final int getMoveTime() {
+    return _moveTime;
+  }
+
+  /**
+   * Set a fixed search time.
+   *
+   * @param moveTime
+   *          The search time in milliseconds or 0, if the engine manages the time itself.
+   */
+  public final void setMoveTime(int moveTime) {
+    _moveTime = moveTime;
+  }
+
+  /**
+   * Check, if the search has no time limit.
+   *
+   * @return true, if the search only ends, when it's stopped or another limit is reached.
+   */
+  public final boolean isInfinite() {
+    return _infinite;
+  }
+
+  /**
+   * Set the flag for a search without time limit.
+   *
+   * @param infinite
+   *          true, if the search only ends, when it's stopped or another limit is reached.
+   */
+  public final void setInfinite(boolean infinite) {
+    _infinite = infinite;
+  }
+
+  /**
+   * Check, if the engine searches, while the opponent thinks about his ply. A ponder search has no
+   * time limit, until the opponent plays the expected ply.
+   *
+   * @return true, if this is a ponder search.
+   */
+  public final boolean isPonder() {
+    return _ponder;
+  }
+
+  /**
+   * Set the flag for a ponder search.
+   *
+   * @param ponder
+   *          true, if the engine searches, while the opponent thinks about his ply.
+   */
+  public final void setPonder(boolean ponder) {
+    _ponder = ponder;
+  }
+
+  /**
+   * Get the remaining time of the engine's clock.
+   *
+   * @return The remaining time in milliseconds or 0, if there is no clock.
+   */
+  public final long getRemainingTime() {
+    return _remainingTime;
+  }
+
+  /**
+   * Set the remaining time of the engine's clock. The engine computes it's search time from it.
+   *
+   * @param remainingTime
+   *          The remaining time in milliseconds or 0, if there is no clock.
+   */
+  public final void setRemainingTime(long remainingTime) {
+    _remainingTime = remainingTime;
+  }
+
+  /**
+   * Get the increment of the engine's clock.
+   *
+   * @return The time in milliseconds, that is added to the clock after each ply.
+   */
+  public final long getIncrement() {
+    return _increment;
+  }
+
+  /**
+   * Set the increment of the engine's clock.
+   *
+   * @param increment
+   *          The time in milliseconds, that is added to the clock after each ply.
+   */
+  public final void setIncrement(long increment) {
+    _increment = increment;
+  }
+
+  /**
+   * Get the number of plies until the next time control.
+   *
+   * @return The number of plies of the engine or 0, if it's unknown.
+   */
+  public final int getMovesToGo() {
+    return _movesToGo;
+  }
+
+  /**
+   * Set the number of plies until the next time control.
+   *
+   * @param movesToGo
+   *          The number of plies of the engine or 0, if it's unknown.
+   */
+  public final void setMovesToGo(int movesToGo) {
+    _movesToGo = movesToGo;
+  }
+
+  /**
+   * Check, if the search time is managed by the engine, since no time limit is set. The engine uses
+   * the remaining time of the clock, if it's given.
+   *
+   * @return true, if the engine uses it's own search time.
+   */
+  public final boolean isEngineTime() {
+    return !_infinite && (_moveTime == 0) && (_depth == 0) && (_nodes == 0L);
+  }
+}
@@ -0,0 +1,401 @@
+/*
+ * SearchStatistics - A class to count the work of a search. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details. You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc., 59 Temple Place - Suite
+ * 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class counts the work of a search: the nodes of the main search and of the quiescence
+ * search, the hashtable probes, the cutoffs and the selective depth. The main engine also records
+ * the time and the nodes of each completed iteration.
+ * <p>
+ * Every search thread counts in it's own instance without any synchronization. The engine adds
+ * the counters of all threads into a new instance, when it publishes the statistics, so a snapshot
+ * of a running parallel search might be a few nodes behind.
+ */
+public class SearchStatistics {
+
+  // Static variables
+
+  /**
+   * The maximum number of iterations, that are recorded.
+   */
+  private static final int MAX_ITERATIONS = 128;
+
+  // Instance variables
+
+  /**
+   * The time of the search in milliseconds.
+   */
+  private long _time;
+
+  /**
+   * The number of nodes of the main search and of the quiescence search.
+   */
+  private long _nodes;
+  private long _quiescenceNodes;
+
+  /**
+   * The number of hashtable probes, the probes, that found a entry, and the probes, that ended
+   * the search of the node.
+   */
+  private long _hashProbes;
+  private long _hashHits;
+  private long _hashCutoffs;
+
+  /**
+   * The number of beta cutoffs and the cutoffs by the first searched ply of a node.
+   */
+  private long _cutoffs;
+  private long _firstPlyCutoffs;
+
+  /**
+   * The highest search level, that was reached by the quiescence search.
+   */
+  private int _selectiveDepth;
+
+  /**
+   * The deepest completed iteration.
+   */
+  private int _completedDepth;
+
+  /**
+   * The time in milliseconds and the number of nodes of each completed iteration, indexed by the
+   * search depth.
+   */
+  private long[] _iterationTimes = new long[MAX_ITERATIONS];
+  private long[] _iterationNodes = new long[MAX_ITERATIONS];
+
+  /**
+   * The time and the total number of nodes at the end of the last completed iteration.
+   */
+  private long _lastIterationEnd;
+  private long _lastIterationNodes;
+
+  // Constructors
+
+  /**
+   * Create new statistics without any counted work.
+   */
+  public SearchStatistics() {
+  }
+
+  // Methods
+
+  /**
+   * Remove all the counted work for a new search.
+   */
+  public final void reset() {
+    _time = 0L;
+    _nodes = 0L;
+    _quiescenceNodes = 0L;
+    _hashProbes = 0L;
+    _hashHits = 0L;
+    _hashCutoffs = 0L;
+    _cutoffs = 0L;
+    _firstPlyCutoffs = 0L;
+    _selectiveDepth = 0;
+    _completedDepth = 0;
+    Arrays.fill(_iterationTimes, 0L);
+    Arrays.fill(_iterationNodes, 0L);
+    _lastIterationEnd = 0L;
+    _lastIterationNodes = 0L;
+  }
+
+  /**
+   * Add the counters of another search thread to these statistics. The iterations are only
+   * recorded by the main engine, so they are copied, if these statistics have none.
+   *
+   * @param statistics
+   *          The statistics of the other thread.
+   */
+  public final void add(SearchStatistics statistics) {
+    _nodes += statistics._nodes;
+    _quiescenceNodes += statistics._quiescenceNodes;
+    _hashProbes += statistics._hashProbes;
+    _hashHits += statistics._hashHits;
+    _hashCutoffs += statistics._hashCutoffs;
+    _cutoffs += statistics._cutoffs;
+    _firstPlyCutoffs += statistics._firstPlyCutoffs;
+    _selectiveDepth = Math.max(_selectiveDepth, statistics._selectiveDepth);
+    _time = Math.max(_time, statistics._time);
+    if (_completedDepth == 0) {
+      _completedDepth = statistics._completedDepth;
+      System.arraycopy(statistics._iterationTimes, 0, _iterationTimes, 0, MAX_ITERATIONS);
+      System.arraycopy(statistics._iterationNodes, 0, _iterationNodes, 0, MAX_ITERATIONS);
+      _lastIterationEnd = statistics._lastIterationEnd;
+      _lastIterationNodes = statistics._lastIterationNodes;
+    }
+  }
+
+  /**
+   * Count a node of the main search.
+   */
+  public final void increaseNodes() {
+    _nodes++;
+  }
+
+  /**
+   * Count a node of the quiescence search.
+   *
+   * @param searchLevel
+   *          The search level of the node.
+   */
+  public final void increaseQuiescenceNodes(int searchLevel) {
+    _quiescenceNodes++;
+    if (searchLevel > _selectiveDepth) {
+      _selectiveDepth = searchLevel;
+    }
+  }
+
+  /**
+   * Count a hashtable probe.
+   *
+   * @param hit
+   *          true, if the probe found a entry.
+   */
+  public final void increaseHashProbes(boolean hit) {
+    _hashProbes++;
+    if (hit) {
+      _hashHits++;
+    }
+  }
+
+  /**
+   * Count a node, that was ended by the score of a hashtable entry.
+   */
+  public final void increaseHashCutoffs() {
+    _hashCutoffs++;
+  }
+
+  /**
+   * Count a beta cutoff.
+   *
+   * @param firstPly
+   *          true, if the cutoff was caused by the first searched ply of the node.
+   */
+  public final void increaseCutoffs(boolean firstPly) {
+    _cutoffs++;
+    if (firstPly) {
+      _firstPlyCutoffs++;
+    }
+  }
+
+  /**
+   * Record a completed iteration.
+   *
+   * @param depth
+   *          The search depth of the iteration.
+   * @param time
+   *          The time since the start of the search in milliseconds.
+   * @param totalNodes
+   *          The total number of nodes of all threads since the start of the search.
+   */
+  public final void completeIteration(int depth, long time, long totalNodes) {
+    if ((depth > 0) && (depth < MAX_ITERATIONS)) {
+      _iterationTimes[depth] = time - _lastIterationEnd;
+      _iterationNodes[depth] = totalNodes - _lastIterationNodes;
+      _completedDepth = depth;
+    }
+    _lastIterationEnd = time;
+    _lastIterationNodes = totalNodes;
+  }
+
+  /**
+   * Get the time of the search.
+   *
+   * @return The time in milliseconds.
+   */
+  public final long getTime() {
+    return _time;
+  }
+
+  /**
+   * Set the time of the search.
+   *
+   * @param time
+   *          The time in milliseconds.
+   */
+  public final void setTime(long time) {
+    _time = time;
+  }
+
+  /**
+   * Get the number of nodes of the main search.
+   *
+   * @return The number of nodes without the quiescence search.
+   */
+  public final long getNodes() {
+    return _nodes;
+  }
+
+  /**
+   * Get the number of nodes of the quiescence search.
+   *
+   * @return The number of quiescence nodes.
+   */
+  public final long getQuiescenceNodes() {
+    return _quiescenceNodes;
+  }
+
+  /**
+   * Get the number of all nodes.
+   *
+   * @return The number of nodes of the main search and of the quiescence search.
+   */
+  public final long getTotalNodes() {
+    return _nodes + _quiescenceNodes;
+  }
+
+  /**
+   * Get the speed of the search.
+   *
+   * @return The number of nodes per second.
+   */
+  public final long getNodesPerSecond() {
+    return getTotalNodes() * 1000L / Math.max(_time, 1L);
+  }
+
+  /**
+   * Get the number of hashtable probes.
+   *
+   * @return The number of probes.
+   */
+  public final long getHashProbes() {
+    return _hashProbes;
+  }
+
+  /**
+   * Get the number of hashtable probes, that found a entry.
+   *
+   * @return The number of hits.
+   */
+  public final long getHashHits() {
+    return _hashHits;
+  }
+
+  /**
+   * Get the number of nodes, that were ended by the score of a hashtable entry.
+   *
+   * @return The number of hashtable cutoffs.
+   */
+  public final long getHashCutoffs() {
+    return _hashCutoffs;
+  }
+
+  /**
+   * Get the share of the hashtable probes, that found a entry.
+   *
+   * @return The hit rate between 0 and 1.
+   */
+  public final double getHashHitRate() {
+    return (_hashProbes == 0L) ? 0.0 : (double) _hashHits / _hashProbes;
+  }
+
+  /**
+   * Get the number of beta cutoffs.
+   *
+   * @return The number of cutoffs.
+   */
+  public final long getCutoffs() {
+    return _cutoffs;
+  }
+
+  /**
+   * Get the share of the beta cutoffs, that were caused by the first searched ply. A good ply
+   * order causes most cutoffs with the first ply.
+   *
+   * @return The first ply cutoff rate between 0 and 1.
+   */
+  public final double getFirstPlyCutoffRate() {
+    return (_cutoffs == 0L) ? 0.0 : (double) _firstPlyCutoffs / _cutoffs;
+  }
+
+  /**
+   * Get the highest search level, that was reached by the quiescence search.
+   *
+   * @return The selective depth.
+   */
+  public final int getSelectiveDepth() {
+    return _selectiveDepth;
+  }
+
+  /**
+   * Get the deepest completed iteration.
+   *
+   * @return The search depth of the last completed iteration or 0, if no iteration completed.
+   */
+  public final int getCompletedDepth() {
+    return _completedDepth;
+  }
+
+  /**
+   * Get the time of a completed iteration.
+   *
+   * @param depth
+   *          The search depth of the iteration.
+   * @return The time of the iteration in milliseconds or 0, if it was not completed.
+   */
+  public final long getIterationTime(int depth) {
+    return ((depth > 0) && (depth < MAX_ITERATIONS)) ? _iterationTimes[depth] : 0L;
+  }
+
+  /**
+   * Get the number of nodes of a completed iteration.
+   *
+   * @param depth
+   *          The search depth of the iteration.
+   * @return The number of nodes of the iteration or 0, if it was not completed.
+   */
+  public final long getIterationNodes(int depth) {
+    return ((depth > 0) && (depth < MAX_ITERATIONS)) ? _iterationNodes[depth] : 0L;
+  }
+
+  /**
+   * Get the effective branching factor, the growth of the nodes from the second last to the last
+   * completed iteration.
+   *
+   * @return The effective branching factor or 0, if less than 2 iterations were completed.
+   */
+  public final double getEffectiveBranchingFactor() {
+    long lastNodes = getIterationNodes(_completedDepth);
+    long previousNodes = getIterationNodes(_completedDepth - 1);
+    return ((lastNodes == 0L) || (previousNodes == 0L)) ? 0.0 : (double) lastNodes
+        / previousNodes;
+  }
+
+  /**
+   * Get the statistics as a text for the engine output.
+   *
+   * @return The statistics as a text.
+   */
+  public String toString() {
+    return "Nodes: " + _nodes + " + " + _quiescenceNodes + " quiescence in " + _time + " ms ("
+        + getNodesPerSecond() + " nps), selective depth " + _selectiveDepth
+        + "\nHashtable: " + _hashProbes + " probes, " + percent(getHashHitRate()) + "% hits, "
+        + _hashCutoffs + " cutoffs\nCutoffs: " + _cutoffs + ", "
+        + percent(getFirstPlyCutoffRate()) + "% by the first ply, branching factor "
+        + Math.round(getEffectiveBranchingFactor() * 100.0) / 100.0;
+  }
+
+  /**
+   * Convert a rate to a rounded percentage.
+   *
+   * @param rate
+   *          The rate between 0 and 1.
+   * @return The rounded percentage.
+   */
+  private final long percent(double rate) {
+    return Math.round(rate * 100.0);
+  }
+}
@@ -0,0 +1,354 @@
+/*
+ * SlidingAttacks - A class to compute the attacks of sliding pieces with magic bitboards.
+ * Copyright (C) 2003 The Java-Chess team <info@java-chess.de> This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of the License, or (at your option)
+ * any later version. This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE. See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+/**
+ * This class computes the attacked squares of bishops, rooks and queens with magic bitboards. For
+ * each square, the pieces on the relevant squares of the rays are multiplied with a magic number,
+ * and the upper bits of the product index a precomputed table of attacks. The tables are computed
+ * once, when the class is loaded, and are shared by all ply generators and analyzers.
+ */
+public class SlidingAttacks {
+
+  // Static variables
+
+  /**
+   * The directions of the bishop rays as line and row steps.
+   */
+  private static final int[][] _bishopDirections = {
+      {
+          1, 1
+      }, {
+          -1, 1
+      }, {
+          1, -1
+      }, {
+          -1, -1
+      }
+  };
+
+  /**
+   * The directions of the rook rays as line and row steps.
+   */
+  private static final int[][] _rookDirections = {
+      {
+          1, 0
+      }, {
+          -1, 0
+      }, {
+          0, 1
+      }, {
+          0, -1
+      }
+  };
+
+  /**
+   * The relevant squares of the bishop rays for each square (without the board edges).
+   */
+  private static final long[] _bishopMask = new long[64];
+
+  /**
+   * The relevant squares of the rook rays for each square (without the board edges).
+   */
+  private static final long[] _rookMask = new long[64];
+
+  /**
+   * The magic numbers of the bishops.
+   */
+  private static final long[] _bishopMagic = new long[64];
+
+  /**
+   * The magic numbers of the rooks.
+   */
+  private static final long[] _rookMagic = new long[64];
+
+  /**
+   * The shifts of the products for the bishops.
+   */
+  private static final int[] _bishopShift = new int[64];
+
+  /**
+   * The shifts of the products for the rooks.
+   */
+  private static final int[] _rookShift = new int[64];
+
+  /**
+   * The attacks of the bishops, indexed by square and magic index.
+   */
+  private static final long[][] _bishopAttacks = new long[64][];
+
+  /**
+   * The attacks of the rooks, indexed by square and magic index.
+   */
+  private static final long[][] _rookAttacks = new long[64][];
+
+  /**
+   * The squares between 2 squares on a common rank, line or diagonal, indexed by both squares.
+   */
+  private static final long[][] _squaresBetween = new long[64][64];
+
+  /**
+   * The seeds of the random numbers for each row. They are known to find the magic numbers
+   * quickly, so the tables are computed in a few milliseconds.
+   */
+  private static final long[] _seeds = {
+      728, 10316, 55013, 32803, 12281, 15100, 16645, 255
+  };
+
+  /**
+   * The state of the random number generator.
+   */
+  private static long _randomState;
+
+  static {
+
+    for (int square = 0; square < 64; square++) {
+      _bishopMask[square] = computeRelevantSquares(square, _bishopDirections);
+      _bishopShift[square] = 64 - Long.bitCount(_bishopMask[square]);
+      _bishopAttacks[square] = new long[1 << Long.bitCount(_bishopMask[square])];
+      _bishopMagic[square] = findMagic(square, _bishopMask[square], _bishopShift[square],
+          _bishopDirections, _bishopAttacks[square]);
+
+      _rookMask[square] = computeRelevantSquares(square, _rookDirections);
+      _rookShift[square] = 64 - Long.bitCount(_rookMask[square]);
+      _rookAttacks[square] = new long[1 << Long.bitCount(_rookMask[square])];
+      _rookMagic[square] = findMagic(square, _rookMask[square], _rookShift[square],
+          _rookDirections, _rookAttacks[square]);
+
+      computeSquaresBetween(square, _bishopDirections);
+      computeSquaresBetween(square, _rookDirections);
+    }
+  }
+
+  // Constructors
+
+  /**
+   * This class only has static methods.
+   */
+  private SlidingAttacks() {
+  }
+
+  // Methods
+
+  /**
+   * Get the squares, that a bishop attacks.
+   *
+   * @param square
+   *          The square of the bishop.
+   * @param occupiedSquares
+   *          All the squares with a piece on them.
+   * @return The attacked squares (including the squares of the first piece on each ray).
+   */
+  public static final long getBishopAttacks(int square, long occupiedSquares) {
+    return _bishopAttacks[square][(int) (((occupiedSquares & _bishopMask[square])
+        * _bishopMagic[square]) >>> _bishopShift[square])];
+  }
+
+  /**
+   * Get the squares, that a rook attacks.
+   *
+   * @param square
+   *          The square of the rook.
+   * @param occupiedSquares
+   *          All the squares with a piece on them.
+   * @return The attacked squares (including the squares of the first piece on each ray).
+   */
+  public static final long getRookAttacks(int square, long occupiedSquares) {
+    return _rookAttacks[square][(int) (((occupiedSquares & _rookMask[square])
+        * _rookMagic[square]) >>> _rookShift[square])];
+  }
+
+  /**
+   * Get the squares, that a queen attacks.
+   *
+   * @param square
+   *          The square of the queen.
+   * @param occupiedSquares
+   *          All the squares with a piece on them.
+   * @return The attacked squares (including the squares of the first piece on each ray).
+   */
+  public static final long getQueenAttacks(int square, long occupiedSquares) {
+    return getBishopAttacks(square, occupiedSquares) | getRookAttacks(square, occupiedSquares);
+  }
+
+  /**
+   * Get the squares between 2 squares, if they are on a common rank, line or diagonal.
+   *
+   * @param square1
+   *          The first square.
+   * @param square2
+   *          The second square.
+   * @return The squares between them (without the 2 squares) or 0, if they are not on a common
+   *         ray.
+   */
+  public static final long getSquaresBetween(int square1, int square2) {
+    return _squaresBetween[square1][square2];
+  }
+
+  /**
+   * Compute the squares between a square and all the squares on it's rays.
+   *
+   * @param square
+   *          The square to start from.
+   * @param directions
+   *          The directions of the rays.
+   */
+  private static final void computeSquaresBetween(int square, int[][] directions) {
+    for (int d = 0; d < directions.length; d++) {
+      long between = 0L;
+      int line = (square & 7) + directions[d][0];
+      int row = (square >> 3) + directions[d][1];
+      while (isOnBoard(line, row)) {
+        _squaresBetween[square][row * 8 + line] = between;
+        between |= 1L << (row * 8 + line);
+        line += directions[d][0];
+        row += directions[d][1];
+      }
+    }
+  }
+
+  /**
+   * Compute the squares of the rays, that can block a sliding piece. The last square of each ray is
+   * not relevant, since it is attacked anyway.
+   *
+   * @param square
+   *          The square of the piece.
+   * @param directions
+   *          The directions of the rays.
+   * @return The relevant squares.
+   */
+  private static final long computeRelevantSquares(int square, int[][] directions) {
+    long mask = 0L;
+    for (int d = 0; d < directions.length; d++) {
+      int line = (square & 7) + directions[d][0];
+      int row = (square >> 3) + directions[d][1];
+      while (isOnBoard(line + directions[d][0], row + directions[d][1])) {
+        mask |= 1L << (row * 8 + line);
+        line += directions[d][0];
+        row += directions[d][1];
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Compute the attacked squares of a sliding piece by walking the rays.
+   *
+   * @param square
+   *          The square of the piece.
+   * @param occupiedSquares
+   *          All the squares with a piece on them.
+   * @param directions
+   *          The directions of the rays.
+   * @return The attacked squares.
+   */
+  private static final long computeAttacks(int square, long occupiedSquares, int[][] directions) {
+    long attacks = 0L;
+    for (int d = 0; d < directions.length; d++) {
+      int line = (square & 7) + directions[d][0];
+      int row = (square >> 3) + directions[d][1];
+      while (isOnBoard(line, row)) {
+        long bitmask = 1L << (row * 8 + line);
+        attacks |= bitmask;
+        if ((occupiedSquares & bitmask) != 0L) {
+          break;
+        }
+        line += directions[d][0];
+        row += directions[d][1];
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Check, if a line and row are on the board.
+   *
+   * @param line
+   *          The line.
+   * @param row
+   *          The row.
+   * @return true, if the square is on the board.
+   */
+  private static final boolean isOnBoard(int line, int row) {
+    return (line >= 0) && (line < 8) && (row >= 0) && (row < 8);
+  }
+
+  /**
+   * Find a magic number for a square and fill the attack table with it.
+   *
+   * @param square
+   *          The square of the piece.
+   * @param mask
+   *          The relevant squares.
+   * @param shift
+   *          The shift of the product.
+   * @param directions
+   *          The directions of the rays.
+   * @param attacks
+   *          The attack table to fill.
+   * @return The magic number.
+   */
+  private static final long findMagic(int square, long mask, int shift, int[][] directions,
+      long[] attacks) {
+    int size = attacks.length;
+    long[] occupancies = new long[size];
+    long[] occupancyAttacks = new long[size];
+
+    // Enumerate all subsets of the mask (Carry-Rippler trick).
+    long occupancy = 0L;
+    for (int i = 0; i < size; i++) {
+      occupancies[i] = occupancy;
+      occupancyAttacks[i] = computeAttacks(square, occupancy, directions);
+      occupancy = (occupancy - mask) & mask;
+    }
+
+    // The number of the attempt, that used a table index last. So the table doesn't have to be
+    // cleared for every attempt.
+    int[] usedByAttempt = new int[size];
+    _randomState = _seeds[square >> 3];
+    for (int attempt = 1;; attempt++) {
+      // Candidates with few bits set work best.
+      long magic = nextRandom() & nextRandom() & nextRandom();
+      if (Long.bitCount((mask * magic) >>> 56) < 6) {
+        continue;
+      }
+
+      boolean collision = false;
+      for (int i = 0; (i < size) && !collision; i++) {
+        int index = (int) ((occupancies[i] * magic) >>> shift);
+        if (usedByAttempt[index] != attempt) {
+          usedByAttempt[index] = attempt;
+          attacks[index] = occupancyAttacks[i];
+        }
+        else if (attacks[index] != occupancyAttacks[i]) {
+          collision = true;
+        }
+      }
+      if (!collision) {
+        return magic;
+      }
+    }
+  }
+
+  /**
+   * Get the next number of a xorshift random number generator.
+   *
+   * @return A random number.
+   */
+  private static final long nextRandom() {
+    _randomState ^= _randomState >>> 12;
+    _randomState ^= _randomState << 25;
+    _randomState ^= _randomState >>> 27;
+    return _randomState * 2685821657736338717L;
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * TimeManager - A class to decide, how long the engine searches for a ply. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine;
+
+import com.github.warpwe.javachess.ply.CompactPly;
+
+/**
+ * This class decides, how long the engine searches for a ply. It computes 2 limits, when a search
+ * starts: the optimum time, after which no new iteration is started, and the maximum time, after
+ * which the running iteration is stopped.
+ * <p>
+ * With a fixed search time, both limits are the search time. With a average search time, the
+ * optimum time is the search time and the maximum time is 3 times the search time, but the optimum
+ * time shrinks, while the best ply of the deeper iterations stays the same, and grows, when the
+ * score of the best ply drops. If a game clock is running, the limits are reduced to a share of the
+ * remaining time. When the score drops, the maximum time is extended, too, up to this share of the
+ * remaining time (or up to twice the maximum time without a clock).
+ * <p>
+ * In both modes, the search ends after the first iteration, if there is only 1 legal ply, and as
+ * soon as a mate is found.
+ */
+public class TimeManager {
+
+  // Static variables
+
+  /**
+   * The number of moves, that are expected to follow, when the optimum time is computed from the
+   * remaining time of the game clock.
+   */
+  private static final int MOVES_TO_GO = 30;
+
+  /**
+   * The maximum time is never more than this share of the remaining time of the game clock.
+   */
+  private static final int MAXIMUM_CLOCK_SHARE = 5;
+
+  /**
+   * The maximum time with a average search time, as a multiple of the search time.
+   */
+  private static final int MAXIMUM_TIME_FACTOR = 3;
+
+  /**
+   * The factor, that extends the maximum time with a average search time, when the score drops.
+   */
+  private static final int FAIL_LOW_TIME_FACTOR = 2;
+
+  /**
+   * The minimum depth of a iteration, that counts for the stability of the best ply. The best ply
+   * of the first iterations often stays the same, but that doesn't make it more likely to be the
+   * best ply of the deeper iterations.
+   */
+  private static final int MIN_STABLE_DEPTH = 5;
+
+  /**
+   * The shortest time limit in milliseconds, so at least the first iteration can be searched.
+   */
+  private static final long MINIMUM_TIME = 10L;
+
+  // Instance variables
+
+  /**
+   * The start time of the search.
+   */
+  private long _startTime;
+
+  /**
+   * The time in milliseconds, after which no new iteration is started.
+   */
+  private long _optimumTime;
+
+  /**
+   * The time in milliseconds, after which the search is stopped.
+   */
+  private long _maximumTime;
+
+  /**
+   * The time in milliseconds, that the maximum time can be extended to, when the score drops.
+   */
+  private long _maximumTimeLimit;
+
+  /**
+   * Flag to indicate, if the search time is fixed.
+   */
+  private boolean _fixedTime;
+
+  /**
+   * The best ply of the last iteration and the number of iterations, that it stayed the best ply.
+   */
+  private int _lastBestPly;
+  private int _stableIterations;
+
+  /**
+   * Flag to indicate, if the score of the root dropped below the aspiration window in the current
+   * iteration.
+   */
+  private volatile boolean _failedLow;
+
+  // Constructors
+
+  /**
+   * Create a new time manager.
+   */
+  public TimeManager() {
+    start(0, true, 0L);
+  }
+
+  // Methods
+
+  /**
+   * Compute the time limits of a new search.
+   *
+   * @param searchTime
+   *          The search time per ply in milliseconds.
+   * @param fixedTime
+   *          true, if the search time is fixed, false if it's a average.
+   * @param remainingTime
+   *          The remaining time of the game clock in milliseconds or 0, if no clock is running.
+   */
+  public final void start(int searchTime, boolean fixedTime, long remainingTime) {
+    _startTime = System.currentTimeMillis();
+    _fixedTime = fixedTime;
+    _optimumTime = searchTime;
+    _maximumTime = fixedTime ? searchTime : (long) searchTime * MAXIMUM_TIME_FACTOR;
+
+    if (remainingTime > 0L) {
+      _maximumTime = Math.min(_maximumTime, remainingTime / MAXIMUM_CLOCK_SHARE);
+      if (!fixedTime) {
+        _optimumTime = Math.min(_optimumTime, remainingTime / MOVES_TO_GO);
+      }
+    }
+    _maximumTime = Math.max(_maximumTime, MINIMUM_TIME);
+    _optimumTime = Math.max(Math.min(_optimumTime, _maximumTime), MINIMUM_TIME);
+    if (fixedTime) {
+      _maximumTimeLimit = _maximumTime;
+    }
+    else if (remainingTime > 0L) {
+      _maximumTimeLimit = Math.max(remainingTime / MAXIMUM_CLOCK_SHARE, _maximumTime);
+    }
+    else {
+      _maximumTimeLimit = _maximumTime * FAIL_LOW_TIME_FACTOR;
+    }
+
+    _lastBestPly = CompactPly.NO_PLY;
+    _stableIterations = 0;
+    _failedLow = false;
+  }
+
+  /**
+   * Compute the time limits of a new search from the engine's clock. The optimum time is a equal
+   * share of the remaining time for the plies until the next time control plus the increment.
+   *
+   * @param remainingTime
+   *          The remaining time of the clock in milliseconds.
+   * @param increment
+   *          The time in milliseconds, that is added to the clock after each ply.
+   * @param movesToGo
+   *          The number of plies until the next time control or 0, if it's unknown.
+   */
+  public final void startWithClock(long remainingTime, long increment, int movesToGo) {
+    int moves = (movesToGo > 0) ? Math.min(movesToGo, MOVES_TO_GO) : MOVES_TO_GO;
+    long searchTime = remainingTime / moves + increment;
+    start((int) Math.min(searchTime, Integer.MAX_VALUE), false, 0L);
+
+    // The clock limits both times, but the last plies before a time control may use more of it.
+    _maximumTime = Math.max(Math.min(_maximumTime, remainingTime
+        / Math.min(MAXIMUM_CLOCK_SHARE, moves + 1)), MINIMUM_TIME);
+    _optimumTime = Math.max(Math.min(_optimumTime, _maximumTime), MINIMUM_TIME);
+    _maximumTimeLimit = Math.max(remainingTime / MAXIMUM_CLOCK_SHARE, _maximumTime);
+  }
+
+  /**
+   * Get the time until the search has to be stopped.
+   *
+   * @return The remaining time until the maximum time in milliseconds.
+   */
+  public final long getRemainingTime() {
+    return Math.max(0L, _startTime + _maximumTime - System.currentTimeMillis());
+  }
+
+  /**
+   * Get the time since the start of the search.
+   *
+   * @return The elapsed time in milliseconds.
+   */
+  public final long getElapsedTime() {
+    return System.currentTimeMillis() - _startTime;
+  }
+
+  /**
+   * Get the optimum time of the search.
+   *
+   * @return The time in milliseconds, after which no new iteration is started.
+   */
+  public final long getOptimumTime() {
+    return _optimumTime;
+  }
+
+  /**
+   * Get the maximum time of the search.
+   *
+   * @return The time in milliseconds, after which the search is stopped.
+   */
+  public final long getMaximumTime() {
+    return _maximumTime;
+  }
+
+  /**
+   * Tell the time manager, that the score of the root dropped below the aspiration window. The
+   * best ply might be refuted, so the search gets more time to find a better one. With a average
+   * search time, the maximum time is extended once per iteration.
+   */
+  public final void failLow() {
+    if (!_fixedTime && !_failedLow) {
+      _maximumTime = Math.min(_maximumTime * FAIL_LOW_TIME_FACTOR, _maximumTimeLimit);
+    }
+    _failedLow = true;
+  }
+
+  /**
+   * Decide after a completed iteration, if the search should start the next iteration.
+   *
+   * @param bestPly
+   *          The best ply of the completed iteration.
+   * @param depth
+   *          The depth of the completed iteration.
+   * @param legalPlies
+   *          The number of legal plies in the root position.
+   * @param mate
+   *          true, if the score of the best ply is a mate score.
+   * @return true, if the next iteration should be started.
+   */
+  public final boolean isNextIterationAllowed(int bestPly, int depth, int legalPlies,
+      boolean mate) {
+    if ((legalPlies <= 1) || mate) {
+      return false; // A deeper search can't change the decision.
+    }
+    if (_fixedTime) {
+      return getRemainingTime() > 0L;
+    }
+
+    if (bestPly == _lastBestPly) {
+      if (depth >= MIN_STABLE_DEPTH) {
+        _stableIterations++;
+      }
+    }
+    else {
+      _stableIterations = 0;
+      _lastBestPly = bestPly;
+    }
+
+    // A best ply, that stays the same, needs less time. A dropping score needs more time.
+    long optimumTime = _optimumTime * (10 - Math.min(_stableIterations, 5)) / 10;
+    if (_failedLow) {
+      optimumTime *= 2;
+      _failedLow = false;
+    }
+    optimumTime = Math.min(optimumTime, _maximumTime);
+
+    // The next iteration takes longer than all the previous iterations together, so it's only
+    // started, if it's likely to finish in time.
+    return getElapsedTime() < optimumTime / 2;
+  }
+}
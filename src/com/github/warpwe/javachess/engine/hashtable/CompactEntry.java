@@ -0,0 +1,144 @@
+/*
+ * CompactEntry - A class to encode hashtable entries as longs. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version. This program
+ * is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.engine.hashtable;
+
+/**
+ * This class encodes the data of a hashtable entry as a long, so the entries can be stored without
+ * creating objects. PlyHashtable.probe returns the data in this format. The bits of the data are:
+ * <ul>
+ * <li>0-17: the best ply as encoded by CompactPly</li>
+ * <li>18-33: the score</li>
+ * <li>34-41: the remaining search depth</li>
+ * <li>42-43: the bound type of the score</li>
+ * <li>44-51: the age of the entry</li>
+ * </ul>
+ * 0 is never the data of a entry, so it can be used as 'no entry'.
+ */
+public class CompactEntry {
+
+  // Static variables
+
+  /**
+   * The value for 'no entry'.
+   */
+  public static final long NO_ENTRY = 0L;
+
+  /**
+   * The maximum depth, that can be stored in a entry.
+   */
+  public static final int MAX_DEPTH = 255;
+
+  /**
+   * The position of the score in the data.
+   */
+  private static final int SCORE_SHIFT = 18;
+
+  // Constructors
+
+  /**
+   * This class only has static methods.
+   */
+  private CompactEntry() {
+  }
+
+  // Methods
+
+  /**
+   * Encode the data of a entry.
+   *
+   * @param ply
+   *          The best ply as encoded by CompactPly (or CompactPly.NO_PLY).
+   * @param score
+   *          The score.
+   * @param depth
+   *          The remaining search depth. It's limited to MAX_DEPTH.
+   * @param bound
+   *          The bound type of the score.
+   * @param age
+   *          The age of the entry.
+   * @return The encoded data.
+   */
+  public static final long encode(int ply, int score, int depth, int bound, int age) {
+    return (long) ply | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+        | ((long) Math.max(0, Math.min(depth, MAX_DEPTH)) << 34) | ((long) bound << 42)
+        | ((long) age << 44);
+  }
+
+  /**
+   * Get the encoded ply from the data of a entry.
+   *
+   * @param data
+   *          The encoded entry data.
+   * @return The ply as encoded by CompactPly.
+   */
+  public static final int getPly(long data) {
+    return (int) data & 0x3FFFF;
+  }
+
+  /**
+   * Get the score from the data of a entry.
+   *
+   * @param data
+   *          The encoded entry data.
+   * @return The score.
+   */
+  public static final int getScore(long data) {
+    return (short) (data >>> SCORE_SHIFT);
+  }
+
+  /**
+   * Replace the score in the data of a entry.
+   *
+   * @param data
+   *          The encoded entry data.
+   * @param score
+   *          The new score.
+   * @return The entry data with the new score.
+   */
+  public static final long setScore(long data, int score) {
+    return (data & ~(0xFFFFL << SCORE_SHIFT)) | ((long) (score & 0xFFFF) << SCORE_SHIFT);
+  }
+
+  /**
+   * Get the remaining search depth from the data of a entry.
+   *
+   * @param data
+   *          The encoded entry data.
+   * @return The remaining search depth.
+   */
+  public static final int getDepth(long data) {
+    return (int) (data >>> 34) & 0xFF;
+  }
+
+  /**
+   * Get the bound type from the data of a entry.
+   *
+   * @param data
+   *          The encoded entry data.
+   * @return The bound type.
+   */
+  public static final int getBound(long data) {
+    return (int) (data >>> 42) & 3;
+  }
+
+  /**
+   * Get the age from the data of a entry.
+   *
+   * @param data
+   *          The encoded entry data.
+   * @return The age of the entry.
+   */
+  public static final int getAge(long data) {
+    return (int) (data >>> 44) & 0xFF;
+  }
+}
@@ -12,14 +12,33 @@
 
 package com.github.warpwe.javachess.engine.hashtable;
 
-import com.github.warpwe.javachess.board.Board;
-import com.github.warpwe.javachess.ply.IPly;
-
 /**
  * This interface defines the functionality to control a hashtable with chess plies.
  */
 public interface PlyHashtable {
 
+  // Static variables
+
+  /**
+   * The bound type of a entry without a score.
+   */
+  int BOUND_NONE = 0;
+
+  /**
+   * The bound type of a score, that is at most the stored score (the search failed low).
+   */
+  int BOUND_UPPER = 1;
+
+  /**
+   * The bound type of a score, that is at least the stored score (the search failed high).
+   */
+  int BOUND_LOWER = 2;
+
+  /**
+   * The bound type of a exact score.
+   */
+  int BOUND_EXACT = 3;
+
   // Methods
 
   /**
@@ -27,6 +46,11 @@ public interface PlyHashtable {
    */
   void reset();
 
+  /**
+   * Start a new search. Entries from older searches are replaced first.
+   */
+  void newSearch();
+
   /**
    * Get the maximum number of entries in the hashtable.
    *
@@ -35,13 +59,28 @@ public interface PlyHashtable {
   int getMaximumSize();
 
   /**
-   * Set the maximum number of entries in the hashtable.
+   * Set the maximum number of entries in the hashtable. The hashtable is cleared.
    *
    * @param maximumEntries
    *          The new maximum number of entries.
    */
   void setMaximumSize(int maximumEntries);
 
+  /**
+   * Get the size of the hashtable in megabytes.
+   *
+   * @return The size of the hashtable in megabytes.
+   */
+  int getSizeInMegabytes();
+
+  /**
+   * Set the size of the hashtable in megabytes. The hashtable is cleared.
+   *
+   * @param megabytes
+   *          The new size in megabytes.
+   */
+  void setSizeInMegabytes(int megabytes);
+
   /**
    * Get the current number of entries.
    *
@@ -50,25 +89,54 @@ public interface PlyHashtable {
   int getSize();
 
   /**
-   * Try to push a new entry into the hashtable.
+   * Get the share of the used entries. It's estimated from the first entries of the table, so it
+   * can be read during a search.
    *
+   * @return The share of the used entries in per mille.
+   */
+  int getFill();
+
+  /**
+   * Store the result of a search in the hashtable. A checkmate is scored by it's distance from the
+   * root of the search, but stored by it's distance from the position, so the entry can be used at
+   * other search levels.
+   *
+   * @param hashKey
+   *          The hash key of the searched position.
    * @param ply
-   *          The new entry, that the hashtable might store.
+   *          The best ply as encoded by CompactPly (or CompactPly.NO_PLY).
+   * @param score
+   *          The score of the position.
+   * @param depth
+   *          The remaining search depth of the position.
+   * @param bound
+   *          The bound type of the score.
+   * @param searchLevel
+   *          The number of plies from the root of the search to the position.
    */
-  void pushEntry(PlyHashtableEntry ply);
+  void store(long hashKey, int ply, int score, int depth, int bound, int searchLevel);
 
   /**
-   * Get the stored ply for a given board and piece color.
+   * Get the stored data for a hash key. The score of a checkmate is it's distance from the
+   * position.
    *
-   * @param board
-   *          The board before the move.
-   * @param white
-   *          Flag to indicate, if we want a move with the white pieces.
+   * @param hashKey
+   *          The hash key of the position.
+   * @return The entry data as encoded by CompactEntry or CompactEntry.NO_ENTRY, if there is no
+   *         entry for this key.
    */
-  IPly getPly(Board board, boolean white);
+  long probe(long hashKey);
 
   /**
-   * Try to remove the oldest entry.
+   * Get the stored data for a hash key with the score of a checkmate converted to it's distance
+   * from the root of the search.
+   *
+   * @param hashKey
+   *          The hash key of the position.
+   * @param searchLevel
+   *          The number of plies from the root of the search to the position.
+   * @return The entry data as encoded by CompactEntry or CompactEntry.NO_ENTRY, if there is no
+   *         entry for this key.
    */
-  void removeOldestEntry();
+  long probe(long hashKey, int searchLevel);
 }
@@ -12,33 +12,55 @@
 
 package com.github.warpwe.javachess.engine.hashtable;
 
-import java.util.Hashtable;
-import java.util.LinkedList;
-
-import com.github.warpwe.javachess.board.Board;
-import com.github.warpwe.javachess.ply.IPly;
+import com.github.warpwe.javachess.engine.IBitBoardAnalyzer;
+import com.github.warpwe.javachess.jfr.HashtableEvent;
+import com.github.warpwe.javachess.ply.CompactPly;
 
 /**
- * This class implements the functionality to store chess plies in a hashtable.
+ * This class implements the functionality to store chess plies in a hashtable. The entries are
+ * packed into a long array, 2 longs per entry: the hash key xor'ed with the data and the data
+ * itself. A reader only accepts a entry, if the xor of both longs gives the key, so a entry, that
+ * was torn by a concurrent write, is just a miss and no locks are required. The entries are
+ * organized in buckets of 2. The first entry of a bucket keeps the deepest search, the second is
+ * always replaced. The data is encoded by CompactEntry. The score of a checkmate is stored by it's
+ * distance from the position of the entry.
  */
 public class PlyHashtableImpl implements PlyHashtable {
 
-  // Instance variables
+  // Static variables
+
+  /**
+   * The number of bytes per entry.
+   */
+  public static final int ENTRY_SIZE = 16;
 
   /**
-   * The maximum number of entries.
+   * The number of entries per bucket.
    */
-  private int maxSize;
+  private static final int BUCKET_SIZE = 2;
 
   /**
-   * A hashtable to store the plies.
+   * The number of entries, that are checked to estimate the fill of the hashtable.
    */
-  Hashtable<Long, PlyHashtableEntry> hashtable;
+  private static final int FILL_SAMPLE_SIZE = 1000;
 
   /**
-   * A linked list to reproduce the order of the inserted plies.
+   * The lowest score of a checkmate.
    */
-  LinkedList<Long> orderedList;
+  private static final int MIN_MATE_SCORE = IBitBoardAnalyzer.WHITE_HAS_WON
+      - IBitBoardAnalyzer.MAX_PLY;
+
+  // Instance variables
+
+  /**
+   * The packed entries.
+   */
+  private volatile long[] table;
+
+  /**
+   * The age of the current search.
+   */
+  private volatile int age;
 
   // Constructors
 
@@ -46,22 +68,41 @@ public class PlyHashtableImpl implements PlyHashtable {
    * Create a new hashtable instance with a given maximum size.
    *
    * @param maxSize
-   *          The maximum number of entries.
+   *          The maximum number of entries. It is rounded down to a power of 2.
    */
   public PlyHashtableImpl(int maxSize) {
-    hashtable = new Hashtable<Long, PlyHashtableEntry>();
-    orderedList = new LinkedList<Long>();
     setMaximumSize(maxSize);
   }
 
   // Methods
 
+  /**
+   * Get the number of entries, that fit into a given size.
+   *
+   * @param megabytes
+   *          The size in megabytes.
+   * @return The number of entries.
+   */
+  public static final int getEntriesForSize(int megabytes) {
+    return (int) Math.min((long) megabytes * 1024 * 1024 / ENTRY_SIZE, 1 << 30);
+  }
+
   /**
    * Reset the hashtables for a new game.
    */
   public void reset() {
-    hashtable.clear();    // Remove all the entries from the hashtable.
-    orderedList.clear();  // And the ordered list.
+    HashtableEvent event = new HashtableEvent();
+    event.begin();
+    table = new long[table.length];
+    age = 0;
+    event.commit(false, getMaximumSize(), (long) table.length * 8);
+  }
+
+  /**
+   * Start a new search. Entries from older searches are replaced first.
+   */
+  public final void newSearch() {
+    age = (age + 1) & 0xFF;
   }
 
   /**
@@ -70,101 +111,229 @@ public class PlyHashtableImpl implements PlyHashtable {
    * @return The maximum number of entries in the hashtable.
    */
   public final int getMaximumSize() {
-    return maxSize;
+    return table.length / 2;
   }
 
   /**
-   * Set the maximum number of entries in the hashtable.
+   * Set the maximum number of entries in the hashtable. The hashtable is cleared.
    *
    * @param maximumEntries
-   *          The new maximum number of entries.
+   *          The new maximum number of entries (rounded down to a power of 2).
    */
   public final void setMaximumSize(int maximumEntries) {
-    maxSize = maximumEntries;
-
-    // Remove the oldest entries, if the current size
-    // is bigger than the new maximum size.
-    while (getSize() > getMaximumSize()) {
-      removeOldestEntry();
+    HashtableEvent event = new HashtableEvent();
+    event.begin();
+    int entries = BUCKET_SIZE;
+    while ((entries << 1) > 0 && (entries << 1) <= maximumEntries) {
+      entries <<= 1;
     }
+    table = new long[entries * 2];
+    event.commit(true, entries, (long) entries * ENTRY_SIZE);
   }
 
   /**
-   * Get the current number of entries.
+   * Get the size of the hashtable in megabytes.
    *
-   * @return The current number of entries.
+   * @return The size of the hashtable in megabytes.
    */
-  public final int getSize() {
-    return hashtable.size();
+  public final int getSizeInMegabytes() {
+    return (int) ((long) getMaximumSize() * ENTRY_SIZE / (1024 * 1024));
   }
 
   /**
-   * Try to push a new entry into the hashtable.
+   * Set the size of the hashtable in megabytes. The hashtable is cleared.
    *
-   * @param ply
-   *          The new entry, that the hashtable might store.
+   * @param megabytes
+   *          The new size in megabytes.
    */
-  public final void pushEntry(PlyHashtableEntry ply) {
-
-    // Compute and store the key for this ply.
-    Long hashKey = new Long(ply.hashKey());
+  public final void setSizeInMegabytes(int megabytes) {
+    setMaximumSize(getEntriesForSize(megabytes));
+  }
 
-    // Check if this ply is not already in the hashtable
-    PlyHashtableEntry oldEntry = (PlyHashtableEntry) (hashtable.get(hashKey));
-    if (oldEntry != null) {  // There is a entry with the same key
+  /**
+   * Get the current number of entries. Since the entries are not counted, the table is scanned.
+   *
+   * @return The current number of entries.
+   */
+  public final int getSize() {
+    long[] entries = table;
+    int size = 0;
+    for (int i = 1; i < entries.length; i += 2) {
+      if (entries[i] != 0L) {
+        size++;
+      }
+    }
+    return size;
+  }
 
-      if (oldEntry.getSearchDepth() >= ply.getSearchDepth()) {
-        return;  // This entry shouldn't be replaced.
+  /**
+   * Get the share of the used entries. It's estimated from the first entries of the table, so it
+   * can be read during a search.
+   *
+   * @return The share of the used entries in per mille.
+   */
+  public final int getFill() {
+    long[] entries = table;
+    int samples = Math.min(FILL_SAMPLE_SIZE, entries.length / 2);
+    int used = 0;
+    for (int i = 1; i < 2 * samples; i += 2) {
+      if (entries[i] != 0L) {
+        used++;
       }
     }
-    else {  // Now we actually add a new entry to the table.
+    return used * 1000 / samples;
+  }
 
-      // Check, if the hashtable has not exceeded it's maximum capacity
-      // and remove older entries, if necessary.
-      while (getSize() >= getMaximumSize()) {
-        removeOldestEntry();
+  /**
+   * Store the result of a search in the hashtable. A checkmate is scored by it's distance from the
+   * root of the search, but stored by it's distance from the position.
+   *
+   * @param hashKey
+   *          The hash key of the searched position.
+   * @param ply
+   *          The best ply as encoded by CompactPly (or CompactPly.NO_PLY).
+   * @param score
+   *          The score of the position.
+   * @param depth
+   *          The remaining search depth of the position.
+   * @param bound
+   *          The bound type of the score.
+   * @param searchLevel
+   *          The number of plies from the root of the search to the position.
+   */
+  public final void store(long hashKey, int ply, int score, int depth, int bound,
+      int searchLevel) {
+    score = adjustMateScore(score, searchLevel);
+    long[] entries = table;
+    int index = getBucketIndex(entries, hashKey);
+
+    // Look for a entry with the same key in the bucket.
+    for (int i = index; i < index + 2 * BUCKET_SIZE; i += 2) {
+      long data = entries[i + 1];
+      if ((entries[i] ^ data) == hashKey) {
+        if ((depth < CompactEntry.getDepth(data)) && (CompactEntry.getAge(data) == age)
+            && (bound != BOUND_EXACT)) {
+          return; // The stored entry comes from a deeper search.
+        }
+        if (ply == CompactPly.NO_PLY) {
+          ply = CompactEntry.getPly(data); // Keep the ply from the older search.
+        }
+        write(entries, i, hashKey, ply, score, depth, bound);
+        return;
       }
     }
 
-    // Put the new ply into the hashtable
-    hashtable.put(hashKey, ply);
+    // Replace the first entry, if it's from a older search or not as deep as the new one.
+    // Otherwise the second entry is replaced.
+    long data = entries[index + 1];
+    if ((CompactEntry.getAge(data) != age) || (depth >= CompactEntry.getDepth(data))) {
+      write(entries, index, hashKey, ply, score, depth, bound);
+    }
+    else {
+      write(entries, index + 2, hashKey, ply, score, depth, bound);
+    }
+  }
 
-    // Append the new ply at the end of the list of plies.
-    // ATTENTION: this will only work, if there's only _one_
-    // ply for each key!
-    orderedList.add(hashKey);
+  /**
+   * Get the stored data for a hash key with the score of a checkmate converted to it's distance
+   * from the root of the search.
+   *
+   * @param hashKey
+   *          The hash key of the position.
+   * @param searchLevel
+   *          The number of plies from the root of the search to the position.
+   * @return The entry data as encoded by CompactEntry or CompactEntry.NO_ENTRY, if there is no
+   *         entry for this key.
+   */
+  public final long probe(long hashKey, int searchLevel) {
+    long data = probe(hashKey);
+    int score = CompactEntry.getScore(data);
+    int rootScore = adjustMateScore(score, -searchLevel);
+    if (rootScore == score) {
+      return data;
+    }
+    return CompactEntry.setScore(data, rootScore);
   }
 
   /**
-   * Get the stored ply for a given board and piece color.
+   * Convert the score of a checkmate between it's distance from the root of the search and it's
+   * distance from a position. Other scores are not changed.
    *
-   * @param board
-   *          The current board.
-   * @param white
-   *          true, if we want to ply with the white pieces.
+   * @param score
+   *          The score.
+   * @param searchLevel
+   *          The number of plies from the root to the position, to convert a score from the root
+   *          to the position, or the negated number to convert it back.
+   * @return The converted score.
    */
-  public final IPly getPly(Board board, boolean white) {
+  private static final int adjustMateScore(int score, int searchLevel) {
+    if (score >= MIN_MATE_SCORE) {
+      return score + searchLevel;
+    }
+    if (score <= -MIN_MATE_SCORE) {
+      return score - searchLevel;
+    }
+    return score;
+  }
 
-    // Compute the hashkey for the board and piece color and try to get a ply.
-    PlyHashtableEntry entry = (PlyHashtableEntry) (hashtable.get(new Long(PlyHashtableEntryImpl
-        .hashKey(board, white))));
+  /**
+   * Get the stored data for a hash key. The score of a checkmate is it's distance from the
+   * position.
+   *
+   * @param hashKey
+   *          The hash key of the position.
+   * @return The entry data as encoded by CompactEntry or CompactEntry.NO_ENTRY, if there is no
+   *         entry for this key.
+   */
+  public final long probe(long hashKey) {
+    long[] entries = table;
+    int index = getBucketIndex(entries, hashKey);
 
-    // Check, if the board from the entry is identical to the passed board.
-    if ((entry != null) && entry.getBoard().equals(board)) {
-      return entry.getPly();
+    for (int i = index; i < index + 2 * BUCKET_SIZE; i += 2) {
+      long data = entries[i + 1];
+      if ((data != 0L) && ((entries[i] ^ data) == hashKey)) {
+        return data;
+      }
     }
-
-    // No ply for this board found.
-    return null;
+    return 0L;
   }
 
   /**
-   * Try to remove the oldest entry. ATTENTION: this version will only work, if there's only _one_
-   * entry for each hashkey!
+   * Get the index of the first long of the bucket for a hash key.
+   *
+   * @param entries
+   *          The packed entries.
+   * @param hashKey
+   *          The hash key.
+   * @return The index of the bucket in the array.
    */
-  public final void removeOldestEntry() {
+  private static final int getBucketIndex(long[] entries, long hashKey) {
+    int buckets = entries.length / (2 * BUCKET_SIZE);
+    return ((int) hashKey & (buckets - 1)) * 2 * BUCKET_SIZE;
+  }
 
-    // Get and remove the oldest ply from the ordered list.
-    hashtable.remove(orderedList.removeFirst());
+  /**
+   * Write a entry into the table.
+   *
+   * @param entries
+   *          The packed entries.
+   * @param index
+   *          The index of the entry in the array.
+   * @param hashKey
+   *          The hash key of the entry.
+   * @param ply
+   *          The encoded ply.
+   * @param score
+   *          The score.
+   * @param depth
+   *          The remaining search depth.
+   * @param bound
+   *          The bound type.
+   */
+  private final void write(long[] entries, int index, long hashKey, int ply, int score, int depth,
+      int bound) {
+    long data = CompactEntry.encode(ply, score, depth, bound, age);
+    entries[index] = hashKey ^ data;
+    entries[index + 1] = data;
   }
 }
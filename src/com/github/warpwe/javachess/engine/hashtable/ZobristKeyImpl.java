@@ -20,21 +20,39 @@ import com.github.warpwe.javachess.position.Position;
 import com.github.warpwe.javachess.position.PositionImpl;
 
 /**
- * This class implements the computation of a Zobrist key.
+ * This class implements the computation of a Zobrist key. The boards maintain their key
+ * incrementally with the factors of this class, so computeKey is only needed to verify a key.
  */
 public class ZobristKeyImpl {
 
   // Static variables
 
   /**
-   * The only instance of this class (singleton pattern).
+   * The seed of the random numbers.
    */
-  private static ZobristKeyImpl instance = null;
+  private static final long SEED = 0x4a617661436865L;
 
   /**
-   * The random numbers for the key computation.
+   * The only instance of this class (singleton pattern). It's created eagerly, so all search
+   * threads are guaranteed to use the same random numbers.
    */
-  private long[][][] factors;
+  private static final ZobristKeyImpl instance = new ZobristKeyImpl();
+
+  /**
+   * The random numbers for the pieces, indexed by the type and color of the piece (as in
+   * IPiece.getTypeAndColor()) and the square.
+   */
+  private long[][] factors;
+
+  /**
+   * The random numbers for the 16 combinations of castling rights.
+   */
+  private long[] castlingFactors;
+
+  /**
+   * The random numbers for the en passant squares.
+   */
+  private long[] enPassantFactors;
 
   /**
    * The factor for black moves.
@@ -51,17 +69,29 @@ public class ZobristKeyImpl {
   private ZobristKeyImpl() {
 
     // Create a new multidimensional array.
-    factors = new long[2][6][64];
+    factors = new long[16][64];
+    castlingFactors = new long[16];
+    enPassantFactors = new long[64];
 
-    Random rand = new Random();
+    // A fixed seed makes the keys, and so the searches with a depth or node limit, reproducible.
+    Random rand = new Random(SEED);
 
     for (int i = 0; i < 64; i++) {
-      for (int j = 0; j < 6; j++) {
-        factors[0][j][i] = rand.nextLong();
-        factors[1][j][i] = rand.nextLong();
+      for (int j = IPiece.PAWN; j <= IPiece.KING; j++) {
+        factors[(j << 1) | IPiece.BLACK][i] = rand.nextLong();
+        factors[(j << 1) | IPiece.WHITE][i] = rand.nextLong();
       }
+      enPassantFactors[i] = rand.nextLong();
     }
 
+    // Having all castling rights is the most common case, so it doesn't change the key.
+    for (int i = 0; i < 15; i++) {
+      castlingFactors[i] = rand.nextLong();
+    }
+
+    // 0 means 'no en passant square', so it doesn't change the key.
+    enPassantFactors[0] = 0L;
+
     blackMoves = rand.nextLong();
   }
 
@@ -71,14 +101,56 @@ public class ZobristKeyImpl {
    * Get the only instance of this class.
    */
   public static final ZobristKeyImpl getInstance() {
-    if (instance == null) {
-      instance = new ZobristKeyImpl();
-    }
     return instance;
   }
 
   /**
-   * Compute a key for a board and a color.
+   * Get the factor for a piece on a square.
+   *
+   * @param pieceTypeColor
+   *          The type and color of the piece (as in IPiece.getTypeAndColor()) or 0 for a empty
+   *          square.
+   * @param square
+   *          The index of the square.
+   * @return The factor for the piece.
+   */
+  public final long getPieceFactor(int pieceTypeColor, int square) {
+    return factors[pieceTypeColor][square];
+  }
+
+  /**
+   * Get the factor for a combination of castling rights.
+   *
+   * @param castlingRights
+   *          The castling rights as a 4 bit mask.
+   * @return The factor for the castling rights.
+   */
+  public final long getCastlingFactor(int castlingRights) {
+    return castlingFactors[castlingRights];
+  }
+
+  /**
+   * Get the factor for a en passant square.
+   *
+   * @param square
+   *          The square, that a pawn skipped with it's last ply or 0.
+   * @return The factor for the en passant square.
+   */
+  public final long getEnPassantFactor(int square) {
+    return enPassantFactors[square];
+  }
+
+  /**
+   * Get the factor for black moves.
+   *
+   * @return The factor for black moves.
+   */
+  public final long getBlackMovesFactor() {
+    return blackMoves;
+  }
+
+  /**
+   * Compute a key for a board and a color from scratch.
    *
    * @param board
    *          The current board.
@@ -103,12 +175,15 @@ public class ZobristKeyImpl {
         IPiece p = board.getPiece(curPosition);
 
         if (p != null) {
-          val ^= factors[p.getColor()][p.getType() - 1][square];
+          val ^= factors[p.getTypeAndColor()][square];
         }
       }
       emptySquareMask >>>= 1;  // Shift the mask to test for the next square.
     }
 
+    val ^= castlingFactors[board.getCastlingRights()];
+    val ^= enPassantFactors[board.getEnPassantSquare()];
+
     if (!white) {
       val ^= blackMoves;
     }
@@ -49,6 +49,7 @@ public interface OpeningBook {
    *
    * @param file
    *          The File to add to the opening book.
+   * @return null, if the opening was added, or a error message otherwise.
    */
-  void addPgnOpening(File file);
+  String addPgnOpening(File file);
 }
@@ -18,11 +18,10 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
 
-import javax.swing.JOptionPane;
-
 import antlr.RecognitionException;
 import antlr.TokenStreamException;
 
+import com.github.warpwe.javachess.jfr.OpeningBookEvent;
 import com.github.warpwe.javachess.notation.IGameNotation;
 import com.github.warpwe.javachess.pgn.PGNFile;
 import com.github.warpwe.javachess.ply.AnalyzedPlyImpl;
@@ -94,6 +93,19 @@ public class OpeningBookImpl implements OpeningBook {
    * @return The next ply from the opening book, or null if there's no ply available.
    */
   public final IAnalyzedPly getOpeningBookPly() {
+    OpeningBookEvent event = new OpeningBookEvent();
+    event.begin();
+    IAnalyzedPly ply = findOpeningBookPly();
+    event.commit(openings.size(), (notation != null) ? notation.size() : 0, ply);
+    return ply;
+  }
+
+  /**
+   * Find the next ply of the current opening.
+   *
+   * @return The next ply from the opening book, or null if there's no ply available.
+   */
+  private final IAnalyzedPly findOpeningBookPly() {
 
     // If we have no opening yet, try to find one.
     if (this.currentOpening == -1) {
@@ -127,8 +139,9 @@ public class OpeningBookImpl implements OpeningBook {
    *
    * @param file
    *          The File to add to the opening book.
+   * @return null, if the opening was added, or a error message otherwise.
    */
-  public final void addPgnOpening(File file) {
+  public final String addPgnOpening(File file) {
     try {
       PGNFile pgnFile = new PGNFile(new BufferedReader(new FileReader(file)));
       IGameNotation notation = pgnFile.readGame();
@@ -136,17 +149,16 @@ public class OpeningBookImpl implements OpeningBook {
 
       // System.out.println( "DEBUG: added opening \n" + notation.toString());
 
+      return null;
     }
     catch (FileNotFoundException fe) {
-      JOptionPane.showMessageDialog(null, "File " + file.getName() + " not found!",
-          "File not found", JOptionPane.ERROR_MESSAGE);
+      return "File " + file.getName() + " not found!";
     }
     catch (RecognitionException re) {
-      JOptionPane.showMessageDialog(null, "Error while parsing file " + file.getName() + "!",
-          "Error in PGN file", JOptionPane.ERROR_MESSAGE);
+      return "Error while parsing file " + file.getName() + "!";
     }
     catch (TokenStreamException te) {
-      System.err.print("Tokenstream exception");
+      return "Tokenstream exception in file " + file.getName() + "!";
     }
   }
 
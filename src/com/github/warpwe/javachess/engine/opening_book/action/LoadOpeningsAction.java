@@ -16,6 +16,7 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 
 import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
 
 import com.github.warpwe.javachess.action.JavaChessAction;
 import com.github.warpwe.javachess.action.SaveGameAsAction;
@@ -106,7 +107,11 @@ public class LoadOpeningsAction extends JavaChessAction {
    *          The PGN file to process.
    */
   private final void processPGNfile(File file) {
-    getOpeningBook().addPgnOpening(file);
+    String error = getOpeningBook().addPgnOpening(file);
+    if (error != null) {
+      JOptionPane.showMessageDialog(null, error, "Error in opening book",
+          JOptionPane.ERROR_MESSAGE);
+    }
   }
 
   /**
@@ -15,6 +15,7 @@ package com.github.warpwe.javachess.engine.permanent_brain;
 import com.github.warpwe.javachess.board.Board;
 import com.github.warpwe.javachess.engine.ChessEngineImpl;
 import com.github.warpwe.javachess.engine.IChessEngine;
+import com.github.warpwe.javachess.jfr.PermanentBrainEvent;
 import com.github.warpwe.javachess.ply.IPly;
 
 /**
@@ -129,6 +130,15 @@ public class PermanentBrain implements Runnable {
     return null;
   }
 
+  /**
+   * Check, if the permanent brain is computing responses to the user plies.
+   *
+   * @return true, if the computation is running.
+   */
+  public final boolean isComputing() {
+    return searchThread != null;
+  }
+
   /**
    * Stop the computation of a response to the next user ply.
    */
@@ -170,6 +180,8 @@ public class PermanentBrain implements Runnable {
    * The actual search method.
    */
   public void run() {
+    PermanentBrainEvent event = new PermanentBrainEvent();
+    event.begin();
 
     // Start with search depth 1
     ((ChessEngineImpl) getEngine()).setSearchDepth(1);
@@ -207,5 +219,16 @@ public class PermanentBrain implements Runnable {
 
     // Restore the current board.
     getEngine().setBoard(currentBoard);
+
+    if (event.isEnabled()) {
+      int computed = 0;
+      for (int i = 0; i < computedPlies.length; i++) {
+        if (computedPlies[i] != null) {
+          computed++;
+        }
+      }
+      event.commit(userPlies.length, computed, ((ChessEngineImpl) getEngine()).getSearchDepth(),
+          ((ChessEngineImpl) getEngine()).getAnalyzedBoards());
+    }
   }
 }
@@ -165,6 +165,17 @@ public class GameImpl implements IGame {
     gameStatus = new UnsynchronizedArrayStack();
   }
 
+  /**
+   * Create a new game instance with the plies of a given game.
+   *
+   * @param game
+   *          The game to copy.
+   */
+  private GameImpl(GameImpl game) {
+    // The game status instances are not modified after their creation, so they can be shared.
+    gameStatus = (UnsynchronizedArrayStack) game.gameStatus.clone();
+  }
+
   // Methods
 
   /**
@@ -236,6 +247,15 @@ public class GameImpl implements IGame {
     return lastStatus == null ? false : lastStatus.hasBeenMoved(position);
   }
 
+  /**
+   * Create a copy of this game.
+   *
+   * @return A copy of this game.
+   */
+  public final Object clone() {
+    return new GameImpl(this);
+  }
+
   /**
    * Convert the game to a string.
    *
@@ -19,7 +19,7 @@ import com.github.warpwe.javachess.position.Position;
  * This interface defines the functionality to store a complete game, including access to all the
  * stages of a game.
  */
-public interface IGame {
+public interface IGame extends Cloneable {
 
   // Methods
 
@@ -61,4 +61,11 @@ public interface IGame {
    *          The position to check.
    */
   boolean hasBeenMoved(Position position);
+
+  /**
+   * Return a copy of this game, that can be modified independently (i.e. by a search thread).
+   *
+   * @return A copy of this game.
+   */
+  Object clone();
 }
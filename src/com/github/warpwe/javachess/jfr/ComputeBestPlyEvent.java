@@ -0,0 +1,119 @@
+/*
+ * ComputeBestPlyEvent - A Flight Recorder event for the computation of a ply. Copyright (C) 2003
+ * The Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jfr;
+
+import com.github.warpwe.javachess.engine.SearchStatistics;
+import com.github.warpwe.javachess.ply.IAnalyzedPly;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for the computation of the engine's next ply, from the opening book or
+ * from a search with all the search threads.
+ */
+@Name("com.github.warpwe.javachess.ComputeBestPly")
+@Label("Compute Best Ply")
+@Category({ "Java-Chess", "Engine" })
+@Description("The computation of the engine's next ply")
+@Enabled(false)
+@StackTrace(false)
+public class ComputeBestPlyEvent extends Event {
+
+  // Instance variables
+
+  /**
+   * The deepest completed iteration.
+   */
+  @Label("Depth")
+  private int depth;
+
+  /**
+   * The highest search level of the quiescence search.
+   */
+  @Label("Selective Depth")
+  private int selectiveDepth;
+
+  /**
+   * The number of nodes of all search threads.
+   */
+  @Label("Nodes")
+  private long nodes;
+
+  /**
+   * The number of nodes per second.
+   */
+  @Label("Nodes per Second")
+  private long nodesPerSecond;
+
+  /**
+   * The number of search threads.
+   */
+  @Label("Threads")
+  private int threads;
+
+  /**
+   * The score of the best ply from the view of white.
+   */
+  @Label("Score")
+  private int score;
+
+  /**
+   * The computed ply.
+   */
+  @Label("Best Ply")
+  private String bestPly;
+
+  /**
+   * Flag to indicate, if the ply is from the opening book.
+   */
+  @Label("Opening Book")
+  private boolean openingBook;
+
+  // Methods
+
+  /**
+   * End the computation and record it, if the event is enabled.
+   *
+   * @param statistics
+   *          The statistics of the search.
+   * @param threads
+   *          The number of search threads.
+   * @param bestPly
+   *          The computed ply or null, if there is no legal ply.
+   * @param openingBook
+   *          true, if the ply is from the opening book.
+   */
+  public final void commit(SearchStatistics statistics, int threads, IAnalyzedPly bestPly,
+      boolean openingBook) {
+    end();
+    if (shouldCommit()) {
+      depth = statistics.getCompletedDepth();
+      selectiveDepth = statistics.getSelectiveDepth();
+      nodes = statistics.getTotalNodes();
+      nodesPerSecond = statistics.getNodesPerSecond();
+      this.threads = threads;
+      this.openingBook = openingBook;
+      if (bestPly != null) {
+        score = bestPly.getScore();
+        this.bestPly = bestPly.getPly().toString();
+      }
+      commit();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * HashtableEvent - A Flight Recorder event for hashtable changes. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a resize or reset of the hashtable. Both allocate a new table, so
+ * they might cause a long garbage collection.
+ */
+@Name("com.github.warpwe.javachess.Hashtable")
+@Label("Hashtable Resize or Reset")
+@Category({ "Java-Chess", "Engine" })
+@Description("A resize or reset of the hashtable")
+@Enabled(false)
+@StackTrace(false)
+public class HashtableEvent extends Event {
+
+  // Instance variables
+
+  /**
+   * Flag to indicate, if the size of the hashtable changed.
+   */
+  @Label("Resize")
+  private boolean resize;
+
+  /**
+   * The maximum number of entries after the change.
+   */
+  @Label("Entries")
+  private int entries;
+
+  /**
+   * The size of the table after the change.
+   */
+  @Label("Size")
+  @DataAmount
+  private long size;
+
+  // Methods
+
+  /**
+   * End the resize or reset and record it, if the event is enabled.
+   *
+   * @param resize
+   *          true for a resize, false for a reset.
+   * @param entries
+   *          The maximum number of entries after the change.
+   * @param size
+   *          The size of the table in bytes after the change.
+   */
+  public final void commit(boolean resize, int entries, long size) {
+    end();
+    if (shouldCommit()) {
+      this.resize = resize;
+      this.entries = entries;
+      this.size = size;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * OpeningBookEvent - A Flight Recorder event for opening book lookups. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jfr;
+
+import com.github.warpwe.javachess.ply.IAnalyzedPly;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a lookup of the next ply in the opening book.
+ */
+@Name("com.github.warpwe.javachess.OpeningBookLookup")
+@Label("Opening Book Lookup")
+@Category({ "Java-Chess", "Engine" })
+@Description("A lookup of the next ply in the opening book")
+@Enabled(false)
+@StackTrace(false)
+public class OpeningBookEvent extends Event {
+
+  // Instance variables
+
+  /**
+   * The number of openings in the book.
+   */
+  @Label("Openings")
+  private int openings;
+
+  /**
+   * The number of plies of the current game.
+   */
+  @Label("Plies Made")
+  private int pliesMade;
+
+  /**
+   * The ply from the opening book or null, if none was found.
+   */
+  @Label("Ply")
+  private String ply;
+
+  /**
+   * Flag to indicate, if a ply was found.
+   */
+  @Label("Found")
+  private boolean found;
+
+  // Methods
+
+  /**
+   * End the lookup and record it, if the event is enabled.
+   *
+   * @param openings
+   *          The number of openings in the book.
+   * @param pliesMade
+   *          The number of plies of the current game.
+   * @param ply
+   *          The ply from the opening book or null, if none was found.
+   */
+  public final void commit(int openings, int pliesMade, IAnalyzedPly ply) {
+    end();
+    if (shouldCommit()) {
+      this.openings = openings;
+      this.pliesMade = pliesMade;
+      found = ply != null;
+      if (ply != null) {
+        this.ply = ply.getPly().toString();
+      }
+      commit();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * PGNLoadEvent - A Flight Recorder event for the parsing of PGN games. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for the parsing of a game in PGN format, for a loaded game or a opening
+ * of the opening book.
+ */
+@Name("com.github.warpwe.javachess.PGNLoad")
+@Label("PGN Load")
+@Category({ "Java-Chess", "PGN" })
+@Description("The parsing of a game in PGN format")
+@Enabled(false)
+@StackTrace(false)
+public class PGNLoadEvent extends Event {
+
+  // Instance variables
+
+  /**
+   * The number of plies of the game.
+   */
+  @Label("Plies")
+  private int plies;
+
+  /**
+   * Flag to indicate, if the game was parsed without errors.
+   */
+  @Label("Success")
+  private boolean success;
+
+  // Methods
+
+  /**
+   * End the parsing and record it, if the event is enabled.
+   *
+   * @param plies
+   *          The number of plies of the game.
+   * @param success
+   *          true, if the game was parsed without errors.
+   */
+  public final void commit(int plies, boolean success) {
+    end();
+    if (shouldCommit()) {
+      this.plies = plies;
+      this.success = success;
+      commit();
+    }
+  }
+}
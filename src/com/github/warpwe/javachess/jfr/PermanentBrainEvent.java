@@ -0,0 +1,85 @@
+/*
+ * PermanentBrainEvent - A Flight Recorder event for the permanent brain. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a session of the permanent brain, that computes responses to the
+ * possible user plies, while the user thinks.
+ */
+@Name("com.github.warpwe.javachess.PermanentBrain")
+@Label("Permanent Brain")
+@Category({ "Java-Chess", "Engine" })
+@Description("A computation of responses to the possible user plies")
+@Enabled(false)
+@StackTrace(false)
+public class PermanentBrainEvent extends Event {
+
+  // Instance variables
+
+  /**
+   * The number of possible user plies.
+   */
+  @Label("User Plies")
+  private int userPlies;
+
+  /**
+   * The number of user plies with a computed response.
+   */
+  @Label("Computed Plies")
+  private int computedPlies;
+
+  /**
+   * The search depth of the last started run.
+   */
+  @Label("Depth")
+  private int depth;
+
+  /**
+   * The number of analyzed boards of the session.
+   */
+  @Label("Analyzed Boards")
+  private long analyzedBoards;
+
+  // Methods
+
+  /**
+   * End the session and record it, if the event is enabled.
+   *
+   * @param userPlies
+   *          The number of possible user plies.
+   * @param computedPlies
+   *          The number of user plies with a computed response.
+   * @param depth
+   *          The search depth of the last started run.
+   * @param analyzedBoards
+   *          The number of analyzed boards of the session.
+   */
+  public final void commit(int userPlies, int computedPlies, int depth, long analyzedBoards) {
+    end();
+    if (shouldCommit()) {
+      this.userPlies = userPlies;
+      this.computedPlies = computedPlies;
+      this.depth = depth;
+      this.analyzedBoards = analyzedBoards;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * SearchIterationEvent - A Flight Recorder event for a search iteration. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jfr;
+
+import com.github.warpwe.javachess.ply.IAnalyzedPly;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a iteration of the search of one search thread. Like all the events
+ * of Java-Chess, it's disabled by default. The payload is only set, if the event is recorded.
+ */
+@Name("com.github.warpwe.javachess.SearchIteration")
+@Label("Search Iteration")
+@Category({ "Java-Chess", "Engine" })
+@Description("A iteration of the search of one search thread")
+@Enabled(false)
+@StackTrace(false)
+public class SearchIterationEvent extends Event {
+
+  // Instance variables
+
+  /**
+   * The index of the search thread (0 for the main engine).
+   */
+  @Label("Search Thread")
+  private int thread;
+
+  /**
+   * The search depth of the iteration.
+   */
+  @Label("Depth")
+  private int depth;
+
+  /**
+   * The number of nodes of the iteration in this thread.
+   */
+  @Label("Nodes")
+  private long nodes;
+
+  /**
+   * The score of the best ply from the view of white.
+   */
+  @Label("Score")
+  private int score;
+
+  /**
+   * The best ply of the iteration.
+   */
+  @Label("Best Ply")
+  private String bestPly;
+
+  /**
+   * Flag to indicate, if the iteration was completed or interrupted.
+   */
+  @Label("Completed")
+  private boolean completed;
+
+  // Methods
+
+  /**
+   * End the iteration and record it, if the event is enabled.
+   *
+   * @param thread
+   *          The index of the search thread (0 for the main engine).
+   * @param depth
+   *          The search depth of the iteration.
+   * @param nodes
+   *          The number of nodes of the iteration in this thread.
+   * @param bestPly
+   *          The best ply of the iteration or null, if it was interrupted.
+   */
+  public final void commit(int thread, int depth, long nodes, IAnalyzedPly bestPly) {
+    end();
+    if (shouldCommit()) {
+      this.thread = thread;
+      this.depth = depth;
+      this.nodes = nodes;
+      completed = bestPly != null;
+      if (bestPly != null) {
+        score = bestPly.getScore();
+        this.bestPly = bestPly.getPly().toString();
+      }
+      commit();
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * EngineMXBean - The management interface of a engine. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jmx;
+
+/**
+ * This interface defines the attributes and operations of a engine, that can be read and invoked
+ * with jconsole or any other JMX client.
+ */
+public interface EngineMXBean {
+
+  /**
+   * Check, if the engine is searching for a ply.
+   *
+   * @return true, if a search is running.
+   */
+  boolean isSearching();
+
+  /**
+   * Get the search depth of the current or last search.
+   *
+   * @return The search depth.
+   */
+  int getSearchDepth();
+
+  /**
+   * Get the selective depth of the current or last search.
+   *
+   * @return The highest search level of the quiescence search.
+   */
+  int getSelectiveDepth();
+
+  /**
+   * Get the nodes of the current or last search.
+   *
+   * @return The number of nodes of all search threads.
+   */
+  long getNodes();
+
+  /**
+   * Get the speed of the current or last search.
+   *
+   * @return The number of nodes per second.
+   */
+  long getNodesPerSecond();
+
+  /**
+   * Get the size of the hashtable.
+   *
+   * @return The size in megabytes.
+   */
+  int getHashtableSize();
+
+  /**
+   * Get the maximum number of entries of the hashtable.
+   *
+   * @return The maximum number of entries.
+   */
+  int getHashtableEntries();
+
+  /**
+   * Get the estimated share of the used hashtable entries.
+   *
+   * @return The share of the used entries in per mille.
+   */
+  int getHashtableFill();
+
+  /**
+   * Get the share of the hashtable probes of the current or last search, that found a entry.
+   *
+   * @return The hit rate between 0 and 1.
+   */
+  double getHashtableHitRate();
+
+  /**
+   * Check, if the engine still uses the opening book.
+   *
+   * @return true, if the engine is still in the opening book.
+   */
+  boolean isInOpeningBook();
+
+  /**
+   * Check, if the permanent brain is switched on.
+   *
+   * @return true, if the permanent brain is used.
+   */
+  boolean isPermanentBrainEnabled();
+
+  /**
+   * Check, if the permanent brain is computing responses to the user plies.
+   *
+   * @return true, if the permanent brain is running.
+   */
+  boolean isPermanentBrainRunning();
+
+  /**
+   * Get the search time per ply.
+   *
+   * @return The search time in milliseconds.
+   */
+  int getMaximumSearchTime();
+
+  /**
+   * Check, if the search time is fixed or a average.
+   *
+   * @return true, if the search time is fixed.
+   */
+  boolean isFixedTime();
+
+  /**
+   * Get the number of search threads.
+   *
+   * @return The number of search threads.
+   */
+  int getThreadCount();
+
+  /**
+   * Change the size of the hashtable. The hashtable is cleared.
+   *
+   * @param megabytes
+   *          The new size in megabytes.
+   */
+  void resizeHashtable(int megabytes);
+
+  /**
+   * Remove all the entries of the hashtable.
+   */
+  void clearHashtable();
+
+  /**
+   * Stop a running search. The engine plays the best ply of the completed iterations.
+   */
+  void stopSearch();
+}
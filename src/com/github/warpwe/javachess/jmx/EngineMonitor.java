@@ -0,0 +1,304 @@
+/*
+ * EngineMonitor - A class to watch a engine over JMX. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.jmx;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+
+/**
+ * This class publishes the state of a engine as a MXBean on the platform MBean server, so it can
+ * be watched with jconsole or any other JMX client. Every registered engine gets it's own name
+ * com.github.warpwe.javachess:type=Engine,id=n.
+ * <p>
+ * The search values are read from the search statistics of the engine, so they show the running
+ * search or the last search, if the engine doesn't search.
+ */
+public class EngineMonitor implements EngineMXBean {
+
+  // Static variables
+
+  /**
+   * The logger for failed registrations.
+   */
+  static org.apache.logging.log4j.Logger logger = LogManager.getLogger("logfile");
+
+  /**
+   * The domain of the object names.
+   */
+  private static final String DOMAIN = "com.github.warpwe.javachess";
+
+  /**
+   * The number of registered engines, so every engine gets a unique name.
+   */
+  private static int _engineCount = 0;
+
+  // Instance variables
+
+  /**
+   * The watched engine.
+   */
+  private ChessEngineImpl _engine;
+
+  /**
+   * The name, under which the engine is registered, or null, if it's not registered.
+   */
+  private ObjectName _name;
+
+  // Constructors
+
+  /**
+   * Create a new monitor for a engine.
+   *
+   * @param engine
+   *          The engine to watch.
+   */
+  public EngineMonitor(ChessEngineImpl engine) {
+    _engine = engine;
+  }
+
+  // Methods
+
+  /**
+   * Create a monitor for a engine and register it on the platform MBean server. A failed
+   * registration is only logged, since the engine works without it.
+   *
+   * @param engine
+   *          The engine to watch.
+   * @return The registered monitor.
+   */
+  public static final EngineMonitor register(ChessEngineImpl engine) {
+    EngineMonitor monitor = new EngineMonitor(engine);
+    monitor.register();
+    return monitor;
+  }
+
+  /**
+   * Register this monitor on the platform MBean server.
+   */
+  public final synchronized void register() {
+    if (_name != null) {
+      return;
+    }
+    int id;
+    synchronized (EngineMonitor.class) {
+      id = ++_engineCount;
+    }
+    try {
+      ObjectName name = new ObjectName(DOMAIN + ":type=Engine,id=" + id);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      _name = name;
+    }
+    catch (JMException e) {
+      logger.warn("Engine could not be registered for JMX: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Remove this monitor from the platform MBean server, so the engine can be garbage collected.
+   */
+  public final synchronized void unregister() {
+    if (_name == null) {
+      return;
+    }
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(_name)) {
+        server.unregisterMBean(_name);
+      }
+    }
+    catch (JMException e) {
+      logger.warn("Engine could not be unregistered from JMX: " + e.getMessage());
+    }
+    _name = null;
+  }
+
+  /**
+   * Get the name of the registered monitor.
+   *
+   * @return The object name or null, if the monitor is not registered.
+   */
+  public final synchronized ObjectName getName() {
+    return _name;
+  }
+
+  /**
+   * Check, if the engine is searching for a ply.
+   *
+   * @return true, if a search is running.
+   */
+  public boolean isSearching() {
+    return _engine.isSearching();
+  }
+
+  /**
+   * Get the search depth of the current or last search.
+   *
+   * @return The search depth.
+   */
+  public int getSearchDepth() {
+    return _engine.getSearchDepth();
+  }
+
+  /**
+   * Get the selective depth of the current or last search.
+   *
+   * @return The highest search level of the quiescence search.
+   */
+  public int getSelectiveDepth() {
+    return _engine.getSearchStatistics().getSelectiveDepth();
+  }
+
+  /**
+   * Get the nodes of the current or last search.
+   *
+   * @return The number of nodes of all search threads.
+   */
+  public long getNodes() {
+    return _engine.getSearchStatistics().getTotalNodes();
+  }
+
+  /**
+   * Get the speed of the current or last search.
+   *
+   * @return The number of nodes per second.
+   */
+  public long getNodesPerSecond() {
+    return _engine.getSearchStatistics().getNodesPerSecond();
+  }
+
+  /**
+   * Get the size of the hashtable.
+   *
+   * @return The size in megabytes.
+   */
+  public int getHashtableSize() {
+    return _engine.getHashtable().getSizeInMegabytes();
+  }
+
+  /**
+   * Get the maximum number of entries of the hashtable.
+   *
+   * @return The maximum number of entries.
+   */
+  public int getHashtableEntries() {
+    return _engine.getHashtable().getMaximumSize();
+  }
+
+  /**
+   * Get the estimated share of the used hashtable entries.
+   *
+   * @return The share of the used entries in per mille.
+   */
+  public int getHashtableFill() {
+    return _engine.getHashtable().getFill();
+  }
+
+  /**
+   * Get the share of the hashtable probes of the current or last search, that found a entry.
+   *
+   * @return The hit rate between 0 and 1.
+   */
+  public double getHashtableHitRate() {
+    return _engine.getSearchStatistics().getHashHitRate();
+  }
+
+  /**
+   * Check, if the engine still uses the opening book.
+   *
+   * @return true, if the engine is still in the opening book.
+   */
+  public boolean isInOpeningBook() {
+    return _engine.inOpeningBook();
+  }
+
+  /**
+   * Check, if the permanent brain is switched on.
+   *
+   * @return true, if the permanent brain is used.
+   */
+  public boolean isPermanentBrainEnabled() {
+    return _engine.usePermanentBrain();
+  }
+
+  /**
+   * Check, if the permanent brain is computing responses to the user plies.
+   *
+   * @return true, if the permanent brain is running.
+   */
+  public boolean isPermanentBrainRunning() {
+    return _engine.getPermanentBrain().isComputing();
+  }
+
+  /**
+   * Get the search time per ply.
+   *
+   * @return The search time in milliseconds.
+   */
+  public int getMaximumSearchTime() {
+    return _engine.getMaximumSearchTime();
+  }
+
+  /**
+   * Check, if the search time is fixed or a average.
+   *
+   * @return true, if the search time is fixed.
+   */
+  public boolean isFixedTime() {
+    return _engine.isFixedTime();
+  }
+
+  /**
+   * Get the number of search threads.
+   *
+   * @return The number of search threads.
+   */
+  public int getThreadCount() {
+    return _engine.getThreadCount();
+  }
+
+  /**
+   * Change the size of the hashtable. The hashtable is cleared and the status listeners of the
+   * engine are notified.
+   *
+   * @param megabytes
+   *          The new size in megabytes.
+   */
+  public void resizeHashtable(int megabytes) {
+    if (megabytes < 1) {
+      throw new IllegalArgumentException("Illegal hashtable size " + megabytes);
+    }
+    _engine.getHashtable().setSizeInMegabytes(megabytes);
+    _engine.notifyListeners();
+  }
+
+  /**
+   * Remove all the entries of the hashtable.
+   */
+  public void clearHashtable() {
+    _engine.getHashtable().reset();
+  }
+
+  /**
+   * Stop a running search. The engine plays the best ply of the completed iterations.
+   */
+  public void stopSearch() {
+    _engine.stopSearch();
+  }
+}
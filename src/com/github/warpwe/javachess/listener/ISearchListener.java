@@ -0,0 +1,59 @@
+/*
+ * ISearchListener - The listener for the results of a search. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version. This program
+ * is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.listener;
+
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+
+/**
+ * A listener for the results of a search. It's registered like any other engine status listener
+ * with ChessEngineImpl.addEngineStatusListener.
+ * <p>
+ * The events of a search are sent from the search thread, so a listener, that updates a GUI, has
+ * to pass them to the GUI thread.
+ */
+public interface ISearchListener extends IEngineStatusListener {
+
+  // Methods
+
+  /**
+   * The search completed a iteration.
+   *
+   * @param event
+   *          The result of the iteration.
+   */
+  void iterationCompleted(SearchEvent event);
+
+  /**
+   * The search found a new best ply or a new score for the best ply within a iteration.
+   *
+   * @param event
+   *          The new principal variation.
+   */
+  void principalVariationChanged(SearchEvent event);
+
+  /**
+   * The search ended with the best ply, that the engine plays.
+   *
+   * @param event
+   *          The result of the search.
+   */
+  void bestPlyFound(SearchEvent event);
+
+  /**
+   * The engine was reset for a new game.
+   *
+   * @param engine
+   *          The engine, that was reset.
+   */
+  void engineReset(ChessEngineImpl engine);
+}
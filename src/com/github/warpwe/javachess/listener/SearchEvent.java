@@ -0,0 +1,157 @@
+/*
+ * SearchEvent - A result of a search. Copyright (C) 2003 The Java-Chess team <info@java-chess.de>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version. This program is distributed in the hope that it
+ * will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details. You
+ * should have received a copy of the GNU General Public License along with this program; if not,
+ * write to the Free Software Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA 02111-1307,
+ * USA.
+ */
+
+package com.github.warpwe.javachess.listener;
+
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchStatistics;
+import com.github.warpwe.javachess.ply.IAnalyzedPly;
+
+/**
+ * This class holds a result of a search, that is sent to the search listeners.
+ */
+public class SearchEvent {
+
+  // Instance variables
+
+  /**
+   * The engine, that searched.
+   */
+  private ChessEngineImpl _engine;
+
+  /**
+   * The best ply with it's score from the view of white.
+   */
+  private IAnalyzedPly _bestPly;
+
+  /**
+   * The encoded plies of the principal variation.
+   */
+  private int[] _principalVariation;
+
+  /**
+   * The search depth.
+   */
+  private int _searchDepth;
+
+  /**
+   * The number of analyzed boards.
+   */
+  private long _analyzedBoards;
+
+  /**
+   * The time since the start of the search in milliseconds.
+   */
+  private long _time;
+
+  /**
+   * The statistics of all search threads.
+   */
+  private SearchStatistics _statistics;
+
+  // Constructors
+
+  /**
+   * Create a new search event.
+   *
+   * @param engine
+   *          The engine, that searched.
+   * @param bestPly
+   *          The best ply with it's score from the view of white.
+   * @param principalVariation
+   *          The encoded plies of the principal variation.
+   * @param searchDepth
+   *          The search depth.
+   * @param analyzedBoards
+   *          The number of analyzed boards.
+   * @param time
+   *          The time since the start of the search in milliseconds.
+   * @param statistics
+   *          The statistics of all search threads.
+   */
+  public SearchEvent(ChessEngineImpl engine, IAnalyzedPly bestPly, int[] principalVariation,
+      int searchDepth, long analyzedBoards, long time, SearchStatistics statistics) {
+    _engine = engine;
+    _bestPly = bestPly;
+    _principalVariation = principalVariation;
+    _searchDepth = searchDepth;
+    _analyzedBoards = analyzedBoards;
+    _time = time;
+    _statistics = statistics;
+  }
+
+  // Methods
+
+  /**
+   * Get the engine, that searched.
+   *
+   * @return The engine.
+   */
+  public final ChessEngineImpl getEngine() {
+    return _engine;
+  }
+
+  /**
+   * Get the best ply.
+   *
+   * @return The best ply with it's score from the view of white.
+   */
+  public final IAnalyzedPly getBestPly() {
+    return _bestPly;
+  }
+
+  /**
+   * Get the principal variation, that starts with the best ply.
+   *
+   * @return The encoded plies of the principal variation.
+   */
+  public final int[] getPrincipalVariation() {
+    return _principalVariation;
+  }
+
+  /**
+   * Get the search depth.
+   *
+   * @return The search depth.
+   */
+  public final int getSearchDepth() {
+    return _searchDepth;
+  }
+
+  /**
+   * Get the number of analyzed boards. It's the counter of the engine, so it might include the
+   * boards of earlier searches.
+   *
+   * @return The number of analyzed boards.
+   */
+  public final long getAnalyzedBoards() {
+    return _analyzedBoards;
+  }
+
+  /**
+   * Get the time since the start of the search.
+   *
+   * @return The time in milliseconds.
+   */
+  public final long getTime() {
+    return _time;
+  }
+
+  /**
+   * Get the statistics of the search.
+   *
+   * @return The statistics of all search threads.
+   */
+  public final SearchStatistics getStatistics() {
+    return _statistics;
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * EngineMenu - A class to create the Engine menu. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.menu;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.ButtonGroup;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+import javax.swing.JRadioButtonMenuItem;
+
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.opening_book.action.LoadOpeningsAction;
+
+/**
+ * This class constructs the Engine menu, where the user can change the settings of the chess
+ * engine. The engine itself doesn't use any Swing classes, so it can run without a GUI.
+ */
+public class EngineMenu implements ActionListener {
+
+  /**
+   * The engine, whose settings are changed.
+   */
+  private ChessEngineImpl engine;
+
+  /**
+   * The menu item to toggle the permanent brain.
+   */
+  private JCheckBoxMenuItem permanentBrainMenuItem;
+
+  /**
+   * The menu items for the various fix search times.
+   */
+  private JMenuItem[] fixSearchTimeMenuItem;
+
+  /**
+   * The menu items for the various average search times.
+   */
+  private JMenuItem[] avSearchTimeMenuItem;
+
+  /**
+   * The predefined search times (in seconds).
+   */
+  private int[] searchTime = {
+      3, 5, 10, 15, 30, 45, 60
+  };
+
+  /**
+   * The menu items for the various hashtable sizes.
+   */
+  private JMenuItem[] hashtableSizeMenuItem;
+
+  /**
+   * The predefined hashtable sizes (in megabytes).
+   */
+  private int[] hashtableSizes = {
+      8, 16, 32, 64, 128, 256
+  };
+
+  /**
+   * The menu items for the various thread counts.
+   */
+  private JMenuItem[] threadCountMenuItem;
+
+  /**
+   * The predefined numbers of search threads.
+   */
+  private int[] threadCounts = {
+      1, 2, 4, 8, 16
+  };
+
+  /**
+   * The ButtonGroup for the time controls
+   */
+  ButtonGroup buttonGroupSearchTime;
+
+  /**
+   * The ButtonGroup for the hash sizes
+   */
+  ButtonGroup buttonGroupHashSize;
+
+  /**
+   * The ButtonGroup for the thread counts
+   */
+  ButtonGroup buttonGroupThreadCount;
+
+  /**
+   * Create a new Engine menu.
+   * 
+   * @param engine
+   *          The engine, whose settings are changed.
+   */
+  public EngineMenu(ChessEngineImpl engine) {
+    this.engine = engine;
+  }
+
+  /**
+   * Return a menu for the chess engine, where the user can change the settings.
+   * 
+   * @return A menu for the engine settings.
+   */
+  public final JMenu getMenu() {
+
+    // Create a new menu.
+    JMenu engineMenu = new JMenu("Engine");
+
+    // Add a toggle item for to the permanent brain.
+    engineMenu.add(permanentBrainMenuItem = new JCheckBoxMenuItem("Use permanent brain",
+        engine.usePermanentBrain()));
+    permanentBrainMenuItem.addActionListener(this);
+
+    // Add a menu for the maximum search time
+    JMenu searchTimeMenu = new JMenu("Search time");
+
+    // Add a sub-menu for fixed time.
+    JMenu searchTimeSubMenuFix = new JMenu("Fixed time");
+
+    // Add a sub-menu for average time.
+    JMenu searchTimeSubMenuAv = new JMenu("Average time");
+
+    // Add various options for the fixed search time
+    // (maybe a user defined search time should be added, too).
+    buttonGroupSearchTime = new ButtonGroup();
+    fixSearchTimeMenuItem = new JRadioButtonMenuItem[searchTime.length];
+    for (int st = 0; st < searchTime.length; st++) {
+      fixSearchTimeMenuItem[st] = new JRadioButtonMenuItem("" + searchTime[st] + " seconds");
+      fixSearchTimeMenuItem[st].addActionListener(this);
+      if (searchTime[st] == 15) { // set initially 5 sec max search time:
+        fixSearchTimeMenuItem[st].setSelected(true);
+        engine.setMaximumSearchTime(15000);
+      }
+
+      buttonGroupSearchTime.add(fixSearchTimeMenuItem[st]);
+
+      // Add the current search time menu item to it's menu.
+      searchTimeSubMenuFix.add(fixSearchTimeMenuItem[st]);
+    }
+
+    // Add various options for the average search time
+    avSearchTimeMenuItem = new JRadioButtonMenuItem[searchTime.length];
+    for (int st = 0; st < searchTime.length; st++) {
+      avSearchTimeMenuItem[st] = new JRadioButtonMenuItem("" + searchTime[st] + " seconds");
+      avSearchTimeMenuItem[st].addActionListener(this);
+
+      // Add the current search time menu item to it's menu.
+      searchTimeSubMenuAv.add(avSearchTimeMenuItem[st]);
+      buttonGroupSearchTime.add(avSearchTimeMenuItem[st]);
+    }
+
+    searchTimeMenu.add(searchTimeSubMenuFix);
+    searchTimeMenu.add(searchTimeSubMenuAv);
+
+    // Add the search time menu to the main engine menu.
+    engineMenu.add(searchTimeMenu);
+
+    // Add a menu for the hashtable size.
+    JMenu hashtableSizeMenu = new JMenu("Hashtable size");
+
+    // Add various options for the hashtable size.
+    this.buttonGroupHashSize = new ButtonGroup();
+    hashtableSizeMenuItem = new JRadioButtonMenuItem[hashtableSizes.length];
+    for (int hts = 0; hts < hashtableSizes.length; hts++) {
+      hashtableSizeMenuItem[hts] = new JRadioButtonMenuItem("" + hashtableSizes[hts] + " MB");
+      hashtableSizeMenuItem[hts].addActionListener(this);
+      if (hashtableSizes[hts] == engine.getHashSize()) {
+        hashtableSizeMenuItem[hts].setSelected(true);
+      }
+
+      // Add the current search time menu item to it's menu.
+      hashtableSizeMenu.add(hashtableSizeMenuItem[hts]);
+      this.buttonGroupHashSize.add(hashtableSizeMenuItem[hts]);
+    }
+
+    // Add the search time menu to the main engine menu.
+    engineMenu.add(hashtableSizeMenu);
+
+    // Add a menu for the number of search threads.
+    JMenu threadCountMenu = new JMenu("Threads");
+
+    // Add various options for the number of threads.
+    this.buttonGroupThreadCount = new ButtonGroup();
+    threadCountMenuItem = new JRadioButtonMenuItem[threadCounts.length];
+    for (int tc = 0; tc < threadCounts.length; tc++) {
+      threadCountMenuItem[tc] = new JRadioButtonMenuItem("" + threadCounts[tc]
+          + (threadCounts[tc] == 1 ? " thread" : " threads"));
+      threadCountMenuItem[tc].addActionListener(this);
+      if (threadCounts[tc] == engine.getThreadCount()) {
+        threadCountMenuItem[tc].setSelected(true);
+      }
+
+      threadCountMenu.add(threadCountMenuItem[tc]);
+      this.buttonGroupThreadCount.add(threadCountMenuItem[tc]);
+    }
+
+    engineMenu.add(threadCountMenu);
+
+    // Add a menu item to read openings from PGN files.
+    engineMenu.addSeparator();
+    engineMenu.add(new LoadOpeningsAction(engine.getOpeningBook()));
+
+    // Return the engine menu.
+    return engineMenu;
+  }
+
+  /**
+   * Perform a action (could be a menu related action).
+   * 
+   * @param actionEvent
+   *          The event.
+   */
+  public void actionPerformed(ActionEvent actionEvent) {
+
+    // Check, if the user (de-)activated the permanent brain.
+    if (actionEvent.getSource().equals(permanentBrainMenuItem)) {
+      engine.activatePermanentBrain(permanentBrainMenuItem.isSelected());
+      engine.notifyListeners();
+      return;
+    }
+
+    // Check if the user has requested a new search time
+    for (int st = 0; st < searchTime.length; st++) {
+      if (actionEvent.getSource().equals(avSearchTimeMenuItem[st])) {
+        engine.setMaximumSearchTime(searchTime[st] * 1000);
+        engine.setFixedTime(false);
+      }
+
+      if (actionEvent.getSource().equals(fixSearchTimeMenuItem[st])) {
+        engine.setMaximumSearchTime(searchTime[st] * 1000);
+        engine.setFixedTime(true);
+      }
+    }
+
+    // Check, if the user has requested a different hashtable size.
+    for (int hts = 0; hts < hashtableSizes.length; hts++) {
+      if (actionEvent.getSource().equals(hashtableSizeMenuItem[hts])) {
+        engine.getHashtable().setSizeInMegabytes(hashtableSizes[hts]);
+      }
+    }
+
+    // Check, if the user has requested a different number of search threads.
+    for (int tc = 0; tc < threadCounts.length; tc++) {
+      if (actionEvent.getSource().equals(threadCountMenuItem[tc])) {
+        engine.setThreadCount(threadCounts[tc]);
+      }
+    }
+
+    engine.notifyListeners();
+  }
+}
@@ -13,6 +13,7 @@ package com.github.warpwe.javachess.pgn;
 
 import java.io.Reader;
 
+import com.github.warpwe.javachess.jfr.PGNLoadEvent;
 import com.github.warpwe.javachess.notation.GameNotationImpl;
 import com.github.warpwe.javachess.notation.IGameNotation;
 
@@ -61,11 +62,21 @@ public class PGNFile {
    */
   public final IGameNotation readGame() throws RecognitionException, TokenStreamException {
 
+    PGNLoadEvent event = new PGNLoadEvent();
+    event.begin();
+
     // A buffer for the result.
     IGameNotation notationBuffer = new GameNotationImpl();
 
     // Start the parsing of the file.
-    getPGNParser().pgnGame(notationBuffer);
+    boolean success = false;
+    try {
+      getPGNParser().pgnGame(notationBuffer);
+      success = true;
+    }
+    finally {
+      event.commit(notationBuffer.size(), success);
+    }
 
     return notationBuffer;
   }
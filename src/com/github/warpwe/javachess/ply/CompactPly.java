@@ -0,0 +1,223 @@
+/*
+ * CompactPly - A class to encode plies as ints. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.ply;
+
+import com.github.warpwe.javachess.position.PositionImpl;
+
+/**
+ * This class encodes plies as ints, so they can be stored without creating objects. The bits of
+ * a encoded ply are:
+ * <ul>
+ * <li>0-5: the source square</li>
+ * <li>6-11: the destination square (the destination of the king for castlings)</li>
+ * <li>12: the capture flag</li>
+ * <li>13-14: the type of the ply (regular, castling, en passant or transformation)</li>
+ * <li>15-17: the piece type after a transformation</li>
+ * </ul>
+ * 0 is never a valid ply, so it can be used as 'no ply'.
+ */
+public class CompactPly {
+
+  // Static variables
+
+  /**
+   * The value for 'no ply'.
+   */
+  public static final int NO_PLY = 0;
+
+  /**
+   * The type of a regular ply.
+   */
+  public static final int REGULAR = 0;
+
+  /**
+   * The type of a castling.
+   */
+  public static final int CASTLING = 1;
+
+  /**
+   * The type of a en passant attack.
+   */
+  public static final int EN_PASSANT = 2;
+
+  /**
+   * The type of a pawn transformation.
+   */
+  public static final int TRANSFORMATION = 3;
+
+  /**
+   * The flag for captures.
+   */
+  private static final int CAPTURE_FLAG = 1 << 12;
+
+  // Constructors
+
+  /**
+   * This class only has static methods.
+   */
+  private CompactPly() {
+  }
+
+  // Methods
+
+  /**
+   * Encode a ply.
+   *
+   * @param source
+   *          The source square.
+   * @param destination
+   *          The destination square.
+   * @param capture
+   *          Flag to indicate, if a piece is captured.
+   * @param type
+   *          The type of the ply.
+   * @param pieceType
+   *          The piece type after a transformation (0 for the other types).
+   * @return The encoded ply.
+   * @throws IllegalArgumentException
+   *           if a square is not between 0 and 63.
+   */
+  public static final int encode(int source, int destination, boolean capture, int type,
+      int pieceType) {
+    if (((source | destination) & ~63) != 0) {
+      throw new IllegalArgumentException("Illegal square in ply " + source + "-" + destination);
+    }
+    return source | (destination << 6) | (capture ? CAPTURE_FLAG : 0) | (type << 13)
+        | (pieceType << 15);
+  }
+
+  /**
+   * Encode a ply object.
+   *
+   * @param ply
+   *          The ply to encode.
+   * @return The encoded ply.
+   */
+  public static final int encode(IPly ply) {
+    int source = ply.getSource().getSquareIndex();
+
+    if (ply instanceof ICastlingPly) {
+      return encode(source, ((ICastlingPly) ply).isLeftCastling() ? source - 2 : source + 2,
+          false, CASTLING, 0);
+    }
+    if (ply instanceof IEnPassantPly) {
+      return encode(source, ply.getDestination().getSquareIndex(), true, EN_PASSANT, 0);
+    }
+    if (ply instanceof ITransformationPly) {
+      return encode(source, ply.getDestination().getSquareIndex(), ply.isCapture(),
+          TRANSFORMATION, ((ITransformationPly) ply).getTypeAfterTransformation());
+    }
+    return encode(source, ply.getDestination().getSquareIndex(), ply.isCapture(), REGULAR, 0);
+  }
+
+  /**
+   * Create a ply object from a encoded ply.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return The ply object or null, if the encoded ply is NO_PLY.
+   */
+  public static final IPly decode(int ply) {
+    if (ply == NO_PLY) {
+      return null;
+    }
+
+    int source = getSource(ply);
+    int destination = getDestination(ply);
+
+    switch (getType(ply)) {
+      case CASTLING:
+        return new CastlingPlyImpl(new PositionImpl(source), destination < source);
+      case EN_PASSANT:
+        return new EnPassantPlyImpl(new PositionImpl(source), new PositionImpl(destination),
+            new PositionImpl((source & ~7) | (destination & 7)));
+      case TRANSFORMATION:
+        return new TransformationPlyImpl(new PositionImpl(source), new PositionImpl(destination),
+            (byte) getTypeAfterTransformation(ply), isCapture(ply));
+      default:
+        return new PlyImpl(new PositionImpl(source), new PositionImpl(destination), isCapture(ply));
+    }
+  }
+
+  /**
+   * Get the source square of a encoded ply.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return The source square.
+   */
+  public static final int getSource(int ply) {
+    return ply & 63;
+  }
+
+  /**
+   * Get the destination square of a encoded ply.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return The destination square.
+   */
+  public static final int getDestination(int ply) {
+    return (ply >>> 6) & 63;
+  }
+
+  /**
+   * Check, if a encoded ply captures a piece.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return true, if the ply captures a piece.
+   */
+  public static final boolean isCapture(int ply) {
+    return (ply & CAPTURE_FLAG) != 0;
+  }
+
+  /**
+   * Get the type of a encoded ply.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return The type of the ply.
+   */
+  public static final int getType(int ply) {
+    return (ply >>> 13) & 3;
+  }
+
+  /**
+   * Get the piece type after a transformation.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return The piece type after the transformation.
+   */
+  public static final int getTypeAfterTransformation(int ply) {
+    return (ply >>> 15) & 7;
+  }
+
+  /**
+   * Get the coordinate notation of a encoded ply, like "e2e4" or "e7e8q". Castlings are given as
+   * the ply of the king.
+   *
+   * @param ply
+   *          The encoded ply.
+   * @return The ply in coordinate notation.
+   */
+  public static final String toCoordinateNotation(int ply) {
+    String notation = new PositionImpl(getSource(ply)).toSquareName()
+        + new PositionImpl(getDestination(ply)).toSquareName();
+    if (getType(ply) == TRANSFORMATION) {
+      notation += " pbnrqk".charAt(getTypeAfterTransformation(ply));
+    }
+    return notation;
+  }
+}
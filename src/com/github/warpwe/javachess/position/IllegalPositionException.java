@@ -22,5 +22,21 @@ public class IllegalPositionException extends IllegalArgumentException {
 
   // Constructors
 
+  /**
+   * Create a new exception without a message.
+   */
+  public IllegalPositionException() {
+  }
+
+  /**
+   * Create a new exception with a message.
+   *
+   * @param message
+   *          The description of the illegal position.
+   */
+  public IllegalPositionException(String message) {
+    super(message);
+  }
+
   // Methods
 }
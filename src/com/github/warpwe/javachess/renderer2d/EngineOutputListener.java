@@ -0,0 +1,137 @@
+/*
+ * EngineOutputListener - Shows the results of the engine in the panels of the main window.
+ * Copyright (C) 2003 The Java-Chess team <info@java-chess.de> This program is free software; you
+ * can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of the License, or (at your option)
+ * any later version. This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE. See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.renderer2d;
+
+import javax.swing.SwingUtilities;
+
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.listener.ISearchListener;
+import com.github.warpwe.javachess.listener.SearchEvent;
+
+/**
+ * This class shows the search results of the engine in the engine panel and it's status in the
+ * status panel. The events of the search are passed to the event dispatch thread, so the search
+ * thread doesn't wait for the GUI.
+ */
+public class EngineOutputListener implements ISearchListener {
+
+  // Instance variables
+
+  /**
+   * The panel for the engine output.
+   */
+  private EnginePanel enginePanel;
+
+  /**
+   * The status bar of the main window.
+   */
+  private StatusPanel statusPanel;
+
+  // Constructors
+
+  /**
+   * Create a new listener for the panels of the main window.
+   *
+   * @param enginePanel
+   *          The panel for the engine output.
+   * @param statusPanel
+   *          The status bar of the main window.
+   */
+  public EngineOutputListener(EnginePanel enginePanel, StatusPanel statusPanel) {
+    this.enginePanel = enginePanel;
+    this.statusPanel = statusPanel;
+  }
+
+  // Methods
+
+  /**
+   * Show the settings of the engine in the status bar.
+   *
+   * @param engine
+   *          The engine, whose settings changed.
+   */
+  public void engineStatusChanged(final ChessEngineImpl engine) {
+    final String settings = engine.getStatusDisplayString();
+    SwingUtilities.invokeLater(new Runnable() {
+      public void run() {
+        statusPanel.setActionText(settings);
+      }
+    });
+  }
+
+  /**
+   * Show the best ply of a completed iteration.
+   *
+   * @param event
+   *          The result of the iteration.
+   */
+  public void iterationCompleted(SearchEvent event) {
+    show("Best ply for search depth " + event.getSearchDepth() + " is "
+        + event.getBestPly().getPly().toString() + " with score " + event.getBestPly().getScore(),
+        "Thinking...");
+  }
+
+  /**
+   * A new best ply within a iteration is not shown, since it might change soon.
+   *
+   * @param event
+   *          The new principal variation.
+   */
+  public void principalVariationChanged(SearchEvent event) {
+  }
+
+  /**
+   * Show the best ply of the search, that is played now.
+   *
+   * @param event
+   *          The result of the search.
+   */
+  public void bestPlyFound(SearchEvent event) {
+    show("Best ply: " + event.getBestPly().getPly().toString() + " with score "
+        + event.getBestPly().getScore() + " and search depth " + event.getSearchDepth()
+        + "\nAnalyzed boards: " + event.getAnalyzedBoards() + " in " + event.getTime() + " ms\n"
+        + event.getStatistics(), "Your turn...");
+  }
+
+  /**
+   * Remove the engine output, since a new game starts.
+   *
+   * @param engine
+   *          The engine, that was reset.
+   */
+  public void engineReset(ChessEngineImpl engine) {
+    SwingUtilities.invokeLater(new Runnable() {
+      public void run() {
+        enginePanel.setText("");
+        statusPanel.setStatusText("Your turn...");
+      }
+    });
+  }
+
+  /**
+   * Add a text to the engine panel and set the status text.
+   *
+   * @param text
+   *          The text for the engine panel.
+   * @param status
+   *          The new status text.
+   */
+  private final void show(final String text, final String status) {
+    SwingUtilities.invokeLater(new Runnable() {
+      public void run() {
+        enginePanel.modifyText(text);
+        statusPanel.setStatusText(status);
+      }
+    });
+  }
+}
@@ -233,6 +233,17 @@ public class GameTimerPanel extends JPanel implements GameTimer, ActionListener
     }
   }
 
+  /**
+   * Get the remaining time of a player.
+   *
+   * @param white
+   *          true, if the remaining time of the white player is requested.
+   * @return The remaining time in milliseconds.
+   */
+  public long getRemainingTime(boolean white) {
+    return white ? this.white.getRemainingMilliseconds() : black.getRemainingMilliseconds();
+  }
+
   /**
    * Get the active state of this timer.
    *
@@ -71,6 +71,11 @@ public class TimerPanel extends JPanel implements Runnable {
    */
   long remainingTime;
 
+  /**
+   * The start time of the current run or 0, if the timer doesn't run.
+   */
+  private volatile long runStartTime;
+
   /**
    * The direction of the counting.
    */
@@ -164,6 +169,7 @@ public class TimerPanel extends JPanel implements Runnable {
   public void run() {
 
     long startTime = System.currentTimeMillis();  // The time when this run started.
+    runStartTime = startTime;
     long runningTime;                             // The length of this run.
     try {
       // While there's still time left and noone stopped the thread.
@@ -175,6 +181,7 @@ public class TimerPanel extends JPanel implements Runnable {
       while ((remainingTime >= runningTime) && (Thread.currentThread() == timerThread));
 
       remainingTime -= runningTime;  // Substract the length of this thinking time.
+      runStartTime = 0L;
 
       // Now notify all the action listeners, that the timer has stopped.
       notifyListeners(new ActionEvent(this, ActionEvent.ACTION_PERFORMED,
@@ -242,6 +249,17 @@ public class TimerPanel extends JPanel implements Runnable {
     return (int) (time / 1000L);
   }
 
+  /**
+   * Get the remaining time including the current run.
+   *
+   * @return The remaining time in milliseconds.
+   */
+  public long getRemainingMilliseconds() {
+    long startTime = runStartTime;
+    return (startTime != 0L) ? remainingTime - (System.currentTimeMillis() - startTime)
+        : remainingTime;
+  }
+
   public void alignText() {
     this.display.setHorizontalTextPosition(SwingConstants.CENTER);
     this.display.setHorizontalAlignment(SwingConstants.CENTER);
@@ -0,0 +1,161 @@
+/*
+ * BoardConsistency2 - A test, if plies done in place can be taken back. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.BitBoardAnalyzerImpl;
+import com.github.warpwe.javachess.engine.IBitBoardAnalyzer;
+import com.github.warpwe.javachess.engine.PlyGenerator;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.engine.hashtable.ZobristKeyImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.ply.IPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test to check, if makePly performs the same ply as getBoardAfterPly and if unmakePly restores
+ * the board afterwards. The incrementally updated hash key is checked, too. The positions are taken from random games with a fixed seed, so castlings,
+ * en passant attacks and transformations are covered, too.
+ */
+public class BoardConsistency2 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The current game.
+   */
+  IGame game;
+
+  /**
+   * The chess board.
+   */
+  IBitBoard board;
+
+  /**
+   * A ply generator.
+   */
+  PlyGenerator plyGenerator;
+
+  /**
+   * The analyzer.
+   */
+  IBitBoardAnalyzer analyzer;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public BoardConsistency2() {
+    super("Plies done in place restore the board when they are taken back");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testmakeunmake();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+
+    // Create a new game.
+    game = new GameImpl();
+
+    // Create a new board.
+    board = new BitBoardImpl();
+
+    // Create the ply generator.
+    plyGenerator = new PlyGenerator(game, board, new PlyHashtableImpl(100));
+
+    // And the analyzer.
+    analyzer = new BitBoardAnalyzerImpl(game, plyGenerator);
+
+    plyGenerator.setAnalyzer(analyzer);
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testmakeunmake() {
+    Random random = new Random(4711);
+
+    for (int currentGame = 0; currentGame < 20; currentGame++) {
+      game.reset();
+      board.initialPosition();
+      boolean white = true;
+
+      for (int plyCount = 0; plyCount < 150; plyCount++) {
+        IPly[] plies = plyGenerator.getPliesForColor(board, white);
+        if (plies.length == 0) {
+          break;
+        }
+
+        for (int i = 0; i < plies.length; i++) {
+          byte[] expected = ((IBitBoard) board.getBoardAfterPly(plies[i])).getBytes();
+          byte[] before = board.getBytes();
+          long keyBefore = board.getHashKey(white);
+
+          int undoInfo = board.makePly(plies[i]);
+          assertTrue("makePly differs from getBoardAfterPly for " + plies[i],
+              Arrays.equals(expected, board.getBytes()));
+          assertEquals("Wrong hash key after " + plies[i], ZobristKeyImpl.getInstance()
+              .computeKey(board, !white), board.getHashKey(!white));
+
+          board.unmakePly(plies[i], undoInfo);
+          assertTrue("unmakePly does not restore the board for " + plies[i],
+              Arrays.equals(before, board.getBytes()));
+          assertEquals("unmakePly does not restore the hash key for " + plies[i], keyBefore,
+              board.getHashKey(white));
+        }
+
+        // A null ply only passes the right to move, so the key must be the one of the other color
+        // without a en passant square.
+        long keyBefore = board.getHashKey(white);
+        int undoInfo = board.makeNullPly();
+        assertEquals("Wrong hash key after a null ply", ZobristKeyImpl.getInstance().computeKey(
+            board, !white), board.getHashKey(!white));
+        assertEquals("En passant square after a null ply", 0, board.getEnPassantSquare());
+        board.unmakeNullPly(undoInfo);
+        assertEquals("unmakeNullPly does not restore the hash key", keyBefore, board
+            .getHashKey(white));
+
+        // Continue the game with a random ply.
+        doPly(plies[random.nextInt(plies.length)]);
+        white = !white;
+      }
+    }
+  }
+
+  /**
+   * Perform a ply.
+   *
+   * @param ply
+   *          The ply to perform.
+   */
+  private void doPly(IPly ply) {
+    game.doPly(ply);
+    board.doPly(ply);
+  }
+}
@@ -46,10 +46,17 @@ public class ChessEngineTest {
     suite.addTest(new PlyGeneratorTest13());
     suite.addTest(new PlyGeneratorTest16());
     suite.addTest(new PlyGeneratorTest17());
+    suite.addTest(new PerftTest1());
+    suite.addTest(new PlyPickerTest1());
+    suite.addTest(new ExchangeTest1());
 
     // Add the actual engine tests.
     suite.addTest(new KingInKnightCheckTest());
 
+    // Test the hashtable
+    suite.addTest(new HashtableTest1());
+    suite.addTest(new HashtableTest2());
+
     // Test the analyzer
     suite.addTest(new AnalyzerTest1());
     suite.addTest(new AnalyzerTest2());
@@ -57,7 +64,24 @@ public class ChessEngineTest {
     // Test the complete engine
     suite.addTest(new MinimaxTest1());
     suite.addTest(new MinimaxTest2());
+    suite.addTest(new MinimaxTest3());
+    suite.addTest(new MinimaxTest4());
+    suite.addTest(new ParallelSearchTest1());
     suite.addTest(new BoardConsistency1());
+    suite.addTest(new BoardConsistency2());
+
+    // Test the time management and the search limits
+    suite.addTest(new TimeManagerTest1());
+    suite.addTest(new SearchLimitsTest1());
+    suite.addTest(new SearchDeadlineTest1());
+
+    // Test the front-ends
+    suite.addTest(new UCITest1());
+
+    // Test the instrumentation
+    suite.addTest(new SearchStatisticsTest1());
+    suite.addTest(new FlightRecorderTest1());
+    suite.addTest(new EngineMonitorTest1());
 
     return suite;
   }
@@ -0,0 +1,98 @@
+/*
+ * EngineMonitorTest1 - A test of the JMX interface of the engine. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version. This program
+ * is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.jmx.EngineMonitor;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that the attributes and operations of a engine can be used over the
+ * platform MBean server.
+ */
+public class EngineMonitorTest1 extends TestCase {
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public EngineMonitorTest1() {
+    super("A test of the JMX interface of the engine");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testenginemonitor();
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testenginemonitor() {
+    IBitBoard board = new BitBoardImpl();
+    FENPosition.setPosition(board, FENPosition.INITIAL_POSITION);
+    ChessEngineImpl engine = new ChessEngineImpl(new GameImpl(), null, board, true);
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(5);
+
+    EngineMonitor monitor = EngineMonitor.register(engine);
+    ObjectName name = monitor.getName();
+    assertNotNull("Engine was not registered", name);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      // A small hashtable, so the sampled entries of the fill are used by the search.
+      server.invoke(name, "resizeHashtable", new Object[] { Integer.valueOf(1) },
+          new String[] { "int" });
+      assertEquals("Hashtable was not resized", 1, engine.getHashtable().getSizeInMegabytes());
+      engine.computeBestPly(limits);
+
+      // The attributes show the last search.
+      assertEquals("Wrong search depth", Integer.valueOf(5), server.getAttribute(name,
+          "SearchDepth"));
+      assertEquals("Wrong nodes", Long.valueOf(engine.getSearchStatistics().getTotalNodes()),
+          server.getAttribute(name, "Nodes"));
+      assertEquals("Search is still running", Boolean.FALSE, server.getAttribute(name,
+          "Searching"));
+      assertTrue("Empty hashtable after a search", ((Integer) server.getAttribute(name,
+          "HashtableFill")).intValue() > 0);
+
+      server.invoke(name, "clearHashtable", new Object[0], new String[0]);
+      assertEquals("Hashtable was not cleared", Integer.valueOf(0), server.getAttribute(name,
+          "HashtableFill"));
+    }
+    catch (JMException e) {
+      fail("JMX access failed: " + e.getMessage());
+    }
+    finally {
+      monitor.unregister();
+    }
+    assertFalse("Engine is still registered", server.isRegistered(name));
+  }
+}
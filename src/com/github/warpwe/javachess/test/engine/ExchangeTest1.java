@@ -0,0 +1,94 @@
+/*
+ * ExchangeTest1 - A test of the static exchange evaluation. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details. You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc., 59 Temple Place - Suite
+ * 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.PlyGenerator;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.ply.CompactPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test of the static exchange evaluation with captures of undefended and defended pieces, and
+ * a exchange with sliding pieces behind each other.
+ */
+public class ExchangeTest1 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The chess board.
+   */
+  IBitBoard board;
+
+  /**
+   * A ply generator.
+   */
+  PlyGenerator plyGenerator;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public ExchangeTest1() {
+    super("A test of the static exchange evaluation");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testexchange();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+
+    // Create a new board.
+    board = new BitBoardImpl();
+
+    // Create the ply generator.
+    plyGenerator = new PlyGenerator(new GameImpl(), board, new PlyHashtableImpl(100));
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testexchange() {
+
+    // The rook e1 wins the undefended pawn e5.
+    FENPosition.setPosition(board, "1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1");
+    assertEquals("Wrong score for Rxe5", 90, plyGenerator.getExchangeScore(board, CompactPly
+        .encode(4, 36, true, CompactPly.REGULAR, 0)));
+
+    // The knight d3 takes the pawn e5, but it's recaptured by the knight d7. The rook e2 and the
+    // queen e1 behind it can't win the piece back, since the bishop f6 and the queen h8 defend it.
+    FENPosition.setPosition(board, "1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1");
+    assertEquals("Wrong score for Nxe5", 90 - 270, plyGenerator.getExchangeScore(board,
+        CompactPly.encode(19, 36, true, CompactPly.REGULAR, 0)));
+
+    // A pawn captures a defended queen.
+    FENPosition.setPosition(board, "4k3/2p5/3q4/4P3/8/8/8/4K3 w - - 0 1");
+    assertEquals("Wrong score for exd6", 720 - 90, plyGenerator.getExchangeScore(board,
+        CompactPly.encode(36, 43, true, CompactPly.REGULAR, 0)));
+  }
+}
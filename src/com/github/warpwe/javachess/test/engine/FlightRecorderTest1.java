@@ -0,0 +1,110 @@
+/*
+ * FlightRecorderTest1 - A test of the Flight Recorder events of the engine. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.jfr.ComputeBestPlyEvent;
+import com.github.warpwe.javachess.jfr.SearchIterationEvent;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that a search records a event for each iteration and for the computed ply,
+ * when the events are enabled.
+ */
+public class FlightRecorderTest1 extends TestCase {
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public FlightRecorderTest1() {
+    super("A test of the Flight Recorder events");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testflightrecorder();
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testflightrecorder() {
+    IBitBoard board = new BitBoardImpl();
+    FENPosition.setPosition(board, FENPosition.INITIAL_POSITION);
+    ChessEngineImpl engine = new ChessEngineImpl(new GameImpl(), null, board, true);
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(3);
+
+    File file = null;
+    try {
+      Recording recording = new Recording();
+      recording.enable(SearchIterationEvent.class);
+      recording.enable(ComputeBestPlyEvent.class);
+      recording.start();
+      engine.computeBestPly(limits);
+      recording.stop();
+
+      file = File.createTempFile("javachess", ".jfr");
+      recording.dump(file.toPath());
+      recording.close();
+
+      int iterations = 0;
+      RecordedEvent computeEvent = null;
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+      for (Iterator<RecordedEvent> iterator = events.iterator(); iterator.hasNext();) {
+        RecordedEvent event = iterator.next();
+        String name = event.getEventType().getName();
+        if (name.equals("com.github.warpwe.javachess.SearchIteration")) {
+          iterations++;
+        }
+        else if (name.equals("com.github.warpwe.javachess.ComputeBestPly")) {
+          computeEvent = event;
+        }
+      }
+      assertEquals("Wrong number of iteration events", 3, iterations);
+      assertNotNull("No event for the computed ply", computeEvent);
+      assertEquals("Wrong depth of the computed ply", 3, computeEvent.getInt("depth"));
+      assertEquals("Wrong nodes of the computed ply", engine.getSearchStatistics()
+          .getTotalNodes(), computeEvent.getLong("nodes"));
+    }
+    catch (IOException e) {
+      fail("Recording failed: " + e.getMessage());
+    }
+    finally {
+      if (file != null) {
+        file.delete();
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * HashtableTest1 - A test for the packed hashtable entries. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.engine.IBitBoardAnalyzer;
+import com.github.warpwe.javachess.engine.hashtable.CompactEntry;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtable;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.ply.CastlingPlyImpl;
+import com.github.warpwe.javachess.ply.CompactPly;
+import com.github.warpwe.javachess.ply.EnPassantPlyImpl;
+import com.github.warpwe.javachess.ply.ICastlingPly;
+import com.github.warpwe.javachess.ply.IEnPassantPly;
+import com.github.warpwe.javachess.ply.IPly;
+import com.github.warpwe.javachess.ply.ITransformationPly;
+import com.github.warpwe.javachess.ply.TransformationPlyImpl;
+import com.github.warpwe.javachess.position.PositionImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * A test to check, if the hashtable returns the stored data, if the plies survive the encoding and
+ * if the scores of checkmates are converted between the search levels.
+ */
+public class HashtableTest1 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The hashtable to test.
+   */
+  PlyHashtable hashtable;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public HashtableTest1() {
+    super("The hashtable returns the stored entries");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testencoding();
+    testhashtable();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+    hashtable = new PlyHashtableImpl(1000);
+  }
+
+  /**
+   * Check, if the special plies are restored from their encoding.
+   */
+  public void testencoding() {
+    IPly castling = CompactPly.decode(CompactPly.encode(new CastlingPlyImpl(new PositionImpl(60),
+        true)));
+    assertTrue("Left castling of black was not restored", castling instanceof ICastlingPly
+        && ((ICastlingPly) castling).isLeftCastling()
+        && castling.getSource().getSquareIndex() == 60);
+
+    IPly enPassant = CompactPly.decode(CompactPly.encode(new EnPassantPlyImpl(new PositionImpl(36),
+        new PositionImpl(43), new PositionImpl(35))));
+    assertTrue("En passant attack was not restored", enPassant instanceof IEnPassantPly
+        && ((IEnPassantPly) enPassant).getAttackedPosition().getSquareIndex() == 35
+        && enPassant.getDestination().getSquareIndex() == 43);
+
+    IPly transformation = CompactPly.decode(CompactPly.encode(new TransformationPlyImpl(
+        new PositionImpl(54), new PositionImpl(63), (byte) 3, true)));
+    assertTrue("Transformation was not restored", transformation instanceof ITransformationPly
+        && ((ITransformationPly) transformation).getTypeAfterTransformation() == 3
+        && transformation.isCapture());
+  }
+
+  /**
+   * Check, if the stored data is returned for the same key only.
+   */
+  public void testhashtable() {
+    assertEquals("Size is not rounded to a power of 2", 512, hashtable.getMaximumSize());
+
+    int ply = CompactPly.encode(12, 28, false, CompactPly.REGULAR, 0);
+    long key = 0x123456789ABCDEFL;
+    hashtable.store(key, ply, -1234, 5, PlyHashtable.BOUND_LOWER, 3);
+
+    long data = hashtable.probe(key);
+    assertEquals("Wrong ply", ply, CompactEntry.getPly(data));
+    assertEquals("Wrong score", -1234, CompactEntry.getScore(data));
+    assertEquals("Wrong depth", 5, CompactEntry.getDepth(data));
+    assertEquals("Wrong bound", PlyHashtable.BOUND_LOWER, CompactEntry.getBound(data));
+    assertEquals("Score was converted at another level", -1234, CompactEntry.getScore(
+        hashtable.probe(key, 7)));
+
+    // A key, that maps to the same bucket, must not return the entry.
+    assertEquals("Entry returned for a different key", 0L, hashtable.probe(key ^ (1L << 40)));
+
+    // A shallower search of the same position must not replace the entry.
+    hashtable.store(key, CompactPly.NO_PLY, 17, 2, PlyHashtable.BOUND_UPPER, 3);
+    assertEquals("Deeper entry was replaced", 5, CompactEntry.getDepth(hashtable.probe(key)));
+
+    hashtable.reset();
+    assertEquals("Entry survived the reset", 0L, hashtable.probe(key));
+
+    // A mate in 5 plies from the root, that was found 3 plies from the root, is a mate in 2
+    // plies from the position. Found again 5 plies from the root, it's a mate in 7 plies.
+    int mateScore = IBitBoardAnalyzer.WHITE_HAS_WON - 5;
+    hashtable.store(key, ply, mateScore, 2, PlyHashtable.BOUND_EXACT, 3);
+    assertEquals("Wrong mate distance from the position", IBitBoardAnalyzer.WHITE_HAS_WON - 2,
+        CompactEntry.getScore(hashtable.probe(key)));
+    assertEquals("Wrong mate distance from the root", mateScore - 2, CompactEntry.getScore(
+        hashtable.probe(key, 5)));
+    assertEquals("Wrong ply of a mate entry", ply, CompactEntry.getPly(hashtable.probe(key,
+        5)));
+
+    hashtable.store(key, ply, -mateScore, 2, PlyHashtable.BOUND_EXACT, 3);
+    assertEquals("Wrong distance of a mate against the player", -mateScore + 2, CompactEntry
+        .getScore(hashtable.probe(key, 5)));
+  }
+}
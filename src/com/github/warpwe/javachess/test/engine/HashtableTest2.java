@@ -0,0 +1,184 @@
+/*
+ * HashtableTest2 - A test for the cutoffs with the hashtable scores. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See
+ * the GNU General Public License for more details. You should have received a copy of the GNU
+ * General Public License along with this program; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.BitBoardAnalyzerImpl;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.PlyGenerator;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.engine.SearchStatistics;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtable;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.ply.CompactPly;
+import com.github.warpwe.javachess.ply.IPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test to check, if the search uses the scores in the hashtable for cutoffs, but only the scores
+ * of searches, that were deep enough.
+ */
+public class HashtableTest2 extends TestCase {
+
+  // Static variables
+
+  /**
+   * The position of the test.
+   */
+  private static final String POSITION =
+      "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+  /**
+   * The depth of the repeated search.
+   */
+  private static final int SEARCH_DEPTH = 5;
+
+  /**
+   * The depth of the search with the prepared entries. The plies of the root are searched 1 ply
+   * less deep, and the quiescence search doesn't use the hashtable, so only the positions after the
+   * root plies are looked up.
+   */
+  private static final int SHALLOW_SEARCH_DEPTH = 2;
+
+  /**
+   * The score of the prepared entries. It would change the result of every search, if it was
+   * used.
+   */
+  private static final int FAKE_SCORE = 20000;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public HashtableTest2() {
+    super("The search uses the hashtable scores for cutoffs");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testrepeatedsearch();
+    testshallowentries();
+  }
+
+  /**
+   * Create a new engine for the test position.
+   *
+   * @return A new engine for the test position.
+   */
+  private ChessEngineImpl createEngine() {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, POSITION);
+    return new ChessEngineImpl(new GameImpl(), null, board, white);
+  }
+
+  /**
+   * Search the position twice with the same hashtable. The second search has to find the same ply
+   * with less nodes, since the results of the first search cut off most of the tree.
+   */
+  public void testrepeatedsearch() {
+    ChessEngineImpl engine = createEngine();
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(SEARCH_DEPTH);
+
+    IPly ply = engine.computeBestPly(limits);
+    SearchStatistics statistics = engine.getSearchStatistics();
+    IPly repeatedPly = engine.computeBestPly(limits);
+    SearchStatistics repeatedStatistics = engine.getSearchStatistics();
+
+    assertNotNull("No ply in the first search", ply);
+    assertEquals("The repeated search found another ply", ply.toString(), String
+        .valueOf(repeatedPly));
+    assertTrue("No hashtable cutoffs in the repeated search", repeatedStatistics
+        .getHashCutoffs() > 0);
+    assertTrue("The repeated search needed " + repeatedStatistics.getTotalNodes()
+        + " nodes instead of less than " + statistics.getTotalNodes(), repeatedStatistics
+        .getTotalNodes() < statistics.getTotalNodes());
+  }
+
+  /**
+   * Prepare entries with bounds, that would cut off every ply of the root, and check, that they
+   * are ignored, if they come from a search, that was not deep enough.
+   */
+  public void testshallowentries() {
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(SHALLOW_SEARCH_DEPTH);
+
+    ChessEngineImpl engine = createEngine();
+    IPly ply = engine.computeBestPly(limits);
+    SearchStatistics statistics = engine.getSearchStatistics();
+
+    // The entries are stored with the depth 0, but searched with the depth 1.
+    int[] bounds = { PlyHashtable.BOUND_LOWER, PlyHashtable.BOUND_UPPER };
+    int[] scores = { FAKE_SCORE, -FAKE_SCORE };
+    for (int b = 0; b < bounds.length; b++) {
+      engine = createEngine();
+      storeRootEntries(engine, bounds[b], scores[b], 0);
+      IPly shallowPly = engine.computeBestPly(limits);
+      SearchStatistics shallowStatistics = engine.getSearchStatistics();
+
+      assertEquals("A too shallow entry caused a cutoff", statistics.getHashCutoffs(),
+          shallowStatistics.getHashCutoffs());
+      assertEquals("A too shallow entry changed the ply", ply.toString(), String
+          .valueOf(shallowPly));
+      assertEquals("A too shallow entry changed the search", statistics.getTotalNodes(),
+          shallowStatistics.getTotalNodes());
+    }
+
+    // The same entries cut off the search, if they are deep enough.
+    engine = createEngine();
+    storeRootEntries(engine, PlyHashtable.BOUND_LOWER, FAKE_SCORE, 1);
+    engine.computeBestPly(limits);
+    assertTrue("A deep enough entry caused no cutoff", engine.getSearchStatistics()
+        .getHashCutoffs() > statistics.getHashCutoffs());
+  }
+
+  /**
+   * Store a entry for each position after a ply of the root.
+   *
+   * @param engine
+   *          The engine with the hashtable.
+   * @param bound
+   *          The bound type of the entries.
+   * @param score
+   *          The score of the entries from the view of the player, that has the next move.
+   * @param depth
+   *          The search depth of the entries.
+   */
+  private void storeRootEntries(ChessEngineImpl engine, int bound, int score, int depth) {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, POSITION);
+
+    IGame game = new GameImpl();
+    PlyGenerator plyGenerator = new PlyGenerator(game, new PlyHashtableImpl(100));
+    plyGenerator.setAnalyzer(new BitBoardAnalyzerImpl(game, plyGenerator));
+
+    IPly[] plies = plyGenerator.getPliesForColor(board, white);
+    for (int i = 0; i < plies.length; i++) {
+      int ply = CompactPly.encode(plies[i]);
+      int undoInfo = board.makePly(ply);
+      engine.getHashtable().store(board.getHashKey(!white), CompactPly.NO_PLY, score, depth,
+          bound, 1);
+      board.unmakePly(ply, undoInfo);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * MinimaxTest3 - A test of the quiescence search at the end of the search. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.ply.IAnalyzedPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that a search of depth 1 sees the recapture after the last ply. The white
+ * queen d1 can capture the pawn d5, but the pawn e6 captures the queen then.
+ */
+public class MinimaxTest3 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The current game.
+   */
+  IGame game;
+
+  /**
+   * The chess board.
+   */
+  IBitBoard board;
+
+  /**
+   * The chess engine.
+   */
+  ChessEngineImpl engine;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public MinimaxTest3() {
+    super("A test of the quiescence search, if a recapture is beyond the search depth");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testquiescence();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+
+    // Create a new game.
+    game = new GameImpl();
+
+    // Create a new board.
+    board = new BitBoardImpl();
+
+    // Create a engine instance.
+    engine = new ChessEngineImpl(game, null, board, true);
+
+    FENPosition.setPosition(board, "4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testquiescence() {
+    engine.setSearchDepth(1);
+    IAnalyzedPly bestPly = null;
+    try {
+      bestPly = engine.startMinimaxAlphaBeta(true);
+    }
+    catch (InterruptedException e) {
+      fail("Search was interrupted");
+    }
+
+    // Check if Qxd5 was delivered as the best ply.
+    assertTrue("Engine computed ply Qxd5", (bestPly.getPly().getSource().getSquareIndex() != 3)
+        || (bestPly.getPly().getDestination().getSquareIndex() != 35));
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * MinimaxTest4 - A test of the search on tactical positions. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.ply.IPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that the search finds the winning ply of some tactical positions with the
+ * principal variation search, the aspiration windows and each reduction and pruning technique. A
+ * reduction or pruning bug, that drops the winning line, fails this test. In zugzwang positions
+ * with only pawns, null move pruning must not change the ply.
+ */
+public class MinimaxTest4 extends TestCase {
+
+  // Static variables
+
+  /**
+   * The search depth, at which all the positions are solved.
+   */
+  private static final int SEARCH_DEPTH = 5;
+
+  /**
+   * Tactical positions (mostly from Win at Chess) and their best plies. The parallel search is
+   * tested with them, too.
+   */
+  static final String[][] positions = {
+      {
+          "2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - - 0 1", "g3g6"
+      }, {
+          "5rk1/1ppb3p/p1pb4/6q1/3P1p1r/2P1R2P/PP1BQ1P1/5RKN w - - 0 1", "e3g3"
+      }, {
+          "r1bq2rk/pp3pbp/2p1p1pQ/7P/3P4/2PB1N2/PP3PPR/2KR4 w - - 0 1", "h6h7"
+      }, {
+          "5k2/6pp/p1qN4/1p1p4/3P4/2PKP2Q/PP3r2/3R4 b - - 0 1", "c6c4"
+      }, {
+          "7k/p7/1R5K/6r1/6p1/6P1/8/8 w - - 0 1", "b6b7"
+      }, {
+          "rnbqkb1r/pppp1ppp/8/4P3/6n1/7P/PPPNPPP1/R1BQKBNR b KQkq - 0 1", "g4e3"
+      }, {
+          "r4q1k/p2bR1rp/2p2Q1N/5p2/5p2/2P5/PP3PPP/R5K1 w - - 0 1", "e7f7"
+      }, {
+          "3q1rk1/p4pp1/2pb3p/3p4/6Pr/1PNQ4/P1PB1PP1/4RRK1 b - - 0 1", "d6h2"
+      }, {
+          "2br2k1/2q3rn/p2NppQ1/2p1P3/Pp5R/4P3/1P3PPP/3R2K1 w - - 0 1", "h4h7"
+      }, {
+          // A mate on the back rank.
+          "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1", "d1d8"
+      }
+  };
+
+  /**
+   * Zugzwang positions with only pawns. A null ply would be the best ply in them, so the search
+   * would find another ply, if it used null move pruning here.
+   */
+  private static final String[] zugzwangPositions = {
+      "7k/5K2/5P1p/3p4/6P1/3p4/8/8 w - - 0 1", "8/8/1p1k4/1P6/2PK4/8/8/8 w - - 0 1"
+  };
+
+  /**
+   * The names of the configurations and the switches of null move pruning, late move reductions,
+   * futility pruning, razoring and late move pruning. The principal variation search and the
+   * aspiration windows are always used.
+   */
+  private static final String[] configurationNames = {
+      "principal variation search", "null move pruning", "late move reductions",
+      "futility pruning", "razoring", "late move pruning", "all of these techniques"
+  };
+
+  private static final boolean[][] configurations = {
+      {
+          false, false, false, false, false
+      }, {
+          true, false, false, false, false
+      }, {
+          false, true, false, false, false
+      }, {
+          false, false, true, false, false
+      }, {
+          false, false, false, true, false
+      }, {
+          false, false, false, false, true
+      }, {
+          true, true, true, true, true
+      }
+  };
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public MinimaxTest4() {
+    super("A test of the search, if the winning ply of tactical positions is found");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testtactics();
+    testzugzwang();
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testtactics() {
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(SEARCH_DEPTH);
+
+    for (int c = 0; c < configurations.length; c++) {
+      for (int p = 0; p < positions.length; p++) {
+        IPly ply = createEngine(positions[p][0], configurations[c]).computeBestPly(limits);
+        assertEquals("Wrong ply with " + configurationNames[c] + " in " + positions[p][0],
+            positions[p][1], ply.getSource().toSquareName() + ply.getDestination()
+                .toSquareName());
+      }
+    }
+  }
+
+  /**
+   * Check, that the search finds the same ply in the zugzwang positions with and without null move
+   * pruning.
+   */
+  public void testzugzwang() {
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(SEARCH_DEPTH);
+
+    for (int p = 0; p < zugzwangPositions.length; p++) {
+      IPly ply = createEngine(zugzwangPositions[p], configurations[0]).computeBestPly(limits);
+      IPly nullMovePly = createEngine(zugzwangPositions[p], configurations[1]).computeBestPly(
+          limits);
+      assertEquals("Null move pruning changed the ply in " + zugzwangPositions[p], ply.toString(),
+          nullMovePly.toString());
+    }
+  }
+
+  /**
+   * Create a engine for a position.
+   *
+   * @param fen
+   *          The position in Forsyth-Edwards notation.
+   * @param configuration
+   *          The switches of the reduction and pruning techniques.
+   * @return The new engine.
+   */
+  private ChessEngineImpl createEngine(String fen, boolean[] configuration) {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, fen);
+
+    ChessEngineImpl engine = new ChessEngineImpl(new GameImpl(), null, board, white);
+    engine.setLosingCapturePruning(false);
+    engine.setNullMovePruning(configuration[0]);
+    engine.setLateMoveReductions(configuration[1]);
+    engine.setFutilityPruning(configuration[2]);
+    engine.setRazoring(configuration[3]);
+    engine.setLateMovePruning(configuration[4]);
+    return engine;
+  }
+}
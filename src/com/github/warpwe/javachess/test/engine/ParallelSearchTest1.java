@@ -0,0 +1,229 @@
+/*
+ * ParallelSearchTest1 - A test of the parallel search with helper threads. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.BitBoardAnalyzerImpl;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.PlyGenerator;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.ply.IPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that a search with several threads returns a legal ply, finds the same
+ * plies as a single thread in the tactical positions of MinimaxTest4 and that the helper threads
+ * stop with the search.
+ */
+public class ParallelSearchTest1 extends TestCase {
+
+  // Static variables
+
+  /**
+   * The number of threads of the parallel search.
+   */
+  private static final int THREAD_COUNT = 4;
+
+  /**
+   * The search depth of the tactical positions.
+   */
+  private static final int SEARCH_DEPTH = 5;
+
+  /**
+   * The position of the time tests.
+   */
+  private static final String TIME_POSITION =
+      "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+  /**
+   * The search time in milliseconds, before the search is stopped.
+   */
+  private static final int SEARCH_TIME = 500;
+
+  /**
+   * The time in milliseconds, that the search might take to stop all threads.
+   */
+  private static final long STOP_LATENCY = 200L;
+
+  // Instance variables
+
+  /**
+   * The ply of a search in a background thread.
+   */
+  private volatile IPly backgroundPly;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public ParallelSearchTest1() {
+    super("A test of the parallel search with " + THREAD_COUNT + " threads");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testtactics();
+    teststopsearch();
+    testdeadline();
+  }
+
+  /**
+   * Create a new engine for a position.
+   *
+   * @param fen
+   *          The position in Forsyth-Edwards notation.
+   * @param threadCount
+   *          The number of search threads.
+   * @return A new engine for the position.
+   */
+  private ChessEngineImpl createEngine(String fen, int threadCount) {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, fen);
+    ChessEngineImpl engine = new ChessEngineImpl(new GameImpl(), null, board, white);
+    engine.setThreadCount(threadCount);
+    return engine;
+  }
+
+  /**
+   * Check, if a ply is legal in a position.
+   *
+   * @param fen
+   *          The position in Forsyth-Edwards notation.
+   * @param ply
+   *          The ply to check.
+   * @return true, if the ply is one of the legal plies of the position.
+   */
+  private boolean isLegalPly(String fen, IPly ply) {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, fen);
+
+    IGame game = new GameImpl();
+    PlyGenerator plyGenerator = new PlyGenerator(game, new PlyHashtableImpl(100));
+    plyGenerator.setAnalyzer(new BitBoardAnalyzerImpl(game, plyGenerator));
+
+    IPly[] plies = plyGenerator.getPliesForColor(board, white);
+    for (int i = 0; i < plies.length; i++) {
+      if (plies[i].equals(ply)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Test, that the parallel search returns a legal ply and the same ply as a single thread in the
+   * tactical positions. The threads share the hashtable, so the order of the plies depends on the
+   * timing of the threads. If 2 plies have the same score, the parallel search might return the
+   * other one, so a different ply has to have the same score.
+   */
+  public void testtactics() {
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(SEARCH_DEPTH);
+
+    for (int p = 0; p < MinimaxTest4.positions.length; p++) {
+      String fen = MinimaxTest4.positions[p][0];
+      ChessEngineImpl engine = createEngine(fen, 1);
+      IPly ply = engine.computeBestPly(limits);
+      ChessEngineImpl parallelEngine = createEngine(fen, THREAD_COUNT);
+      IPly parallelPly = parallelEngine.computeBestPly(limits);
+
+      assertNotNull("No ply with " + THREAD_COUNT + " threads in " + fen, parallelPly);
+      assertTrue("Illegal ply " + parallelPly + " with " + THREAD_COUNT + " threads in " + fen,
+          isLegalPly(fen, parallelPly));
+      if (!ply.toString().equals(parallelPly.toString())) {
+        assertEquals("Different plies " + ply + " and " + parallelPly + " with 1 and "
+            + THREAD_COUNT + " threads in " + fen, engine.getBestPly().getScore(), parallelEngine
+            .getBestPly().getScore());
+      }
+    }
+  }
+
+  /**
+   * Test, that a infinite search with helper threads ends shortly after it was stopped.
+   */
+  public void teststopsearch() {
+    SearchLimits limits = new SearchLimits();
+    limits.setInfinite(true);
+    IPly ply = searchInBackground(createEngine(TIME_POSITION, THREAD_COUNT), limits, true);
+
+    assertNotNull("No ply after the search was stopped", ply);
+    assertTrue("Illegal ply " + ply + " after the search was stopped", isLegalPly(TIME_POSITION,
+        ply));
+  }
+
+  /**
+   * Test, that a search with helper threads and a fixed time ends shortly after the deadline.
+   */
+  public void testdeadline() {
+    SearchLimits limits = new SearchLimits();
+    limits.setMoveTime(SEARCH_TIME);
+    IPly ply = searchInBackground(createEngine(TIME_POSITION, THREAD_COUNT), limits, false);
+
+    assertNotNull("No ply with a fixed search time", ply);
+    assertTrue("Illegal ply " + ply + " with a fixed search time", isLegalPly(TIME_POSITION,
+        ply));
+  }
+
+  /**
+   * Search a position in a background thread and wait, until the search ends. computeBestPly only
+   * returns, when all the helper threads ended, so the search has to end within the latency after
+   * the search time.
+   *
+   * @param engine
+   *          The engine of the position.
+   * @param limits
+   *          The limits of the search.
+   * @param stop
+   *          true, if the search is stopped after the search time.
+   * @return The ply of the search.
+   */
+  private IPly searchInBackground(final ChessEngineImpl engine, final SearchLimits limits,
+      boolean stop) {
+    backgroundPly = null;
+    Thread thread = new Thread(new Runnable() {
+      public void run() {
+        backgroundPly = engine.computeBestPly(limits);
+      }
+    });
+
+    long startTime = System.currentTimeMillis();
+    thread.start();
+    try {
+      if (stop) {
+        Thread.sleep(SEARCH_TIME);
+        engine.stopSearch();
+      }
+      thread.join(SEARCH_TIME + STOP_LATENCY);
+    }
+    catch (InterruptedException e) {
+      fail("Test was interrupted");
+    }
+    long time = System.currentTimeMillis() - startTime;
+
+    assertFalse("Search with " + THREAD_COUNT + " threads didn't end after " + time + " ms",
+        thread.isAlive());
+    assertFalse("Engine is still searching", engine.isSearching());
+    return backgroundPly;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * PerftTest1 - A test of the ply generator with the counts of reference positions. Copyright (C)
+ * 2003 The Java-Chess team <info@java-chess.de> This program is free software; you can
+ * redistribute it and/or modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2 of the License, or (at your option) any later
+ * version. This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE. See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.Perft;
+
+import junit.framework.TestCase;
+
+/**
+ * A test to check the number of leaf nodes of the ply tree of some reference positions with their
+ * published counts. The positions have castlings, en passant attacks, transformations and
+ * captures with transformations.
+ */
+public class PerftTest1 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The chess board.
+   */
+  IBitBoard board;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public PerftTest1() {
+    super("Perft counts of the reference positions");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testperft();
+    testdivide();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+    board = new BitBoardImpl();
+  }
+
+  /**
+   * Count the plies of the reference positions without and with memoized counts.
+   */
+  public void testperft() {
+    checkCount(FENPosition.INITIAL_POSITION, 4, 197281L);
+    checkCount("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 3,
+        97862L);
+    checkCount("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 4, 43238L);
+    checkCount("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 3, 9467L);
+    checkCount("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 3, 62379L);
+  }
+
+  /**
+   * Check, if the parallel divide gives the same count as the sequential count.
+   */
+  public void testdivide() {
+    boolean white = FENPosition.setPosition(board,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      assertEquals("Wrong parallel divide count", 2039L, new Perft(1024).divide(board, white, 2,
+          pool, null));
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Check the count of a position.
+   *
+   * @param fen
+   *          The position in the Forsyth-Edwards notation.
+   * @param depth
+   *          The depth of the tree.
+   * @param expected
+   *          The published count.
+   */
+  private void checkCount(String fen, int depth, long expected) {
+    boolean white = FENPosition.setPosition(board, fen);
+    assertEquals("Wrong count for " + fen, expected, new Perft(0).perft(board, white, depth));
+    assertEquals("Wrong memoized count for " + fen, expected, new Perft(4096).perft(board, white,
+        depth));
+  }
+}
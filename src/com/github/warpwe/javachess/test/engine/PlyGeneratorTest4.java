@@ -105,7 +105,7 @@ public class PlyGeneratorTest4 extends TestCase {
 
     // Move the black pawn from g6 - g5 (doesn't matter anyway. Just keep
     // the attack on h8 open.
-    doPly(new PlyImpl(new PositionImpl(66), new PositionImpl(66 - 8), false));
+    doPly(new PlyImpl(new PositionImpl(46), new PositionImpl(46 - 8), false));
   }
 
   /**
@@ -0,0 +1,112 @@
+/*
+ * PlyPickerTest1 - A test of the ordering of the quiet plies. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version. This program
+ * is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.PlyGenerator;
+import com.github.warpwe.javachess.engine.PlyHistory;
+import com.github.warpwe.javachess.engine.PlyPicker;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.ply.CompactPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that the ply picker returns the counter ply and the plies with a good
+ * history score first. In the initial position, Nc3 refuted e5 and Nf3 caused a cutoff after a3
+ * failed.
+ */
+public class PlyPickerTest1 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The chess board.
+   */
+  IBitBoard board;
+
+  /**
+   * The history of the cutoffs.
+   */
+  PlyHistory history;
+
+  /**
+   * The ply picker.
+   */
+  PlyPicker plyPicker;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public PlyPickerTest1() {
+    super("A test of the ordering of the quiet plies with the history and counter plies");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testordering();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+
+    // Create a new board.
+    board = new BitBoardImpl();
+    board.initialPosition();
+
+    // Create the picker with a empty history.
+    history = new PlyHistory();
+    plyPicker = new PlyPicker(new PlyGenerator(new GameImpl(), board, new PlyHashtableImpl(100)),
+        history);
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testordering() {
+    int a3 = CompactPly.encode(8, 16, false, CompactPly.REGULAR, 0);
+    int nf3 = CompactPly.encode(6, 21, false, CompactPly.REGULAR, 0);
+    int nc3 = CompactPly.encode(1, 18, false, CompactPly.REGULAR, 0);
+    int e5 = CompactPly.encode(52, 36, false, CompactPly.REGULAR, 0);
+
+    history.storeCutoff(true, CompactPly.NO_PLY, nf3, 4, new int[] {
+      a3
+    }, 1);
+    history.storeCutoff(true, e5, nc3, 1, new int[0], 0);
+
+    plyPicker.init(board, true, CompactPly.NO_PLY, CompactPly.NO_PLY, CompactPly.NO_PLY, history
+        .getCounterPly(true, e5));
+    assertEquals("Counter ply is not the first ply", nc3, plyPicker.nextPly());
+    assertEquals("Ply with the best history score is not the next ply", nf3, plyPicker.nextPly());
+
+    int plyCount = 2;
+    int lastPly = CompactPly.NO_PLY;
+    for (int ply = plyPicker.nextPly(); ply != CompactPly.NO_PLY; ply = plyPicker.nextPly()) {
+      assertTrue("Ply returned twice", (ply != nc3) && (ply != nf3));
+      lastPly = ply;
+      plyCount++;
+    }
+    assertEquals("Wrong number of plies", 20, plyCount);
+    assertEquals("Ply with a bad history score is not the last ply", a3, lastPly);
+  }
+}
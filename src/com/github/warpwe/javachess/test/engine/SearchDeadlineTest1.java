@@ -0,0 +1,211 @@
+/*
+ * SearchDeadlineTest1 - A test of the deadline of a search. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.listener.ISearchListener;
+import com.github.warpwe.javachess.listener.SearchEvent;
+import com.github.warpwe.javachess.ply.IPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that a search with a fixed time stops shortly after the deadline, that the
+ * deadline also interrupts a single iteration and that a interrupted iteration returns it's
+ * completely searched root ply.
+ */
+public class SearchDeadlineTest1 extends TestCase implements ISearchListener {
+
+  // Static variables
+
+  /**
+   * The position of the time test.
+   */
+  private static final String TIME_POSITION =
+      "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+  /**
+   * A tactical position, where the best ply changes during the iterations.
+   */
+  private static final String TACTICAL_POSITION =
+      "2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - - 0 1";
+
+  /**
+   * The fixed search time in milliseconds.
+   */
+  private static final int MOVE_TIME = 500;
+
+  /**
+   * The time in milliseconds, that the search might take longer than the fixed search time.
+   */
+  private static final long STOP_LATENCY = 100L;
+
+  /**
+   * A search depth, that is not completed within the fixed search time.
+   */
+  private static final int DEEP_SEARCH_DEPTH = 20;
+
+  // Instance variables
+
+  /**
+   * The best ply of the last completed iteration.
+   */
+  private String iterationPly;
+
+  /**
+   * The root ply, that replaced the best ply of the last iteration, when the search was stopped.
+   */
+  private String interruptedPly;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public SearchDeadlineTest1() {
+    super("A test of the deadline of a search and of interrupted iterations");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testmovetime();
+    testdeadline();
+    testinterruptediteration();
+  }
+
+  /**
+   * Create a new engine for a position.
+   *
+   * @param fen
+   *          The position in Forsyth-Edwards notation.
+   * @return A new engine for the position.
+   */
+  private ChessEngineImpl createEngine(String fen) {
+    IBitBoard board = new BitBoardImpl();
+    boolean white = FENPosition.setPosition(board, fen);
+    return new ChessEngineImpl(new GameImpl(), null, board, white);
+  }
+
+  /**
+   * Test, that a search with a fixed time doesn't take much longer than this time.
+   */
+  public void testmovetime() {
+    SearchLimits limits = new SearchLimits();
+    limits.setMoveTime(MOVE_TIME);
+
+    ChessEngineImpl engine = createEngine(TIME_POSITION);
+    long startTime = System.currentTimeMillis();
+    assertNotNull("No ply with a fixed search time", engine.computeBestPly(limits));
+    long time = System.currentTimeMillis() - startTime;
+    assertTrue("Search took " + time + " ms with a fixed time of " + MOVE_TIME + " ms",
+        time <= MOVE_TIME + STOP_LATENCY);
+  }
+
+  /**
+   * Test, that the deadline interrupts a iteration, that is too deep to be completed in time.
+   */
+  public void testdeadline() {
+    ChessEngineImpl engine = createEngine(TIME_POSITION);
+    engine.setSearchDepth(DEEP_SEARCH_DEPTH);
+
+    long startTime = System.currentTimeMillis();
+    engine.setSearchDeadline(startTime + MOVE_TIME);
+    try {
+      engine.startMinimaxAlphaBeta(engine.isWhite());
+      fail("The search of depth " + DEEP_SEARCH_DEPTH + " was not interrupted");
+    }
+    catch (InterruptedException expected) {
+    }
+    long time = System.currentTimeMillis() - startTime;
+    assertTrue("Search took " + time + " ms with a deadline after " + MOVE_TIME + " ms",
+        time <= MOVE_TIME + STOP_LATENCY);
+  }
+
+  /**
+   * Test, that a interrupted iteration returns the root ply, that was searched completely and is
+   * better than the best ply of the last iteration.
+   */
+  public void testinterruptediteration() {
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(8);
+
+    ChessEngineImpl engine = createEngine(TACTICAL_POSITION);
+    engine.addEngineStatusListener(this);
+    IPly ply = engine.computeBestPly(limits);
+
+    assertNotNull("The best ply never changed within a iteration", interruptedPly);
+    assertFalse("The ply of the last completed iteration was returned", ply.toString().equals(
+        iterationPly));
+    assertEquals("Wrong ply of the interrupted iteration", interruptedPly, ply.toString());
+  }
+
+  /**
+   * The settings of the engine are not used by this test.
+   *
+   * @param engine
+   *          The engine, whose settings changed.
+   */
+  public void engineStatusChanged(ChessEngineImpl engine) {
+  }
+
+  /**
+   * Store the best ply of a completed iteration.
+   *
+   * @param event
+   *          The result of the iteration.
+   */
+  public void iterationCompleted(SearchEvent event) {
+    iterationPly = event.getBestPly().getPly().toString();
+  }
+
+  /**
+   * Stop the search, when a root ply is better than the best ply of the last iteration.
+   *
+   * @param event
+   *          The new principal variation.
+   */
+  public void principalVariationChanged(SearchEvent event) {
+    String ply = event.getBestPly().getPly().toString();
+    if ((interruptedPly == null) && (iterationPly != null) && !ply.equals(iterationPly)) {
+      interruptedPly = ply;
+      event.getEngine().stopSearch();
+    }
+  }
+
+  /**
+   * The result is checked by the test itself.
+   *
+   * @param event
+   *          The result of the search.
+   */
+  public void bestPlyFound(SearchEvent event) {
+  }
+
+  /**
+   * The engine is not reset by this test.
+   *
+   * @param engine
+   *          The engine, that was reset.
+   */
+  public void engineReset(ChessEngineImpl engine) {
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * SearchLimitsTest1 - A test of the depth and node limits of a search. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.ply.IPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that a search with a depth limit ends at this depth and returns the same
+ * ply after the same number of analyzed boards every time, and that a node limit ends the search.
+ */
+public class SearchLimitsTest1 extends TestCase {
+
+  // Static variables
+
+  /**
+   * The position of the test.
+   */
+  private static final String POSITION =
+      "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+  /**
+   * The number of threads of the parallel search.
+   */
+  private static final int THREAD_COUNT = 4;
+
+  /**
+   * The node limit of the parallel search.
+   */
+  private static final long THREAD_NODE_LIMIT = 20000L;
+
+  /**
+   * The number of nodes, that a search thread might search beyond the node limit. The threads
+   * check the limit every 1024 nodes, and the counts of the other threads might be up to 1024
+   * nodes behind.
+   */
+  private static final long NODE_LIMIT_TOLERANCE = 2048L;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public SearchLimitsTest1() {
+    super("A test of the depth and node limits of a search");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testsearchlimits();
+  }
+
+  /**
+   * Create a new engine for the test position.
+   *
+   * @return A new engine, that plays white.
+   */
+  private ChessEngineImpl createEngine() {
+    IBitBoard board = new BitBoardImpl();
+    FENPosition.setPosition(board, POSITION);
+    return new ChessEngineImpl(new GameImpl(), null, board, true);
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testsearchlimits() {
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(4);
+
+    // 2 new engines search the same position with the same depth limit.
+    ChessEngineImpl engine1 = createEngine();
+    ChessEngineImpl engine2 = createEngine();
+    IPly ply1 = engine1.computeBestPly(limits);
+    IPly ply2 = engine2.computeBestPly(limits);
+    assertEquals("Wrong search depth", 4, engine1.getSearchDepth());
+    assertEquals("Different plies with the same depth", ply1.toString(), ply2.toString());
+    assertEquals("Different number of analyzed boards with the same depth", engine1
+        .getAnalyzedBoards(), engine2.getAnalyzedBoards());
+
+    // A node limit ends the search, before the search depth of the depth limit is reached.
+    long nodes = engine1.getSearchStatistics().getTotalNodes() / 10;
+    limits = new SearchLimits();
+    limits.setNodes(nodes);
+    ChessEngineImpl engine3 = createEngine();
+    assertNotNull("No ply with a node limit", engine3.computeBestPly(limits));
+    assertTrue("Node limit was ignored", engine3.getSearchDepth() < 4);
+    assertTrue("Node limit was exceeded", engine3.getSearchStatistics().getTotalNodes() <= nodes
+        + NODE_LIMIT_TOLERANCE);
+
+    // The node limit counts the nodes of all search threads.
+    limits.setNodes(THREAD_NODE_LIMIT);
+    ChessEngineImpl engine4 = createEngine();
+    engine4.setThreadCount(THREAD_COUNT);
+    assertNotNull("No ply with a node limit and " + THREAD_COUNT + " threads", engine4
+        .computeBestPly(limits));
+    assertTrue("Node limit was exceeded by the helper threads", engine4.getSearchStatistics()
+        .getTotalNodes() <= THREAD_NODE_LIMIT + THREAD_COUNT * NODE_LIMIT_TOLERANCE);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * SearchStatisticsTest1 - A test of the statistics of a search. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version. This program
+ * is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.engine.SearchStatistics;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.listener.ISearchListener;
+import com.github.warpwe.javachess.listener.SearchEvent;
+
+import junit.framework.TestCase;
+
+/**
+ * A test, to make sure, that the statistics are published after each iteration and that the
+ * counters of the final statistics fit together.
+ */
+public class SearchStatisticsTest1 extends TestCase implements ISearchListener {
+
+  // Static variables
+
+  /**
+   * The position of the test.
+   */
+  private static final String POSITION =
+      "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+  // Instance variables
+
+  /**
+   * The statistics of the completed iterations.
+   */
+  private List<SearchStatistics> iterations = new ArrayList<SearchStatistics>();
+
+  /**
+   * The statistics of the best ply event.
+   */
+  private SearchStatistics finalStatistics;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public SearchStatisticsTest1() {
+    super("A test of the search statistics");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testsearchstatistics();
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testsearchstatistics() {
+    IBitBoard board = new BitBoardImpl();
+    FENPosition.setPosition(board, POSITION);
+    ChessEngineImpl engine = new ChessEngineImpl(new GameImpl(), null, board, true);
+    engine.addEngineStatusListener(this);
+
+    SearchLimits limits = new SearchLimits();
+    limits.setDepth(4);
+    engine.computeBestPly(limits);
+
+    // Every iteration publishes it's statistics, and the nodes only grow.
+    assertEquals("Wrong number of iterations", 4, iterations.size());
+    long lastNodes = 0L;
+    for (int i = 0; i < iterations.size(); i++) {
+      SearchStatistics statistics = iterations.get(i);
+      assertEquals("Wrong completed depth", i + 1, statistics.getCompletedDepth());
+      assertTrue("Nodes didn't grow", statistics.getTotalNodes() > lastNodes);
+      lastNodes = statistics.getTotalNodes();
+    }
+
+    // The final statistics are the same as the ones of the engine after the search.
+    assertNotNull("No statistics with the best ply", finalStatistics);
+    SearchStatistics statistics = engine.getSearchStatistics();
+    assertEquals("Different final statistics", finalStatistics.getTotalNodes(), statistics
+        .getTotalNodes());
+
+    long iterationNodes = 0L;
+    for (int depth = 1; depth <= 4; depth++) {
+      iterationNodes += statistics.getIterationNodes(depth);
+    }
+    assertEquals("Iterations don't add up to the nodes", statistics.getTotalNodes(),
+        iterationNodes);
+    assertTrue("No quiescence nodes", statistics.getQuiescenceNodes() > 0L);
+    assertTrue("Selective depth below the search depth", statistics.getSelectiveDepth() >= 4);
+    assertTrue("No hashtable probes", statistics.getHashProbes() > 0L);
+    assertTrue("More hits than probes", statistics.getHashHits() <= statistics.getHashProbes());
+    assertTrue("More hashtable cutoffs than hits", statistics.getHashCutoffs() <= statistics
+        .getHashHits());
+    assertTrue("No cutoffs", statistics.getCutoffs() > 0L);
+    assertTrue("Wrong first ply cutoff rate", (statistics.getFirstPlyCutoffRate() > 0.0)
+        && (statistics.getFirstPlyCutoffRate() <= 1.0));
+    assertTrue("No branching factor", statistics.getEffectiveBranchingFactor() > 0.0);
+  }
+
+  /**
+   * The settings of the engine are not used by this test.
+   *
+   * @param engine
+   *          The engine, whose settings changed.
+   */
+  public void engineStatusChanged(ChessEngineImpl engine) {
+  }
+
+  /**
+   * Store the statistics of a completed iteration.
+   *
+   * @param event
+   *          The result of the iteration.
+   */
+  public void iterationCompleted(SearchEvent event) {
+    iterations.add(event.getStatistics());
+  }
+
+  /**
+   * The principal variations are not used by this test.
+   *
+   * @param event
+   *          The new principal variation.
+   */
+  public void principalVariationChanged(SearchEvent event) {
+  }
+
+  /**
+   * Store the statistics of the search.
+   *
+   * @param event
+   *          The result of the search.
+   */
+  public void bestPlyFound(SearchEvent event) {
+    finalStatistics = event.getStatistics();
+  }
+
+  /**
+   * The engine is not reset by this test.
+   *
+   * @param engine
+   *          The engine, that was reset.
+   */
+  public void engineReset(ChessEngineImpl engine) {
+  }
+}
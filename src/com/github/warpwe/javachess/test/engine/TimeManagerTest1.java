@@ -0,0 +1,120 @@
+/*
+ * TimeManagerTest1 - A test of the decisions of the time manager. Copyright (C) 2003 The Java-Chess
+ * team <info@java-chess.de> This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version. This program
+ * is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import com.github.warpwe.javachess.engine.TimeManager;
+import com.github.warpwe.javachess.ply.CompactPly;
+
+import junit.framework.TestCase;
+
+/**
+ * A test of the time limits and the iteration decisions of the time manager.
+ */
+public class TimeManagerTest1 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The time manager.
+   */
+  TimeManager timeManager;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public TimeManagerTest1() {
+    super("A test of the time manager");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testtimemanager();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+    timeManager = new TimeManager();
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testtimemanager() {
+    int ply = CompactPly.encode(12, 28, false, CompactPly.REGULAR, 0);
+
+    // A average search time may be exceeded, a fixed one not.
+    timeManager.start(10000, false, 0L);
+    assertEquals("Wrong optimum time", 10000L, timeManager.getOptimumTime());
+    assertEquals("Wrong maximum time", 30000L, timeManager.getMaximumTime());
+    timeManager.start(10000, true, 0L);
+    assertEquals("Wrong maximum time with a fixed time", 10000L, timeManager.getMaximumTime());
+
+    // The game clock limits the search time.
+    timeManager.start(10000, false, 60000L);
+    assertEquals("Wrong optimum time with a clock", 2000L, timeManager.getOptimumTime());
+    assertEquals("Wrong maximum time with a clock", 12000L, timeManager.getMaximumTime());
+
+    // A dropping score extends the maximum time once per iteration, up to a share of the clock.
+    timeManager.start(10000, false, 0L);
+    timeManager.failLow();
+    timeManager.failLow();
+    assertEquals("Wrong extended maximum time", 60000L, timeManager.getMaximumTime());
+    timeManager.start(10000, false, 200000L);
+    timeManager.failLow();
+    assertEquals("Wrong extended maximum time with a clock", 40000L, timeManager
+        .getMaximumTime());
+    timeManager.start(10000, true, 0L);
+    timeManager.failLow();
+    assertEquals("Fixed maximum time was extended", 10000L, timeManager.getMaximumTime());
+
+    // A single legal ply and a mate end the search in both modes.
+    timeManager.start(10000, true, 0L);
+    assertFalse("Search continued with a single ply", timeManager.isNextIterationAllowed(ply, 1,
+        1, false));
+    assertFalse("Search continued after a mate", timeManager.isNextIterationAllowed(ply, 1, 20,
+        true));
+    assertTrue("Fixed search time was not used", timeManager.isNextIterationAllowed(ply, 1, 20,
+        false));
+
+    timeManager.start(10000, false, 0L);
+    assertTrue("Average search time was not used", timeManager.isNextIterationAllowed(ply, 1, 20,
+        false));
+
+    // The best ply of the first iterations doesn't shrink the optimum time. After 600 ms, the
+    // next iteration is started, until 5 deeper iterations shrink the optimum time to 1000 ms.
+    timeManager.start(2000, false, 0L);
+    try {
+      Thread.sleep(600L);
+    }
+    catch (InterruptedException e) {
+      fail("Test was interrupted");
+    }
+    for (int depth = 1; depth < 5; depth++) {
+      assertTrue("Stable ply at depth " + depth + " shrinked the optimum time", timeManager
+          .isNextIterationAllowed(ply, depth, 20, false));
+    }
+    for (int depth = 5; depth < 9; depth++) {
+      timeManager.isNextIterationAllowed(ply, depth, 20, false);
+    }
+    assertFalse("Stable ply of the deeper iterations didn't shrink the optimum time", timeManager
+        .isNextIterationAllowed(ply, 9, 20, false));
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * UCITest1 - A test of the UCI front-end. Copyright (C) 2003 The Java-Chess team
+ * <info@java-chess.de> This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or (at your option) any later version. This program is
+ * distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.test.engine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import com.github.warpwe.javachess.uci.UCIEngine;
+
+import junit.framework.TestCase;
+
+/**
+ * A test of the UCI front-end, that sets up positions with plies in coordinate notation and
+ * searches them. The scores of mates are sent as the number of moves until the mate.
+ */
+public class UCITest1 extends TestCase {
+
+  // Instance variables
+
+  /**
+   * The output of the front-end.
+   */
+  ByteArrayOutputStream output;
+
+  /**
+   * The UCI front-end.
+   */
+  UCIEngine uciEngine;
+
+  // Constructors
+
+  /**
+   * Create a new instance of this test.
+   */
+  public UCITest1() {
+    super("A test of the UCI front-end");
+  }
+
+  // Methods
+
+  /**
+   * Run the actual test(s).
+   */
+  public void runTest() {
+    testuci();
+  }
+
+  /**
+   * Prepare the test(s).
+   */
+  protected void setUp() {
+    output = new ByteArrayOutputStream();
+    uciEngine = new UCIEngine(new BufferedReader(new StringReader("")), new PrintStream(output));
+  }
+
+  /**
+   * Run the actual test.
+   */
+  public void testuci() {
+    uciEngine.processCommand("uci");
+    assertTrue("No uciok", output.toString().contains("uciok"));
+
+    // The rook mates on the 8th row.
+    uciEngine.processCommand("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+    uciEngine.processCommand("go depth 3");
+    assertTrue("Mate was not found", waitForBestPly(1).startsWith("bestmove a1a8"));
+    assertTrue("Wrong score of a mate in 1", output.toString().contains(" score mate 1 "));
+
+    // Black has to escape from the check with Kb8 and Qh8 mates, so the engine is mated in 1.
+    uciEngine.processCommand("position fen k7/8/1K6/8/8/8/8/7Q b - - 0 1");
+    uciEngine.processCommand("go depth 3");
+    assertTrue("Wrong ply of black", waitForBestPly(2).startsWith("bestmove a8b8"));
+    assertTrue("Wrong score of a mate against the engine", output.toString().contains(
+        " score mate -1 "));
+
+    // The plies include a castling, so it's white's turn after them.
+    uciEngine.processCommand("position startpos moves e2e4 e7e5 g1f3 b8c6 f1c4 g8f6 e1g1 f8c5 "
+        + "d2d3 d7d6");
+    uciEngine.processCommand("go depth 2");
+    String bestPly = waitForBestPly(3);
+    assertFalse("A ply was ignored", output.toString().contains("Illegal ply"));
+    assertTrue("No ply for white", "abcdefgh".indexOf(bestPly.charAt(9)) >= 0
+        && "12345".indexOf(bestPly.charAt(10)) >= 0);
+
+    assertFalse("A info line was repeated", hasRepeatedInfo());
+
+    uciEngine.processCommand("position startpos moves e2e5");
+    assertTrue("Illegal ply was accepted", output.toString().contains("Illegal ply e2e5"));
+    uciEngine.processCommand("quit");
+  }
+
+  /**
+   * Check, if a info line has the same depth, score and principal variation as the line before it.
+   *
+   * @return true, if a info line was repeated.
+   */
+  private boolean hasRepeatedInfo() {
+    String[] lines = output.toString().split("\\r?\\n");
+    String lastInfo = null;
+    for (int i = 0; i < lines.length; i++) {
+      if (lines[i].startsWith("info depth ")) {
+        // The tokens are "info depth <depth> seldepth <depth> score <unit> <score> ...".
+        String[] tokens = lines[i].split(" ");
+        int pv = lines[i].indexOf(" pv ");
+        String info = tokens[2] + " " + tokens[6] + " " + tokens[7]
+            + ((pv >= 0) ? lines[i].substring(pv) : "");
+        if (info.equals(lastInfo)) {
+          return true;
+        }
+        lastInfo = info;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Wait for the best ply of a search.
+   *
+   * @param count
+   *          The number of best plies, that were sent with this one.
+   * @return The line with the best ply.
+   */
+  private String waitForBestPly(int count) {
+    for (int i = 0; i < 1000; i++) {
+      String[] lines = output.toString().split("\\r?\\n");
+      int found = 0;
+      for (int j = 0; j < lines.length; j++) {
+        if (lines[j].startsWith("bestmove") && (++found == count)) {
+          return lines[j];
+        }
+      }
+      try {
+        Thread.sleep(10L);
+      }
+      catch (InterruptedException e) {
+        break;
+      }
+    }
+    fail("No best ply");
+    return null;
+  }
+}
@@ -43,6 +43,15 @@ public interface GameTimer {
    */
   boolean isRunning();
 
+  /**
+   * Get the remaining time of a player.
+   *
+   * @param white
+   *          true, if the remaining time of the white player is requested.
+   * @return The remaining time in milliseconds.
+   */
+  long getRemainingTime(boolean white);
+
   /**
    * Add a action listener to the timer.
    *
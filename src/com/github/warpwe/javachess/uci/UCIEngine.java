@@ -0,0 +1,620 @@
+/*
+ * UCIEngine - A front-end, that connects the engine to a UCI chess GUI. Copyright (C) 2003 The
+ * Java-Chess team <info@java-chess.de> This program is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option) any later version. This
+ * program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details. You should have received a copy of the GNU General Public
+ * License along with this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package com.github.warpwe.javachess.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import com.github.warpwe.javachess.bitboard.BitBoardImpl;
+import com.github.warpwe.javachess.bitboard.FENPosition;
+import com.github.warpwe.javachess.bitboard.IBitBoard;
+import com.github.warpwe.javachess.engine.BitBoardAnalyzerImpl;
+import com.github.warpwe.javachess.engine.ChessEngineImpl;
+import com.github.warpwe.javachess.engine.IBitBoardAnalyzer;
+import com.github.warpwe.javachess.engine.PlyGenerator;
+import com.github.warpwe.javachess.engine.SearchLimits;
+import com.github.warpwe.javachess.engine.SearchStatistics;
+import com.github.warpwe.javachess.engine.hashtable.PlyHashtableImpl;
+import com.github.warpwe.javachess.game.GameImpl;
+import com.github.warpwe.javachess.game.IGame;
+import com.github.warpwe.javachess.jmx.EngineMonitor;
+import com.github.warpwe.javachess.listener.ISearchListener;
+import com.github.warpwe.javachess.listener.SearchEvent;
+import com.github.warpwe.javachess.ply.CompactPly;
+import com.github.warpwe.javachess.ply.IPly;
+import com.github.warpwe.javachess.position.IllegalPositionException;
+
+/**
+ * This class connects the engine to a chess GUI or tournament manager, that speaks the Universal
+ * Chess Interface (UCI) protocol over the standard input and output. It doesn't use any AWT or
+ * Swing classes, so the engine can run on a headless server.
+ * <p>
+ * The commands uci, isready, setoption (Hash, Threads and Ponder), ucinewgame, position, go, stop,
+ * ponderhit and quit are supported. The search runs in it's own thread, so the engine reads the
+ * commands, while it searches. The info lines are sent, when the engine reports a completed
+ * iteration or a new principal variation to it's search listeners. A line with the same depth,
+ * score and principal variation as the line before it is not sent again.
+ */
+public class UCIEngine implements Runnable, ISearchListener {
+
+  // Static variables
+
+  /**
+   * The name of the engine.
+   */
+  private static final String ENGINE_NAME = "Java-Chess";
+
+  /**
+   * The authors of the engine.
+   */
+  private static final String ENGINE_AUTHOR = "The Java-Chess team";
+
+  /**
+   * The maximum hashtable size in megabytes.
+   */
+  private static final int MAX_HASHTABLE_SIZE = 1024;
+
+  /**
+   * The maximum number of search threads.
+   */
+  private static final int MAX_THREADS = 64;
+
+  /**
+   * The time in milliseconds between 2 attempts to stop a search.
+   */
+  private static final long STOP_INTERVAL = 10L;
+
+  /**
+   * The value of a pawn in the scores of the engine. UCI expects the scores in centipawns.
+   */
+  private static final int PAWN_VALUE = 90;
+
+  /**
+   * The lowest score of a checkmate. The engine scores a checkmate after n plies with
+   * WHITE_HAS_WON - n.
+   */
+  private static final int MIN_MATE_SCORE = IBitBoardAnalyzer.WHITE_HAS_WON
+      - IBitBoardAnalyzer.MAX_PLY;
+
+  // Instance variables
+
+  /**
+   * The input with the commands of the GUI.
+   */
+  private BufferedReader _input;
+
+  /**
+   * The output to the GUI.
+   */
+  private PrintStream _output;
+
+  /**
+   * The game with the plies of the current position.
+   */
+  private IGame _game;
+
+  /**
+   * The board with the current position.
+   */
+  private IBitBoard _board;
+
+  /**
+   * The chess engine.
+   */
+  private ChessEngineImpl _engine;
+
+  /**
+   * A ply generator to find the plies of the position command.
+   */
+  private PlyGenerator _plyGenerator;
+
+  /**
+   * Flag to indicate, if white has the next move in the current position.
+   */
+  private boolean _white = true;
+
+  /**
+   * The limits of the current search.
+   */
+  private SearchLimits _limits;
+
+  /**
+   * The thread of the current search or null, if the engine doesn't search.
+   */
+  private Thread _searchThread;
+
+  /**
+   * Flag to indicate, if the GUI sent a stop command for the current search.
+   */
+  private boolean _stopRequested;
+
+  /**
+   * The depth, score and principal variation of the last info line of the current search.
+   */
+  private String _lastInfo;
+
+  // Constructors
+
+  /**
+   * Create a new UCI front-end.
+   *
+   * @param input
+   *          The input with the commands of the GUI.
+   * @param output
+   *          The output to the GUI.
+   */
+  public UCIEngine(BufferedReader input, PrintStream output) {
+    _input = input;
+    _output = output;
+    _game = new GameImpl();
+    _board = new BitBoardImpl();
+    _engine = new ChessEngineImpl(_game, null, _board, true);
+    _engine.addEngineStatusListener(this);
+    _plyGenerator = new PlyGenerator(_game, new PlyHashtableImpl(2));
+    _plyGenerator.setAnalyzer(new BitBoardAnalyzerImpl(_game, _plyGenerator));
+    FENPosition.setPosition(_board, FENPosition.INITIAL_POSITION);
+  }
+
+  // Methods
+
+  /**
+   * Run the engine with the UCI protocol on the standard input and output.
+   *
+   * @param args
+   *          The command line arguments (not used).
+   * @throws IOException
+   *           if the standard input can't be read.
+   */
+  public static void main(String[] args) throws IOException {
+    new UCIEngine(new BufferedReader(new InputStreamReader(System.in)), System.out).loop();
+    System.exit(0);
+  }
+
+  /**
+   * Read and process the commands of the GUI, until the quit command is sent or the input ends.
+   * Meanwhile the engine can be watched over JMX.
+   *
+   * @throws IOException
+   *           if the input can't be read.
+   */
+  public final void loop() throws IOException {
+    EngineMonitor monitor = EngineMonitor.register(_engine);
+    try {
+      String line;
+      while ((line = _input.readLine()) != null) {
+        if (!processCommand(line)) {
+          return;
+        }
+      }
+      stopSearch();
+    }
+    finally {
+      monitor.unregister();
+    }
+  }
+
+  /**
+   * Process a command of the GUI. Unknown commands are ignored.
+   *
+   * @param line
+   *          The command line.
+   * @return false, if the engine should quit.
+   */
+  public final boolean processCommand(String line) {
+    String[] tokens = line.trim().split("\\s+");
+    String command = tokens[0];
+
+    if (command.equals("uci")) {
+      println("id name " + ENGINE_NAME);
+      println("id author " + ENGINE_AUTHOR);
+      println("option name Hash type spin default " + _engine.getHashSize() + " min 1 max "
+          + MAX_HASHTABLE_SIZE);
+      println("option name Threads type spin default " + _engine.getThreadCount()
+          + " min 1 max " + MAX_THREADS);
+      println("option name Ponder type check default false");
+      println("uciok");
+    }
+    else if (command.equals("isready")) {
+      println("readyok");
+    }
+    else if (command.equals("setoption")) {
+      setOption(tokens);
+    }
+    else if (command.equals("ucinewgame")) {
+      stopSearch();
+      _engine.reset();
+    }
+    else if (command.equals("position")) {
+      stopSearch();
+      setPosition(tokens);
+    }
+    else if (command.equals("go")) {
+      stopSearch();
+      startSearch(tokens);
+    }
+    else if (command.equals("stop")) {
+      stopSearch();
+    }
+    else if (command.equals("ponderhit")) {
+      ponderHit();
+    }
+    else if (command.equals("quit")) {
+      stopSearch();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Set a option of the engine with a command like "setoption name Hash value 64".
+   *
+   * @param tokens
+   *          The tokens of the command.
+   */
+  private final void setOption(String[] tokens) {
+    String name = getParameter(tokens, "name");
+    String value = getParameter(tokens, "value");
+    if ((name == null) || (value == null)) {
+      return;
+    }
+    try {
+      if (name.equalsIgnoreCase("Hash")) {
+        int size = Integer.parseInt(value);
+        _engine.getHashtable().setSizeInMegabytes(Math.max(1, Math.min(size,
+            MAX_HASHTABLE_SIZE)));
+      }
+      else if (name.equalsIgnoreCase("Threads")) {
+        _engine.setThreadCount(Math.min(Integer.parseInt(value), MAX_THREADS));
+      }
+    }
+    catch (NumberFormatException e) {
+      println("info string Illegal value " + value + " for option " + name);
+    }
+  }
+
+  /**
+   * Set up the position of a command like "position startpos moves e2e4 e7e5" or
+   * "position fen ... moves ...".
+   *
+   * @param tokens
+   *          The tokens of the command.
+   */
+  private final void setPosition(String[] tokens) {
+    int index = 1;
+    String fen = FENPosition.INITIAL_POSITION;
+    if ((tokens.length > 1) && tokens[1].equals("fen")) {
+      StringBuffer fenBuffer = new StringBuffer();
+      for (index = 2; (index < tokens.length) && !tokens[index].equals("moves"); index++) {
+        fenBuffer.append(tokens[index]).append(' ');
+      }
+      fen = fenBuffer.toString();
+    }
+    else {
+      index = 2; // Skip the startpos token.
+    }
+
+    _game.reset();
+    try {
+      _white = FENPosition.setPosition(_board, fen);
+    }
+    catch (IllegalPositionException e) {
+      println("info string " + e.getMessage());
+      _white = FENPosition.setPosition(_board, FENPosition.INITIAL_POSITION);
+      return;
+    }
+
+    if ((index < tokens.length) && tokens[index].equals("moves")) {
+      for (index++; index < tokens.length; index++) {
+        int ply = getLegalPly(tokens[index]);
+        if (ply == CompactPly.NO_PLY) {
+          println("info string Illegal ply " + tokens[index]);
+          return;
+        }
+        IPly userPly = CompactPly.decode(ply);
+        _game.doPly(userPly);
+        _board.doPly(userPly);
+        _white = !_white;
+      }
+    }
+  }
+
+  /**
+   * Find the legal ply of the current position for a ply in coordinate notation.
+   *
+   * @param notation
+   *          The ply in coordinate notation, like "e2e4" or "e7e8q".
+   * @return The encoded ply or CompactPly.NO_PLY, if it's not a legal ply.
+   */
+  private final int getLegalPly(String notation) {
+    int[] plies = new int[PlyGenerator.MAX_PLIES];
+    int plyCount = _plyGenerator.getPliesForColor(_board, _white, plies,
+        new int[PlyGenerator.MAX_PLIES]);
+    for (int i = 0; i < plyCount; i++) {
+      if (CompactPly.toCoordinateNotation(plies[i]).equals(notation)) {
+        return plies[i];
+      }
+    }
+    return CompactPly.NO_PLY;
+  }
+
+  /**
+   * Start a search with the limits of a command like "go wtime 60000 btime 60000".
+   *
+   * @param tokens
+   *          The tokens of the command.
+   */
+  private final void startSearch(String[] tokens) {
+    SearchLimits limits = new SearchLimits();
+    try {
+      for (int i = 1; i < tokens.length; i++) {
+        String name = tokens[i];
+        if (name.equals("infinite")) {
+          limits.setInfinite(true);
+        }
+        else if (name.equals("ponder")) {
+          limits.setPonder(true);
+        }
+        else if (i + 1 < tokens.length) {
+          String value = tokens[i + 1];
+          if (name.equals("depth")) {
+            limits.setDepth(Integer.parseInt(value));
+          }
+          else if (name.equals("nodes")) {
+            limits.setNodes(Long.parseLong(value));
+          }
+          else if (name.equals("movetime")) {
+            limits.setMoveTime(Integer.parseInt(value));
+          }
+          else if (name.equals(_white ? "wtime" : "btime")) {
+            limits.setRemainingTime(Math.max(1L, Long.parseLong(value)));
+          }
+          else if (name.equals(_white ? "winc" : "binc")) {
+            limits.setIncrement(Long.parseLong(value));
+          }
+          else if (name.equals("movestogo")) {
+            limits.setMovesToGo(Integer.parseInt(value));
+          }
+        }
+      }
+    }
+    catch (NumberFormatException e) {
+      println("info string Illegal go command");
+    }
+
+    _limits = limits;
+    _stopRequested = false;
+    _engine.setWhite(_white);
+    _searchThread = new Thread(this);
+    _searchThread.start();
+  }
+
+  /**
+   * Stop the current search and wait for it's best ply. The engine resets the stop flag, when the
+   * search thread starts, so it's set again, until the search ended.
+   */
+  private final void stopSearch() {
+    Thread searchThread = _searchThread;
+    if (searchThread == null) {
+      return;
+    }
+    synchronized (this) {
+      _stopRequested = true;
+      notifyAll();
+    }
+    try {
+      while (searchThread.isAlive()) {
+        _engine.stopSearch();
+        searchThread.join(STOP_INTERVAL);
+      }
+    }
+    catch (InterruptedException ignored) {
+    }
+    _searchThread = null;
+  }
+
+  /**
+   * The opponent played the expected ply, so the ponder search continues with a time limit.
+   */
+  private final void ponderHit() {
+    if ((_searchThread != null) && _limits.isPonder()) {
+      synchronized (this) {
+        _limits.setPonder(false);
+        _engine.ponderHit();
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * The main method of the search thread. A infinite or ponder search may end before the GUI
+   * stops it, but the best ply is only sent after the stop or ponderhit command.
+   */
+  public void run() {
+    SearchLimits limits = _limits;
+    _lastInfo = null;
+
+    IPly ply = _engine.computeBestPly(limits);
+
+    synchronized (this) {
+      while (!_stopRequested && (limits.isInfinite() || limits.isPonder())) {
+        try {
+          wait();
+        }
+        catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
+
+    if (ply == null) {
+      println("bestmove 0000"); // The engine is mate or stalemate.
+      return;
+    }
+    int[] variation = _engine.getPrincipalVariation();
+    String bestMove = (variation.length > 0) ? CompactPly.toCoordinateNotation(variation[0])
+        : CompactPly.toCoordinateNotation(CompactPly.encode(ply));
+    println("bestmove " + bestMove + ((variation.length > 1) ? " ponder "
+        + CompactPly.toCoordinateNotation(variation[1]) : ""));
+  }
+
+  /**
+   * The settings of the engine are not shown by the UCI front-end.
+   *
+   * @param engine
+   *          The engine, whose settings changed.
+   */
+  public void engineStatusChanged(ChessEngineImpl engine) {
+  }
+
+  /**
+   * Send the result of a completed iteration to the GUI.
+   *
+   * @param event
+   *          The result of the iteration.
+   */
+  public void iterationCompleted(SearchEvent event) {
+    printInfo(event);
+  }
+
+  /**
+   * Send a new principal variation of the running iteration to the GUI.
+   *
+   * @param event
+   *          The new principal variation.
+   */
+  public void principalVariationChanged(SearchEvent event) {
+    printInfo(event);
+  }
+
+  /**
+   * The final result of the search was already sent as a completed iteration or as a principal
+   * variation of the interrupted iteration, with the depth it came from. The bestmove command
+   * follows, when the search thread ends.
+   *
+   * @param event
+   *          The result of the search.
+   */
+  public void bestPlyFound(SearchEvent event) {
+  }
+
+  /**
+   * The engine is only reset by the ucinewgame command, which has no answer.
+   *
+   * @param engine
+   *          The engine, that was reset.
+   */
+  public void engineReset(ChessEngineImpl engine) {
+  }
+
+  /**
+   * Send a info line with the depth, score, nodes, time and principal variation of a search event.
+   * The score of the event is from the view of white, but UCI expects it from the engine's view.
+   * The first principal variation of a iteration is reported again, when the iteration completes,
+   * so a line, that only differs from the last one in the counters, is not sent.
+   *
+   * @param event
+   *          The search event.
+   */
+  private final void printInfo(SearchEvent event) {
+    SearchStatistics statistics = event.getStatistics();
+    int score = _white ? event.getBestPly().getScore() : -event.getBestPly().getScore();
+    int[] variation = event.getPrincipalVariation();
+
+    StringBuffer pv = new StringBuffer();
+    if (variation.length > 0) {
+      pv.append(" pv");
+      for (int i = 0; i < variation.length; i++) {
+        pv.append(' ').append(CompactPly.toCoordinateNotation(variation[i]));
+      }
+    }
+    String lastInfo = event.getSearchDepth() + " " + formatScore(score) + pv;
+    if (lastInfo.equals(_lastInfo)) {
+      return;
+    }
+    _lastInfo = lastInfo;
+
+    StringBuffer info = new StringBuffer("info depth ");
+    info.append(event.getSearchDepth());
+    info.append(" seldepth ").append(Math.max(statistics.getSelectiveDepth(),
+        event.getSearchDepth()));
+    info.append(" score ").append(formatScore(score));
+    info.append(" nodes ").append(statistics.getTotalNodes());
+    info.append(" nps ").append(statistics.getNodesPerSecond());
+    info.append(" time ").append(statistics.getTime());
+    info.append(pv);
+    println(info.toString());
+  }
+
+  /**
+   * Format a score from the engine's view for a info line. A checkmate is sent as the number of
+   * moves until the mate, which is negative, if the engine is mated. The other scores are sent in
+   * centipawns.
+   *
+   * @param score
+   *          The score from the engine's view.
+   * @return The score with it's unit, like "cp 25" or "mate -3".
+   */
+  private static final String formatScore(int score) {
+    if (score >= MIN_MATE_SCORE) {
+      return "mate " + ((IBitBoardAnalyzer.WHITE_HAS_WON - score + 1) / 2);
+    }
+    if (score <= -MIN_MATE_SCORE) {
+      return "mate " + -((IBitBoardAnalyzer.WHITE_HAS_WON + score + 1) / 2);
+    }
+    return "cp " + (score * 100 / PAWN_VALUE);
+  }
+
+  /**
+   * Get the value of a parameter of a command, like the name of "setoption name Hash value 64".
+   * The value ends at the next keyword of the command.
+   *
+   * @param tokens
+   *          The tokens of the command.
+   * @param parameter
+   *          The name of the parameter.
+   * @return The value of the parameter or null, if it's missing.
+   */
+  private final String getParameter(String[] tokens, String parameter) {
+    StringBuffer value = null;
+    for (int i = 1; i < tokens.length; i++) {
+      if (tokens[i].equals(parameter)) {
+        value = new StringBuffer();
+      }
+      else if (tokens[i].equals("name") || tokens[i].equals("value")) {
+        if (value != null) {
+          break;
+        }
+      }
+      else if (value != null) {
+        if (value.length() > 0) {
+          value.append(' ');
+        }
+        value.append(tokens[i]);
+      }
+    }
+    return (value != null) ? value.toString() : null;
+  }
+
+  /**
+   * Send a line to the GUI. The output is flushed, so the GUI gets it immediately.
+   *
+   * @param line
+   *          The line to send.
+   */
+  private final synchronized void println(String line) {
+    _output.println(line);
+    _output.flush();
+  }
+}
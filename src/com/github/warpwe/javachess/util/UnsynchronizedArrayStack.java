@@ -18,7 +18,7 @@ import java.util.Iterator;
  * This class implements a stack data structure with no synchronization for better performance
  * (compared to the standard J2 Stack implementation). It uses a array, instead of a linked list.
  */
-public class UnsynchronizedArrayStack {
+public class UnsynchronizedArrayStack implements Cloneable {
 
   // Instance variables
 
@@ -57,6 +57,18 @@ public class UnsynchronizedArrayStack {
     items = new Object[capacity];
   }
 
+  /**
+   * Create a new stack with the same items as a given stack.
+   *
+   * @param stack
+   *          The stack to copy.
+   */
+  private UnsynchronizedArrayStack(UnsynchronizedArrayStack stack) {
+    this(stack.items.length);
+    System.arraycopy(stack.items, 0, items, 0, stack.nItems);
+    nItems = stack.nItems;
+  }
+
   // Methods
 
   /**
@@ -150,6 +162,15 @@ public class UnsynchronizedArrayStack {
     return new ArrayStackIterator(items, nItems);
   }
 
+  /**
+   * Create a copy of this stack. The items themselves are not copied.
+   *
+   * @return A copy of this stack.
+   */
+  public final Object clone() {
+    return new UnsynchronizedArrayStack(this);
+  }
+
   /**
    * Increase the capacity of the stack.
    */